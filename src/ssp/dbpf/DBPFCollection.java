@@ -17,10 +17,14 @@
  */
 package ssp.dbpf;
 
+import java.io.Closeable;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
+import ssp.dbpf.tgi.IndexedList;
+import ssp.dbpf.tgi.TGIIndex;
+import ssp.dbpf.tgi.TGIKey;
 import ssp.dbpf.types.DBPFType;
 
 /**
@@ -32,21 +36,29 @@ import ssp.dbpf.types.DBPFType;
  * 
  * The default filename is blank.dat.
  * 
+ * If the collection was read lazy, it holds the opened container of the file
+ * to read the types on first access. Close the collection, if no more types
+ * are needed. If the file is written again, e.g. by DBPFWriter, read the
+ * collection again, the offsets of the not loaded types do not match the new
+ * file.
+ * 
  * @author Stefan Wertich, mapsonswen@web.de
  * @version 2.0.0, 13.08.2012
  * 
  */
-public class DBPFCollection {
+public class DBPFCollection implements Closeable {
 
 	private File filename;
 	private List<DBPFType> typeList;
+	private TGIIndex<DBPFType> typeIndex;
+	private DBPFContainer container;
 
 	/**
 	 * Constructor.<br>
 	 */
 	public DBPFCollection() {
 		filename = new File("blank.dat");
-		typeList = new ArrayList<DBPFType>();
+		typeList = createIndexedList(new ArrayList<DBPFType>());
 	}
 
 	@Override
@@ -60,8 +72,115 @@ public class DBPFCollection {
 	 * @param type
 	 *            The type
 	 */
-	public void addType(DBPFType type) {
+	public synchronized void addType(DBPFType type) {
+		// the index is updated instead of rebuilt
+		TGIIndex<DBPFType> index = typeIndex;
 		typeList.add(type);
+		if (index != null) {
+			index.add(type.getTGIKey(), type);
+			typeIndex = index;
+		}
+	}
+
+	/**
+	 * Returns the first type with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The type or NULL, if not found
+	 */
+	public synchronized DBPFType getType(TGIKey tgiKey) {
+		DBPFType type = getTypeIndex().getFirst(tgiKey);
+		if (type != null && !type.getTGIKey().equals(tgiKey)) {
+			typeIndex = null;
+			type = getTypeIndex().getFirst(tgiKey);
+		}
+		return type;
+	}
+
+	/**
+	 * Returns all types with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The types in order of the typeList, might be empty
+	 */
+	public synchronized List<DBPFType> searchTypes(TGIKey tgiKey) {
+		List<DBPFType> result = getTypeIndex().get(tgiKey);
+		for (DBPFType type : result) {
+			if (!type.getTGIKey().equals(tgiKey)) {
+				typeIndex = null;
+				return getTypeIndex().get(tgiKey);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the count of types with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The count
+	 */
+	public synchronized int countTGI(TGIKey tgiKey) {
+		return searchTypes(tgiKey).size();
+	}
+
+	/**
+	 * Rebuilds the TGI index on next search.<br>
+	 * Modifications of the typeList rebuild the index automatically and found
+	 * types with a changed TGI are detected on search. Call this, if the TGI
+	 * of a type was changed, so that it matches another search.
+	 */
+	public synchronized void reindex() {
+		typeIndex = null;
+	}
+
+	/**
+	 * Returns the TGI index and builds it, if necessary.<br>
+	 * 
+	 * @return The index
+	 */
+	private TGIIndex<DBPFType> getTypeIndex() {
+		if (typeIndex == null || typeIndex.size() != typeList.size()) {
+			typeIndex = new TGIIndex<DBPFType>();
+			for (DBPFType type : typeList) {
+				typeIndex.add(type.getTGIKey(), type);
+			}
+		}
+		return typeIndex;
+	}
+
+	/**
+	 * Creates a list, which invalidates the TGI index on modification.<br>
+	 * 
+	 * @param list
+	 *            The backing list
+	 * @return The list
+	 */
+	private List<DBPFType> createIndexedList(List<DBPFType> list) {
+		return new IndexedList<DBPFType>(list) {
+			@Override
+			protected void invalidate() {
+				reindex();
+			}
+		};
+	}
+
+	/**
+	 * Closes the container of this collection, if any.<br>
+	 * Not loaded lazy types can still be loaded afterwards, but each will open
+	 * the file again.
+	 */
+	@Override
+	public void close() {
+		if (container != null) {
+			container.close();
+		}
 	}
 
 	// **********************************************************
@@ -84,7 +203,27 @@ public class DBPFCollection {
 	}
 
 	/**
-	 * @return the entryList
+	 * Returns the container of a lazy read collection.<br>
+	 * 
+	 * @return the container or NULL, if not read lazy
+	 */
+	public DBPFContainer getContainer() {
+		return container;
+	}
+
+	/**
+	 * @param container
+	 *            the container to set
+	 */
+	public void setContainer(DBPFContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Returns the typeList.<br>
+	 * Modifications of the list invalidate the TGI index.
+	 * 
+	 * @return the typeList
 	 */
 	public List<DBPFType> getTypeList() {
 		return typeList;
@@ -94,8 +233,9 @@ public class DBPFCollection {
 	 * @param typeList
 	 *            the typeList to set
 	 */
-	public void setTypeList(List<DBPFType> typeList) {
-		this.typeList = typeList;
+	public synchronized void setTypeList(List<DBPFType> typeList) {
+		this.typeList = createIndexedList(typeList);
+		this.typeIndex = null;
 	}
 
 }
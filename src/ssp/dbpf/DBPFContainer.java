@@ -17,22 +17,41 @@
  */
 package ssp.dbpf;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
+import java.util.logging.Level;
 
 import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.io.DBPFReader;
+import ssp.dbpf.tgi.IndexedList;
+import ssp.dbpf.tgi.TGIIndex;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.util.DBPFLogger;
+import ssp.dbpf.util.DBPFUtil;
 import ssp.dbpf.util.DBPFUtil2;
 
 /**
  * Defines a DBPF file.<br>
  * 
+ * The container can hold the file open with {@link #open()}, so all entries
+ * are read through the same FileChannel with positional reads. An opened
+ * container has to be closed with {@link #close()}.
+ * 
  * @author Stefan Wertich, mapsonswen@web.de
  * @version 2.0.0, 13.08.2012
  * 
  */
-public class DBPFContainer {
+public class DBPFContainer implements Closeable {
+
+	private static final String LOGNAME = DBPFContainer.class.getSimpleName();
 
 	private long majorVersion = 0;
 	private long minorVersion = 0;
@@ -44,13 +63,17 @@ public class DBPFContainer {
 
 	private File filename;
 	private List<DBPFEntry> entryList;
+	private TGIIndex<DBPFEntry> entryIndex;
+
+	private RandomAccessFile raf;
+	private FileChannel channel;
 
 	/**
 	 * Constructor.<br>
 	 */
 	public DBPFContainer() {
 		this.filename = new File("blank.dat");
-		this.entryList = new ArrayList<DBPFEntry>(10);
+		this.entryList = createIndexedList(new ArrayList<DBPFEntry>(10));
 	}
 
 	@Override
@@ -77,6 +100,98 @@ public class DBPFContainer {
 		return sb.toString();
 	}
 
+	/**
+	 * Opens the file of this container for reading.<br>
+	 * 
+	 * The channel stays open till {@link #close()} is called. Does nothing, if
+	 * the container is already open.
+	 * 
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public synchronized void open() throws DBPFException {
+		if (channel == null) {
+			try {
+				raf = new RandomAccessFile(filename, "r");
+				channel = raf.getChannel();
+			} catch (FileNotFoundException e) {
+				throw new DBPFException(LOGNAME, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Check, if the file of this container is open.<br>
+	 * 
+	 * @return TRUE, if open; FALSE, otherwise
+	 */
+	public synchronized boolean isOpen() {
+		return channel != null;
+	}
+
+	/**
+	 * Closes the file of this container.<br>
+	 * 
+	 * Does nothing, if the container is not open.
+	 */
+	@Override
+	public synchronized void close() {
+		if (raf != null) {
+			try {
+				raf.close();
+			} catch (IOException e) {
+				DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			}
+		}
+		raf = null;
+		channel = null;
+	}
+
+	/**
+	 * Returns the channel of the opened file.<br>
+	 * 
+	 * @return The channel or NULL, if the container is not open
+	 */
+	public synchronized FileChannel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * Reads the data of the given entry with a positional read from the open
+	 * channel.<br>
+	 * The data is converted to a short array, see {@link #readBytes(DBPFEntry)}
+	 * . The data might be compressed!
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if container not open or I/O error
+	 */
+	public short[] readData(DBPFEntry entry) throws DBPFException {
+		return DBPFUtil.toShorts(readBytes(entry));
+	}
+
+	/**
+	 * Reads the data of the given entry with a positional read from the open
+	 * channel.<br>
+	 * The data might be compressed!
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if container not open or I/O error
+	 */
+	public byte[] readBytes(DBPFEntry entry) throws DBPFException {
+		FileChannel fc = getChannel();
+		if (fc == null) {
+			throw new DBPFException(LOGNAME, "Container is not open: "
+					+ filename);
+		}
+		return DBPFReader.readBytes(fc, entry);
+	}
+
 	/**
 	 * @return the filename
 	 */
@@ -93,18 +208,33 @@ public class DBPFContainer {
 	}
 
 	/**
-	 * @return the fileList
+	 * Returns the entryList.<br>
+	 * Modifications of the list invalidate the TGI index.
+	 * 
+	 * @return the entryList
 	 */
 	public List<DBPFEntry> getEntryList() {
 		return entryList;
 	}
 
 	/**
+	 * Sets the entryList.<br>
+	 * If it is a {@link DBPFEntryTable}, the container of the table is set to
+	 * this container and the TGI index of the table is used, otherwise the
+	 * list is wrapped to invalidate the TGI index on modification.
+	 * 
 	 * @param fileList
 	 *            the fileList to set
 	 */
-	public void setEntryList(Vector<DBPFEntry> fileList) {
-		this.entryList = fileList;
+	public synchronized void setEntryList(List<DBPFEntry> fileList) {
+		this.entryIndex = null;
+		if (fileList instanceof DBPFEntryTable) {
+			// the table invalidates the index itself
+			((DBPFEntryTable) fileList).setContainer(this);
+			this.entryList = fileList;
+		} else {
+			this.entryList = createIndexedList(fileList);
+		}
 	}
 
 	/**
@@ -113,8 +243,129 @@ public class DBPFContainer {
 	 * @param entry
 	 *            The entry
 	 */
-	public void addEntry(DBPFEntry entry) {
+	public synchronized void addEntry(DBPFEntry entry) {
+		if (entryList instanceof DBPFEntryTable) {
+			// a table stores a copy of the entry and updates its own index
+			entryList.add(entry);
+			return;
+		}
+		entry.setContainer(this);
+		// the index is updated instead of rebuilt
+		TGIIndex<DBPFEntry> index = entryIndex;
 		entryList.add(entry);
+		if (index != null) {
+			index.add(entry.getTGIKey(), entry);
+			entryIndex = index;
+		}
+	}
+
+	/**
+	 * Returns the first entry with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex} and
+	 * {@link DBPFEntryTable#searchIndex(TGIKey)}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The entry or NULL, if not found
+	 */
+	public synchronized DBPFEntry getEntry(TGIKey tgiKey) {
+		if (entryList instanceof DBPFEntryTable) {
+			DBPFEntryTable table = (DBPFEntryTable) entryList;
+			int index = table.searchIndex(tgiKey);
+			return index < 0 ? null : table.get(index);
+		}
+		DBPFEntry entry = getEntryIndex().getFirst(tgiKey);
+		if (entry != null && !entry.getTGIKey().equals(tgiKey)) {
+			entryIndex = null;
+			entry = getEntryIndex().getFirst(tgiKey);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns all entries with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex} and
+	 * {@link DBPFEntryTable#searchIndices(TGIKey)}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The entries in order of the entryList, might be empty
+	 */
+	public synchronized List<DBPFEntry> searchEntries(TGIKey tgiKey) {
+		if (entryList instanceof DBPFEntryTable) {
+			DBPFEntryTable table = (DBPFEntryTable) entryList;
+			int[] indices = table.searchIndices(tgiKey);
+			List<DBPFEntry> result = new ArrayList<DBPFEntry>(indices.length);
+			for (int index : indices) {
+				result.add(table.get(index));
+			}
+			return result;
+		}
+		List<DBPFEntry> result = getEntryIndex().get(tgiKey);
+		for (DBPFEntry entry : result) {
+			if (!entry.getTGIKey().equals(tgiKey)) {
+				entryIndex = null;
+				return getEntryIndex().get(tgiKey);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the count of entries with the given TGI.<br>
+	 * Uses the TGI index, see {@link TGIIndex}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The count
+	 */
+	public synchronized int countTGI(TGIKey tgiKey) {
+		if (entryList instanceof DBPFEntryTable) {
+			return ((DBPFEntryTable) entryList).searchIndices(tgiKey).length;
+		}
+		return searchEntries(tgiKey).size();
+	}
+
+	/**
+	 * Rebuilds the TGI index on next search.<br>
+	 * Modifications of the entryList rebuild the index automatically and
+	 * found entries with a changed TGI are detected on search. Call this, if
+	 * the TGI of an entry was changed, so that it matches another search.
+	 */
+	public synchronized void reindex() {
+		entryIndex = null;
+	}
+
+	/**
+	 * Returns the TGI index and builds it, if necessary.<br>
+	 * Not used for a {@link DBPFEntryTable}, which has its own index.
+	 * 
+	 * @return The index
+	 */
+	private TGIIndex<DBPFEntry> getEntryIndex() {
+		if (entryIndex == null || entryIndex.size() != entryList.size()) {
+			entryIndex = new TGIIndex<DBPFEntry>();
+			for (DBPFEntry entry : entryList) {
+				entryIndex.add(entry.getTGIKey(), entry);
+			}
+		}
+		return entryIndex;
+	}
+
+	/**
+	 * Creates a list, which invalidates the TGI index on modification.<br>
+	 * 
+	 * @param list
+	 *            The backing list
+	 * @return The list
+	 */
+	private List<DBPFEntry> createIndexedList(List<DBPFEntry> list) {
+		return new IndexedList<DBPFEntry>(list) {
+			@Override
+			protected void invalidate() {
+				reindex();
+			}
+		};
 	}
 
 	/**
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.tgi.TGIIntMap;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIKeys;
+
+/**
+ * Merged TGI index over the containers of several DBPF files.<br>
+ * 
+ * The containers are added in load order. For each TGI the index stores all
+ * entries in this order, the last one wins and overrides (shadows) the
+ * others. The DIRECTORY entries are not indexed, because each file has its
+ * own one.<br>
+ * 
+ * An entry is stored as a reference of primitive container and row index,
+ * the entries are only created, when they are returned. So the entry lists
+ * of the added containers must not be changed afterwards.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFPluginIndex {
+
+	private static final int NO_REF = -1;
+
+	private List<DBPFContainer> containerList;
+	// TGI to the reference of the winner
+	private TGIIntMap winnerMap;
+	// per reference: container index, row index and the previous reference
+	// of the same TGI or NO_REF
+	private int[] refContainers;
+	private int[] refRows;
+	private int[] refPrevious;
+	private int refCount;
+	private int shadowedCount;
+
+	/**
+	 * Constructor.<br>
+	 */
+	public DBPFPluginIndex() {
+		containerList = new ArrayList<DBPFContainer>();
+		winnerMap = new TGIIntMap();
+		refContainers = new int[16];
+		refRows = new int[16];
+		refPrevious = new int[16];
+	}
+
+	@Override
+	public String toString() {
+		return "Files: " + containerList.size() + ", TGIs: "
+				+ winnerMap.size() + ", Shadowed: " + shadowedCount;
+	}
+
+	/**
+	 * Adds the entries of the container to the index.<br>
+	 * The container must be added in load order, because the entries of a
+	 * later container override the entries of the earlier ones.
+	 * 
+	 * @param container
+	 *            The container
+	 */
+	public void addContainer(DBPFContainer container) {
+		TGIKey tgiKeyDir = TGIKeys.DIRECTORY.getTGIKey();
+		int containerIndex = containerList.size();
+		containerList.add(container);
+		List<DBPFEntry> entryList = container.getEntryList();
+		DBPFEntryTable table = null;
+		if (entryList instanceof DBPFEntryTable) {
+			table = (DBPFEntryTable) entryList;
+		}
+		ensureCapacity(refCount + entryList.size());
+		for (int row = 0; row < entryList.size(); row++) {
+			long tid, gid, iid;
+			if (table != null) {
+				// read the ids without creating a view
+				tid = table.getTID(row);
+				gid = table.getGID(row);
+				iid = table.getIID(row);
+			} else {
+				TGIKey tgiKey = entryList.get(row).getTGIKey();
+				tid = tgiKey.getTID();
+				gid = tgiKey.getGID();
+				iid = tgiKey.getIID();
+			}
+			if (tid == tgiKeyDir.getTID() && gid == tgiKeyDir.getGID()
+					&& iid == tgiKeyDir.getIID()) {
+				continue;
+			}
+			int previous = winnerMap.put(tid, gid, iid, refCount);
+			if (previous != TGIIntMap.NOT_FOUND
+					&& refPrevious[previous] == NO_REF) {
+				shadowedCount++;
+			}
+			refContainers[refCount] = containerIndex;
+			refRows[refCount] = row;
+			refPrevious[refCount] = previous == TGIIntMap.NOT_FOUND ? NO_REF
+					: previous;
+			refCount++;
+		}
+	}
+
+	/**
+	 * Returns the entry, which wins for the given TGI.<br>
+	 * This is the entry of the last loaded file.
+	 * 
+	 * @param tgiKey
+	 *            The exact TGI
+	 * @return The entry or NULL, if not found
+	 */
+	public DBPFEntry getWinner(TGIKey tgiKey) {
+		int ref = winnerMap.get(tgiKey);
+		if (ref == TGIIntMap.NOT_FOUND) {
+			return null;
+		}
+		return getEntry(ref);
+	}
+
+	/**
+	 * Returns the entries, which are overridden by the winner for the given
+	 * TGI.<br>
+	 * The entries are in load order.
+	 * 
+	 * @param tgiKey
+	 *            The exact TGI
+	 * @return The entries, might be empty
+	 */
+	public List<DBPFEntry> getShadowed(TGIKey tgiKey) {
+		int ref = winnerMap.get(tgiKey);
+		if (ref == TGIIntMap.NOT_FOUND || refPrevious[ref] == NO_REF) {
+			return Collections.emptyList();
+		}
+		return getEntries(refPrevious[ref]);
+	}
+
+	/**
+	 * Returns all entries for the given TGI in load order.<br>
+	 * 
+	 * @param tgiKey
+	 *            The exact TGI
+	 * @return The entries, might be empty
+	 */
+	public List<DBPFEntry> getEntries(TGIKey tgiKey) {
+		int ref = winnerMap.get(tgiKey);
+		if (ref == TGIIntMap.NOT_FOUND) {
+			return Collections.emptyList();
+		}
+		return getEntries(ref);
+	}
+
+	/**
+	 * Returns the entries of the reference and its previous references.<br>
+	 * 
+	 * @param lastRef
+	 *            The last reference
+	 * @return The entries in load order
+	 */
+	private List<DBPFEntry> getEntries(int lastRef) {
+		List<DBPFEntry> entryList = new ArrayList<DBPFEntry>(2);
+		for (int ref = lastRef; ref != NO_REF; ref = refPrevious[ref]) {
+			entryList.add(getEntry(ref));
+		}
+		Collections.reverse(entryList);
+		return Collections.unmodifiableList(entryList);
+	}
+
+	/**
+	 * Returns the entry of the reference.<br>
+	 * 
+	 * @param ref
+	 *            The reference
+	 * @return The entry, a new view for a DBPFEntryTable
+	 */
+	private DBPFEntry getEntry(int ref) {
+		return containerList.get(refContainers[ref]).getEntryList()
+				.get(refRows[ref]);
+	}
+
+	/**
+	 * Returns the TGI of the reference.<br>
+	 * 
+	 * @param ref
+	 *            The reference
+	 * @return The TGI
+	 */
+	private TGIKey getTGIKey(int ref) {
+		List<DBPFEntry> entryList = containerList.get(refContainers[ref])
+				.getEntryList();
+		if (entryList instanceof DBPFEntryTable) {
+			return ((DBPFEntryTable) entryList).getTGIKey(refRows[ref]);
+		}
+		return (TGIKey) entryList.get(refRows[ref]).getTGIKey().clone();
+	}
+
+	/**
+	 * Ensures the capacity of the reference arrays.<br>
+	 * 
+	 * @param capacity
+	 *            The minimum capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > refRows.length) {
+			int newCapacity = Math.max(capacity, refRows.length * 3 / 2 + 1);
+			refContainers = Arrays.copyOf(refContainers, newCapacity);
+			refRows = Arrays.copyOf(refRows, newCapacity);
+			refPrevious = Arrays.copyOf(refPrevious, newCapacity);
+		}
+	}
+
+	/**
+	 * Check, if the given entry is overridden by an entry of a later loaded
+	 * file.<br>
+	 * The entries are compared by their file and offset, because the entries
+	 * of a DBPFEntryTable are new views on each access.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return TRUE, if shadowed; FALSE, otherwise
+	 */
+	public boolean isShadowed(DBPFEntry entry) {
+		DBPFEntry winner = getWinner(entry.getTGIKey());
+		return winner != null && !isSameEntry(winner, entry);
+	}
+
+	/**
+	 * Check, if both entries describe the same record of the same file.<br>
+	 * 
+	 * @param entryA
+	 *            The first entry
+	 * @param entryB
+	 *            The second entry
+	 * @return TRUE, if the same; FALSE, otherwise
+	 */
+	private static boolean isSameEntry(DBPFEntry entryA, DBPFEntry entryB) {
+		if (entryA == entryB) {
+			return true;
+		}
+		if (entryA.getContainer() == null && entryA.getFilename() == null) {
+			// no file to compare with
+			return false;
+		}
+		if (entryA.getContainer() != entryB.getContainer()) {
+			return false;
+		}
+		File fileA = entryA.getFilename();
+		File fileB = entryB.getFilename();
+		if (fileA == null ? fileB != null : !fileA.equals(fileB)) {
+			return false;
+		}
+		return entryA.getOffset() == entryB.getOffset()
+				&& entryA.getSize() == entryB.getSize();
+	}
+
+	/**
+	 * Returns the number of TGIs with more than one entry.<br>
+	 * 
+	 * @return The count
+	 */
+	public int getShadowedCount() {
+		return shadowedCount;
+	}
+
+	/**
+	 * Returns for each file the TGIs, which it overrides from earlier loaded
+	 * files.<br>
+	 * 
+	 * @return The map from file to the overridden TGIs
+	 */
+	public Map<File, List<TGIKey>> getOverrides() {
+		Map<File, List<TGIKey>> overrides = new HashMap<File, List<TGIKey>>();
+		for (int ref = 0; ref < refCount; ref++) {
+			if (refPrevious[ref] != NO_REF) {
+				// not the first occurrence
+				continue;
+			}
+			TGIKey tgiKey = getTGIKey(ref);
+			int winner = winnerMap.get(tgiKey);
+			if (winner != ref) {
+				File file = getEntry(winner).getFilename();
+				List<TGIKey> tgiList = overrides.get(file);
+				if (tgiList == null) {
+					tgiList = new ArrayList<TGIKey>();
+					overrides.put(file, tgiList);
+				}
+				tgiList.add(tgiKey);
+			}
+		}
+		return overrides;
+	}
+
+	/**
+	 * Returns all indexed TGIs.<br>
+	 * 
+	 * @return The TGIs in order of first occurrence
+	 */
+	public List<TGIKey> getTGIKeys() {
+		List<TGIKey> tgiKeyList = new ArrayList<TGIKey>(winnerMap.size());
+		for (int ref = 0; ref < refCount; ref++) {
+			if (refPrevious[ref] == NO_REF) {
+				tgiKeyList.add(getTGIKey(ref));
+			}
+		}
+		return Collections.unmodifiableList(tgiKeyList);
+	}
+
+	/**
+	 * Returns the count of indexed TGIs.<br>
+	 * 
+	 * @return The count
+	 */
+	public int size() {
+		return winnerMap.size();
+	}
+
+	/**
+	 * @return the containerList in load order
+	 */
+	public List<DBPFContainer> getContainerList() {
+		return containerList;
+	}
+
+	/**
+	 * Returns the files in load order.<br>
+	 * 
+	 * @return The files
+	 */
+	public List<File> getFileList() {
+		List<File> fileList = new ArrayList<File>(containerList.size());
+		for (DBPFContainer container : containerList) {
+			fileList.add(container.getFilename());
+		}
+		return fileList;
+	}
+}
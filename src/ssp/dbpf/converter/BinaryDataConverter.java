@@ -51,6 +51,28 @@ public class BinaryDataConverter {
 	 * @throws DBPFException Thrown, if exemplar cannot be created 
 	 */
 	public static DBPFExemplar createExemplar(short[] dData) throws DBPFException {
+		return createExemplar(dData, false);
+	}
+
+	/**
+	 * Creates an exemplar from the given data.<br>
+	 * 
+	 * The data is in the Binary-format (0x42).<br>
+	 * The header is EQZB1###.<br>
+	 * If lazy, the data is only scanned for the offset of each property, the
+	 * properties are decoded by the exemplar not before they are requested.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param lazy
+	 *            TRUE, to decode the properties on request; FALSE, to decode
+	 *            all at once
+	 * @return The exemplar
+	 * @throws DBPFException
+	 *             Thrown, if exemplar cannot be created
+	 */
+	public static DBPFExemplar createExemplar(short[] dData, boolean lazy)
+			throws DBPFException {
 		DBPFExemplar exemplar = new DBPFExemplar();
 		// Reading the exemplars TGI
 		exemplar.setCohortT(DBPFUtil.getUint32(dData, 0x08, 4));
@@ -59,15 +81,27 @@ public class BinaryDataConverter {
 
 		// Reading the properties
 		int propCount = (int) DBPFUtil.getUint32(dData, 0x14, 4);
-		DBPFProperty[] propertyList = new DBPFProperty[propCount];
 		// Size of header
 		int pos = 0x18;
-		for (int i = 0; i < propCount; i++) {
-			DBPFProperty prop = PropertyConverter.createProperty(dData, pos);
-			propertyList[i] = prop;
-			pos += prop.getBinaryLength();
+		if (lazy) {
+			int[] offsets = new int[propCount];
+			int[] lengths = new int[propCount];
+			for (int i = 0; i < propCount; i++) {
+				offsets[i] = pos;
+				lengths[i] = PropertyConverter.getBinaryLength(dData, pos);
+				pos += lengths[i];
+			}
+			exemplar.setPropertyData(dData, offsets, lengths);
+		} else {
+			DBPFProperty[] propertyList = new DBPFProperty[propCount];
+			for (int i = 0; i < propCount; i++) {
+				DBPFProperty prop = PropertyConverter
+						.createProperty(dData, pos);
+				propertyList[i] = prop;
+				pos += prop.getBinaryLength();
+			}
+			exemplar.setPropertyList(propertyList);
 		}
-		exemplar.setPropertyList(propertyList);
 		exemplar.setFormat(DBPFConstant.FORMAT_BINARY);
 		return exemplar;
 	}
@@ -82,7 +116,6 @@ public class BinaryDataConverter {
 	 * @return The data
 	 */
 	public static short[] createData(DBPFExemplar exemplar) {
-		DBPFProperty[] propList = exemplar.getPropertyList();
 		int length = ExemplarConverter.calcDataLength(exemplar);
 		short[] data = new short[length];
 		DBPFUtil.setChars(DBPFConstant.MAGICNUMBER_EQZ, data, 0x00);
@@ -94,14 +127,18 @@ public class BinaryDataConverter {
 		DBPFUtil.setUint32(exemplar.getCohortT(), data, 0x08, 4);
 		DBPFUtil.setUint32(exemplar.getCohortG(), data, 0x0c, 4);
 		DBPFUtil.setUint32(exemplar.getCohortI(), data, 0x10, 4);
-		DBPFUtil.setUint32(propList.length, data, 0x14, 4);
+		DBPFUtil.setUint32(exemplar.getPropertyCount(), data, 0x14, 4);
 		int pos = 0x18;
-		for (DBPFProperty prop : propList) {
-			short[] pdata = prop.toRaw();
-			for (int i = 0; i < pdata.length; i++) {
-				data[pos + i] = pdata[i];
+		for (int i = 0; i < exemplar.getPropertyCount(); i++) {
+			DBPFProperty prop = exemplar.getDecodedProperty(i);
+			if (prop == null) {
+				// not decoded property of a lazy exemplar
+				pos += exemplar.copyRawProperty(i, data, pos);
+			} else {
+				short[] pdata = prop.toRaw();
+				System.arraycopy(pdata, 0, data, pos, pdata.length);
+				pos += pdata.length;
 			}
-			pos += pdata.length;
 		}
 		return data;
 	}
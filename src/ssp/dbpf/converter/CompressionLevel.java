@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.converter;
+
+/**
+ * Defines the levels of the QFS compression of the DBPFPackager.<br>
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public enum CompressionLevel {
+
+	/**
+	 * Greedy matching, which checks only the latest offsets of each byte
+	 * combination. For fast saves while editing.
+	 */
+	FAST(0x08, false),
+	/**
+	 * Greedy matching as in version 2.0.0
+	 */
+	DEFAULT(0x80, false),
+	/**
+	 * Optimal parsing, which chooses the matches with the smallest size of the
+	 * whole compressed data. Slow, for release builds.
+	 */
+	MAX(0x200, true);
+
+	private int maxIterations;
+	private boolean optimal;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param maxIterations
+	 *            The maximal count of offsets checked for a match
+	 * @param optimal
+	 *            TRUE, if optimal parsing; FALSE, if greedy
+	 */
+	CompressionLevel(int maxIterations, boolean optimal) {
+		this.maxIterations = maxIterations;
+		this.optimal = optimal;
+	}
+
+	/**
+	 * @return the maximal count of offsets checked for a match
+	 */
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * @return TRUE, if optimal parsing; FALSE, if greedy matching
+	 */
+	public boolean isOptimal() {
+		return optimal;
+	}
+}
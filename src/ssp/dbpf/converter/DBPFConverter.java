@@ -40,6 +40,7 @@ import ssp.dbpf.types.DBPFExemplar;
 import ssp.dbpf.types.DBPFFSH;
 import ssp.dbpf.types.DBPFLText;
 import ssp.dbpf.types.DBPFLUA;
+import ssp.dbpf.types.DBPFLazyType;
 import ssp.dbpf.types.DBPFPNG;
 import ssp.dbpf.types.DBPFRUL;
 import ssp.dbpf.types.DBPFRaw;
@@ -47,6 +48,7 @@ import ssp.dbpf.types.DBPFS3D;
 import ssp.dbpf.types.DBPFType;
 import ssp.dbpf.types.DBPFWAV;
 import ssp.dbpf.util.DBPFLogger;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * This class provide functions to convert between DBPFEntry, DBPFType and
@@ -104,19 +106,38 @@ public class DBPFConverter {
 	 */
 	public static DBPFType createType(DBPFEntry entry, boolean onlyRawType)
 			throws DBPFException {
+		return createType(entry, onlyRawType, false);
+	}
+
+	/**
+	 * Creates a DBPFType from given DBPFEntry.<br>
+	 * 
+	 * @param entry
+	 *            The DBPFEntry
+	 * @param onlyRawType
+	 *            TRUE, if only returns DBPFRaw with no decompress or decode
+	 * @param lazy
+	 *            TRUE, to decode the properties of an exemplar on request
+	 * @return The DBPFType
+	 * @throws DBPFException
+	 *             Thrown, if entry cannot be read
+	 */
+	private static DBPFType createType(DBPFEntry entry, boolean onlyRawType,
+			boolean lazy) throws DBPFException {
 		TGIKey tgiKey = entry.getTGIKey();
 		// System.out.println("Entry: "+entry.toString()+","+entry.getFilename());
 		// read rawdata from entry
-		short[] data = DBPFReader.readData(entry);
+		byte[] data = DBPFReader.readBytes(entry);
 		DBPFPackagerInfo info = new DBPFPackagerInfo();
-		short[] dData = DBPFPackager.decompress(data, info);
+		byte[] dData = DBPFPackager.decompress(data, info);
 
 		DBPFType type = null;
 		// if not only raw, try to decode the data
 		if (!onlyRawType) {
 			try {
 				if (tgiKey.equals(TGIKeys.EXEMPLAR)) {
-					type = ExemplarConverter.createType(dData);
+					type = ExemplarConverter.createType(
+							DBPFUtil.toShorts(dData), lazy);
 				} else if (tgiKey.equals(TGIKeys.COHORT)) {
 					type = CohortConverter.createType(dData);
 				} else if (tgiKey.equals(TGIKeys.PNG)) {
@@ -146,7 +167,7 @@ public class DBPFConverter {
 		// if only raw or decoding failed, use raw type
 		if (onlyRawType || type == null) {
 			type = new DBPFRaw();
-			((DBPFRaw) type).setData(data);
+			((DBPFRaw) type).setBytes(data);
 		}
 		type.setTGIKey(tgiKey);
 		type.setCompressed(info.isCompressed());
@@ -154,6 +175,28 @@ public class DBPFConverter {
 		return type;
 	}
 
+	/**
+	 * Returns the format ID of the type, which is created for the TGI by
+	 * {@link #createType(DBPFEntry)}, without reading the entry.<br>
+	 * If the data cannot be decoded, the created type is RAW instead.
+	 * 
+	 * @param tgiKey
+	 *            The TGI of the entry
+	 * @return The format ID, see {@link TGIKeys#getFormatID()}
+	 */
+	public static int getFormatID(TGIKey tgiKey) {
+		// in the order of createType
+		TGIKeys[] decoded = { TGIKeys.EXEMPLAR, TGIKeys.COHORT, TGIKeys.PNG,
+				TGIKeys.WAV, TGIKeys.LTEXT, TGIKeys.DIRECTORY, TGIKeys.LUA,
+				TGIKeys.RUL, TGIKeys.FSH, TGIKeys.S3D };
+		for (TGIKeys keys : decoded) {
+			if (tgiKey.equals(keys)) {
+				return keys.getFormatID();
+			}
+		}
+		return TGIKeys.RAW.getFormatID();
+	}
+
 	/**
 	 * Create an exemplar from the given entry. If the entry is not an exemplar
 	 * or the exmplar could not be created this return null.
@@ -166,8 +209,28 @@ public class DBPFConverter {
 	 */
 	public static DBPFExemplar createExemplar(DBPFEntry entry)
 			throws DBPFException {
+		return createExemplar(entry, false);
+	}
+
+	/**
+	 * Create an exemplar from the given entry. If the entry is not an exemplar
+	 * or the exmplar could not be created this return null.<br>
+	 * If lazy, the properties of the Binary-format are decoded not before they
+	 * are requested, e.g. by {@link DBPFExemplar#getPropertyByID(long)}.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @param lazy
+	 *            TRUE, to decode the properties on request; FALSE, to decode
+	 *            all at once
+	 * @return The exemplar or NULL if entry no exemplar
+	 * @throws DBPFException
+	 *             Thrown, if entry cannot be read
+	 */
+	public static DBPFExemplar createExemplar(DBPFEntry entry, boolean lazy)
+			throws DBPFException {
 		if (entry.getTGIKey().equals(TGIKeys.EXEMPLAR)) {
-			DBPFType type = DBPFConverter.createType(entry);
+			DBPFType type = DBPFConverter.createType(entry, false, lazy);
 			if (type instanceof DBPFExemplar) {
 				return (DBPFExemplar) type;
 			}
@@ -241,6 +304,7 @@ public class DBPFConverter {
 
 	/**
 	 * Creates an array with the data from the DBPFType.<br>
+	 * The data is converted to a short array, see {@link #createBytes(DBPFType)}.
 	 * 
 	 * @param type
 	 *            The DBPFType
@@ -249,40 +313,82 @@ public class DBPFConverter {
 	 *             Thrown, if cannot create data from type
 	 */
 	public static short[] createData(DBPFType type) throws DBPFException {
+		byte[] data = createBytes(type);
+		if (data == null) {
+			return null;
+		}
+		return DBPFUtil.toShorts(data);
+	}
+
+	/**
+	 * Creates an array with the data from the DBPFType.<br>
+	 * 
+	 * @param type
+	 *            The DBPFType
+	 * @return The data
+	 * @throws DBPFException
+	 *             Thrown, if cannot create data from type
+	 */
+	public static byte[] createBytes(DBPFType type) throws DBPFException {
+		return createBytes(type, CompressionLevel.DEFAULT);
+	}
+
+	/**
+	 * Creates an array with the data from the DBPFType.<br>
+	 * 
+	 * @param type
+	 *            The DBPFType
+	 * @param level
+	 *            The compression level, if the type is compressed
+	 * @return The data
+	 * @throws DBPFException
+	 *             Thrown, if cannot create data from type
+	 */
+	public static byte[] createBytes(DBPFType type, CompressionLevel level)
+			throws DBPFException {
+		// Use the data of not loaded lazy types as they are
+		if (type instanceof DBPFLazyType) {
+			DBPFLazyType lazy = (DBPFLazyType) type;
+			if (lazy.isUnchanged()) {
+				return lazy.readRawBytes();
+			}
+			return createBytes(lazy.load(), level);
+		}
+
 		int formatID = type.getType();
-		short[] data = new short[0];
+		byte[] data = new byte[0];
 		if (formatID == TGIKeys.EXEMPLAR.getFormatID()) {
 			DBPFExemplar exem = (DBPFExemplar) type;
-			data = ExemplarConverter.createData(exem, exem.getFormat());
+			data = ExemplarConverter.createBytes(exem, exem.getFormat());
 		} else if (formatID == TGIKeys.COHORT.getFormatID()) {
 			DBPFCohort cohort = (DBPFCohort) type;
-			data = CohortConverter.createData(cohort, cohort.getFormat());
+			data = CohortConverter.createBytes(cohort, cohort.getFormat());
 		} else if (formatID == TGIKeys.PNG.getFormatID()
 				|| formatID == TGIKeys.PNG_ICON.getFormatID()) {
-			data = PNGConverter.createData((DBPFPNG) type);
+			data = PNGConverter.createBytes((DBPFPNG) type);
 		} else if (formatID == TGIKeys.WAV.getFormatID()) {
-			data = WAVConverter.createData((DBPFWAV) type);
+			data = WAVConverter.createBytes((DBPFWAV) type);
 		} else if (formatID == TGIKeys.LTEXT.getFormatID()) {
-			data = LTextConverter.createData((DBPFLText) type);
+			data = LTextConverter.createBytes((DBPFLText) type);
 		} else if (formatID == TGIKeys.DIRECTORY.getFormatID()) {
-			data = DirectoryConverter.createData((DBPFDirectory) type);
+			data = DirectoryConverter.createBytes((DBPFDirectory) type);
 		} else if (formatID == TGIKeys.LUA.getFormatID()) {
-			data = LUAConverter.createData((DBPFLUA) type);
+			data = LUAConverter.createBytes((DBPFLUA) type);
 		} else if (formatID == TGIKeys.RUL.getFormatID()) {
-			data = RULConverter.createData((DBPFRUL) type);
+			data = RULConverter.createBytes((DBPFRUL) type);
 		} else if (formatID == TGIKeys.FSH.getFormatID()) {
-			data = FSHConverter.createData((DBPFFSH) type);
+			data = FSHConverter.createBytes((DBPFFSH) type);
 		} else if (formatID == TGIKeys.S3D.getFormatID()) {
-			data = S3DConverter.createData((DBPFS3D) type);
+			data = S3DConverter.createBytes((DBPFS3D) type);
 		} else {
 			DBPFRaw raw = (DBPFRaw) type;
-			data = raw.getData();
+			data = raw.getBytes();
 		}
 
 		// Compress the known files, if they were compressed,
 		// the unknown are RAW and leave as they was!!!
 		if (type.isCompressed() && (formatID != TGIKeys.RAW.getFormatID())) {
-			data = DBPFPackager.compress(data);
+			data = DBPFPackager.compress(data, null, level);
 		}
 		return data;
 	}
@@ -17,8 +17,7 @@
  */
 package ssp.dbpf.converter;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import ssp.dbpf.util.DBPFConstant;
@@ -34,6 +33,29 @@ import ssp.dbpf.util.DBPFUtil;
  */
 public class DBPFPackager {
 
+	/**
+	 * The maximal offset of an offset copy
+	 */
+	private static final int MAX_OFFSET = 0x20000;
+	/**
+	 * The maximal count of bytes of an offset copy
+	 */
+	private static final int MAX_COPY_COUNT = 0x404;
+	/**
+	 * The maximal bits of the hash for the match finder of the compression
+	 */
+	private static final int HASH_BITS = 16;
+	/**
+	 * The count of bytes of an offset copy, after which the optimal parsing
+	 * checks only a quarter of the remaining offsets
+	 */
+	private static final int GOOD_COPY_COUNT = 0x20;
+	/**
+	 * The count of bytes of an offset copy, which is taken without checking
+	 * shorter counts in the optimal parsing
+	 */
+	private static final int NICE_COPY_COUNT = 0x80;
+
 	/**
 	 * Private Constructor.<br>
 	 */
@@ -58,68 +80,51 @@ public class DBPFPackager {
 	}
 
 	/**
-	 * Copies data from source to destination array.<br>
-	 * The copy is byte by byte from srcPos to destPos and given length.
+	 * Check, if data is compressed.<br>
 	 * 
-	 * @param src
-	 *            The source array
-	 * @param srcPos
-	 *            The source position
-	 * @param dest
-	 *            The destination array
-	 * @param destPos
-	 *            The destination position
-	 * @param length
-	 *            The length
+	 * @param data
+	 *            The data to check
+	 * @return TRUE, if compressed; FALSE, otherwise
 	 */
-	private static void arrayCopy2(short[] src, int srcPos, short[] dest,
-			int destPos, long length) {
-		// This shouldn't occur, but to prevent errors
-		if (dest.length < destPos + length) {
-			String message = "ATTENTION!"
-					+ "\n[arrayCopy2] The destination array is not big enough!"
-					+ "\nWill make it bigger and make a System.arraycopy.";
-			DBPFLogger.toLog("DBPFPackager", Level.WARNING, message);
-
-			short[] destExt = new short[(int) (destPos + length)];
-			System.arraycopy(dest, 0, destExt, 0, dest.length);
-			dest = destExt;
-		}
-
-		for (int i = 0; i < length; i++) {
-			dest[destPos + i] = src[srcPos + i];
+	public static boolean isCompressed(byte[] data) {
+		if (data.length > 6) {
+			int signature = (int) DBPFUtil.getUint32(data, 0x04, 2);
+			if (signature == DBPFConstant.MAGICNUMBER_QFS) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 	/**
-	 * Copies data from array at destPos-srcPos to array at destPos.<br>
+	 * Copies data from array at destPos-offset to array at destPos.<br>
+	 * If the ranges overlap, the data between is repeated as pattern, which
+	 * is copied in doubled blocks.
 	 * 
 	 * @param array
 	 *            The array
-	 * @param srcPos
-	 *            The position to copy from (reverse from end of array!)
+	 * @param offset
+	 *            The offset to copy from (reverse from destPos!)
 	 * @param destPos
 	 *            The position to copy to
 	 * @param length
 	 *            The length of data to copy
 	 */
-	private static void offsetCopy(short[] array, int srcPos, int destPos,
-			long length) {
-		srcPos = destPos - srcPos;
-		// This shouldn't occur, but to prevent errors
-		if (array.length < destPos + length) {
-			String message = "ATTENTION!"
-					+ "\n[offsetCopy] The destination array is not big enough!"
-					+ "\nWill make it bigger and make a System.arraycopy.";
-			DBPFLogger.toLog("DBPFPackager", Level.WARNING, message);
-
-			short[] arrayNew = new short[(int) (destPos + length)];
-			System.arraycopy(array, 0, arrayNew, 0, array.length);
-			array = arrayNew;
-		}
-
-		for (int i = 0; i < length; i++) {
-			array[destPos + i] = array[srcPos + i];
+	private static void offsetCopy(byte[] array, int offset, int destPos,
+			int length) {
+		int srcPos = destPos - offset;
+		if (offset >= length) {
+			System.arraycopy(array, srcPos, array, destPos, length);
+		} else if (offset == 1) {
+			Arrays.fill(array, destPos, destPos + length, array[srcPos]);
+		} else {
+			System.arraycopy(array, srcPos, array, destPos, offset);
+			int copied = offset;
+			while (copied < length) {
+				int count = Math.min(copied, length - copied);
+				System.arraycopy(array, destPos, array, destPos + copied, count);
+				copied += count;
+			}
 		}
 	}
 
@@ -136,6 +141,8 @@ public class DBPFPackager {
 
 	/**
 	 * Compress the decompressed data.<br>
+	 * The data is converted to bytes, see
+	 * {@link #compress(byte[], DBPFPackagerInfo)}.
 	 * 
 	 * @param dData
 	 *            The decompressed data
@@ -145,6 +152,51 @@ public class DBPFPackager {
 	 * @return The compressed data
 	 */
 	public static short[] compress(short[] dData, DBPFPackagerInfo info) {
+		if (dData.length <= 6 || isCompressed(dData)) {
+			return dData;
+		}
+		return DBPFUtil.toShorts(compress(DBPFUtil.toBytes(dData), info));
+	}
+
+	/**
+	 * Compress the decompressed data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The compressed data
+	 */
+	public static byte[] compress(byte[] dData) {
+		return compress(dData, null);
+	}
+
+	/**
+	 * Compress the decompressed data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param info
+	 *            The information about compressed data in return or NULL, if
+	 *            unneeded
+	 * @return The compressed data
+	 */
+	public static byte[] compress(byte[] dData, DBPFPackagerInfo info) {
+		return compress(dData, info, CompressionLevel.DEFAULT);
+	}
+
+	/**
+	 * Compress the decompressed data with the given level.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param info
+	 *            The information about compressed data in return or NULL, if
+	 *            unneeded
+	 * @param level
+	 *            The compression level
+	 * @return The compressed data
+	 */
+	public static byte[] compress(byte[] dData, DBPFPackagerInfo info,
+			CompressionLevel level) {
 		// if data is big enough for compress
 		if (dData.length > 6) {
 			// check, if data already compressed
@@ -153,204 +205,29 @@ public class DBPFPackager {
 			// + "," + dData.length);
 			if (signature != DBPFConstant.MAGICNUMBER_QFS) {
 
-				// some Compression Data
-				final int MAX_OFFSET = 0x20000;
-				final int MAX_COPY_COUNT = 0x404;
-				// used to finetune the lookup (small values increase the
-				// compression for Big Files)
-				final int QFS_MAXITER = 0x80;
-
-				// contains the latest offset for a combination of two
-				// characters
-				HashMap<Integer, ArrayList<Integer>> cmpmap2 = new HashMap<Integer, ArrayList<Integer>>();
-
 				// will contain the compressed data (maximal size =
-				// uncompressedSize+MAX_COPY_COUNT)
-				short[] cData = new short[dData.length + MAX_COPY_COUNT];
-
-				// init some vars
-				int writeIndex = 9; // leave 9 bytes for the header
-				int lastReadIndex = 0;
-				ArrayList<Integer> indexList = null;
-				int copyOffset = 0;
-				int copyCount = 0;
-				int index = -1;
-				boolean end = false;
-
-				// begin main compression loop
-				while (index < dData.length - 3) {
-					// get all Compression Candidates (list of offsets for all
-					// occurances of the current 3 bytes)
-					do {
-						index++;
-						if (index >= dData.length - 2) {
-							end = true;
-							break;
-						}
-						int mapindex = dData[index] + (dData[index + 1] << 8)
-								+ (dData[index + 2] << 16);
-
-						indexList = cmpmap2.get(mapindex);
-						if (indexList == null) {
-							indexList = new ArrayList<Integer>();
-							cmpmap2.put(mapindex, indexList);
-						}
-						indexList.add(index);
-					} while (index < lastReadIndex);
-					if (end) {
-						break;
-					}
-
-					// find the longest repeating byte sequence in the index
-					// List (for offset copy)
-					int offsetCopyCount = 0;
-					int loopcount = 1;
-					while ((loopcount < indexList.size())
-							&& (loopcount < QFS_MAXITER)) {
-						int foundindex = (int) indexList
-								.get((indexList.size() - 1) - loopcount);
-						if ((index - foundindex) >= MAX_OFFSET) {
-							break;
-						}
-						loopcount++;
-						copyCount = 3;
-						while ((dData.length > index + copyCount)
-								&& (dData[index + copyCount] == dData[foundindex
-										+ copyCount])
-								&& (copyCount < MAX_COPY_COUNT)) {
-							copyCount++;
-						}
-						if (copyCount > offsetCopyCount) {
-							offsetCopyCount = copyCount;
-							copyOffset = index - foundindex;
-						}
-					}
-
-					// check if we can compress this
-					// In FSH Tool stand additionally this:
-					if (offsetCopyCount > dData.length - index) {
-						offsetCopyCount = index - dData.length;
-					}
-					if (offsetCopyCount <= 2) {
-						offsetCopyCount = 0;
-					} else if ((offsetCopyCount == 3) && (copyOffset > 0x400)) { // 1024
-						offsetCopyCount = 0;
-					} else if ((offsetCopyCount == 4) && (copyOffset > 0x4000)) { // 16384
-						offsetCopyCount = 0;
-					}
-
-					// this is offset-compressable? so do the compression
-					if (offsetCopyCount > 0) {
-						// plaincopy
-
-						// In FSH Tool stand this (A):
-						while (index - lastReadIndex >= 4) {
-							copyCount = (index - lastReadIndex) / 4 - 1;
-							if (copyCount > 0x1B) {
-								copyCount = 0x1B;
-							}
-							cData[writeIndex++] = (short) (0xE0 + copyCount);
-							copyCount = 4 * copyCount + 4;
-
-							arrayCopy2(dData, lastReadIndex, cData, writeIndex,
-									copyCount);
-							lastReadIndex += copyCount;
-							writeIndex += copyCount;
-						}
-						// while ((index - lastReadIndex) > 3) {
-						// copyCount = (index - lastReadIndex);
-						// while (copyCount > 0x71) {
-						// copyCount -= 0x71;
-						// }
-						// copyCount = copyCount & 0xfc;
-						// int realCopyCount = (copyCount >> 2);
-						// cData[writeIndex++] = (short) (0xdf + realCopyCount);
-						// arrayCopy2(dData, lastReadIndex, cData, writeIndex,
-						// copyCount);
-						// writeIndex += copyCount;
-						// lastReadIndex += copyCount;
-						// }
-
-						// offsetcopy
-						copyCount = index - lastReadIndex;
-						copyOffset--;
-						if ((offsetCopyCount <= 0x0A) && (copyOffset < 0x400)) {
-							cData[writeIndex++] = (short) (((copyOffset >> 8) << 5)
-									+ ((offsetCopyCount - 3) << 2) + copyCount);
-							cData[writeIndex++] = (short) (copyOffset & 0xff);
-						} else if ((offsetCopyCount <= 0x43)
-								&& (copyOffset < 0x4000)) {
-							cData[writeIndex++] = (short) (0x80 + (offsetCopyCount - 4));
-							cData[writeIndex++] = (short) ((copyCount << 6) + (copyOffset >> 8));
-							cData[writeIndex++] = (short) (copyOffset & 0xff);
-						} else if ((offsetCopyCount <= MAX_COPY_COUNT)
-								&& (copyOffset < MAX_OFFSET)) {
-							cData[writeIndex++] = (short) (0xc0
-									+ ((copyOffset >> 16) << 4)
-									+ (((offsetCopyCount - 5) >> 8) << 2) + copyCount);
-							cData[writeIndex++] = (short) ((copyOffset >> 8) & 0xff);
-							cData[writeIndex++] = (short) (copyOffset & 0xff);
-							cData[writeIndex++] = (short) ((offsetCopyCount - 5) & 0xff);
-						}
-						// else {
-						// copyCount = 0;
-						// offsetCopyCount = 0;
-						// }
-
-						// do the offset copy
-						arrayCopy2(dData, lastReadIndex, cData, writeIndex,
-								copyCount);
-						writeIndex += copyCount;
-						lastReadIndex += copyCount;
-						lastReadIndex += offsetCopyCount;
-
-					}
+				// uncompressedSize + one control byte for each 112 plain
+				// bytes + header and end record)
+				byte[] cData = new byte[dData.length + dData.length / 0x70
+						+ 0x10];
+
+				// leave 9 bytes for the header
+				int writeIndex;
+				if (level.isOptimal()) {
+					writeIndex = compressOptimal(dData, cData, 9,
+							level.getMaxIterations(), info);
+				} else {
+					writeIndex = compressGreedy(dData, cData, 9,
+							level.getMaxIterations(), info);
 				}
 
-				// add the End Record
-				index = dData.length;
-				// in FSH Tool stand the same as above (A)
-				while (index - lastReadIndex >= 4) {
-					copyCount = (index - lastReadIndex) / 4 - 1;
-					if (copyCount > 0x1B) {
-						copyCount = 0x1B;
-					}
-					cData[writeIndex++] = (short) (0xE0 + copyCount);
-					copyCount = 4 * copyCount + 4;
-
-					arrayCopy2(dData, lastReadIndex, cData, writeIndex,
-							copyCount);
-					lastReadIndex += copyCount;
-					writeIndex += copyCount;
-				}
-
-				// lastReadIndex = Math.min(index, lastReadIndex);
-				// while ((index - lastReadIndex) > 3) {
-				// copyCount = (index - lastReadIndex);
-				// while (copyCount > 0x71) {
-				// copyCount -= 0x71;
-				// }
-				// copyCount = copyCount & 0xfc;
-				// int realCopyCount = (copyCount >> 2);
-				// cData[writeIndex++] = (short) (0xdf + realCopyCount);
-				// arrayCopy2(dData, lastReadIndex, cData, writeIndex,
-				// copyCount);
-				// writeIndex += copyCount;
-				// lastReadIndex += copyCount;
-				// }
-				copyCount = index - lastReadIndex;
-				cData[writeIndex++] = (short) (0xfc + copyCount);
-				arrayCopy2(dData, lastReadIndex, cData, writeIndex, copyCount);
-				writeIndex += copyCount;
-				lastReadIndex += copyCount;
-
 				// write the header for the compressed data
 				// set the compressed size
 				DBPFUtil.setUint32(writeIndex, cData, 0x00, 4);
 				// set the MAGICNUMBER
 				DBPFUtil.setUint32(DBPFConstant.MAGICNUMBER_QFS, cData, 0x04, 2);
 				// set the decompressed size
-				short[] revData = new short[3];
+				byte[] revData = new byte[3];
 				DBPFUtil.setUint32(dData.length, revData, 0x00, 3);
 				for (int j = 0; j < revData.length; j++) {
 					cData[j + 6] = revData[2 - j];
@@ -362,7 +239,7 @@ public class DBPFPackager {
 					info.setCompressed(writeIndex < dData.length);
 				}
 				// get the compressed data
-				short[] retData = new short[writeIndex];
+				byte[] retData = new byte[writeIndex];
 				System.arraycopy(cData, 0, retData, 0, writeIndex);
 				return retData;
 			}
@@ -370,6 +247,458 @@ public class DBPFPackager {
 		return dData;
 	}
 
+	/**
+	 * Compress the data with greedy matching.<br>
+	 * At each position the longest match of the last maxIterations offsets of
+	 * the same three bytes is taken.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param cData
+	 *            The array for the compressed data
+	 * @param writeIndex
+	 *            The position to start writing
+	 * @param maxIterations
+	 *            The maximal count of offsets checked for a match
+	 * @param info
+	 *            The information for the count of chain steps or NULL
+	 * @return The position after the written data
+	 */
+	private static int compressGreedy(byte[] dData, byte[] cData,
+			int writeIndex, int maxIterations, DBPFPackagerInfo info) {
+		// hash chains of the offsets for all occurances of three bytes
+		int windowMask = windowSize(dData.length) - 1;
+		int hashBits = hashBits(windowMask + 1);
+		int[] head = new int[1 << hashBits];
+		int[] prev = new int[windowMask + 1];
+		Arrays.fill(head, -1);
+
+		// init some vars
+		int lastReadIndex = 0;
+		int copyOffset = 0;
+		int copyCount = 0;
+		int index = -1;
+		boolean end = false;
+		long chainSteps = 0;
+
+		// begin main compression loop
+		while (index < dData.length - 3) {
+			// get all Compression Candidates (list of offsets for all
+			// occurances of the current 3 bytes)
+			do {
+				index++;
+				if (index >= dData.length - 2) {
+					end = true;
+					break;
+				}
+				int hash = hash(dData, index, hashBits);
+				prev[index & windowMask] = head[hash];
+				head[hash] = index;
+			} while (index < lastReadIndex);
+			if (end) {
+				break;
+			}
+
+			// find the longest repeating byte sequence in the hash chain
+			// (for offset copy)
+			int offsetCopyCount = 0;
+			int loopcount = 1;
+			int foundindex = prev[index & windowMask];
+			for (; (foundindex >= 0) && (loopcount < maxIterations); foundindex = prev[foundindex
+					& windowMask]) {
+				chainSteps++;
+				if ((index - foundindex) >= MAX_OFFSET) {
+					break;
+				}
+				// skip the other byte combinations with the same hash
+				if (!isMatch(dData, foundindex, index)) {
+					continue;
+				}
+				loopcount++;
+				copyCount = 3;
+				while ((dData.length > index + copyCount)
+						&& (dData[index + copyCount] == dData[foundindex
+								+ copyCount]) && (copyCount < MAX_COPY_COUNT)) {
+					copyCount++;
+				}
+				if (copyCount > offsetCopyCount) {
+					offsetCopyCount = copyCount;
+					copyOffset = index - foundindex;
+				}
+			}
+
+			// check if we can compress this
+			if (copyCost(offsetCopyCount, copyOffset) == 0) {
+				offsetCopyCount = 0;
+			}
+
+			// this is offset-compressable? so do the compression
+			if (offsetCopyCount > 0) {
+				// plaincopy
+				writeIndex = writePlain(dData, lastReadIndex, index, cData,
+						writeIndex);
+				lastReadIndex = index - ((index - lastReadIndex) & 0x03);
+
+				// offsetcopy
+				writeIndex = writeCopy(dData, lastReadIndex, index,
+						offsetCopyCount, copyOffset, cData, writeIndex);
+				lastReadIndex = index + offsetCopyCount;
+			}
+		}
+
+		if (info != null) {
+			info.setChainSteps(chainSteps);
+		}
+		// add the End Record
+		return writeEnd(dData, lastReadIndex, cData, writeIndex);
+	}
+
+	/**
+	 * Compress the data with optimal parsing.<br>
+	 * For each position the cheapest way to encode the data till there is
+	 * calculated from the plain bytes and all matches of the hash chain, then
+	 * the cheapest way to the end is written. The control bytes for long runs
+	 * of plain bytes are counted with the run from the cheapest way, so the
+	 * result might be some bytes over the real optimum in rare cases.<br>
+	 * The hash chain is shortened after a good match and left, if the
+	 * matches get no longer, so repetitive data does not check all offsets at
+	 * each position.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param cData
+	 *            The array for the compressed data
+	 * @param writeIndex
+	 *            The position to start writing
+	 * @param maxIterations
+	 *            The maximal count of offsets checked for a match
+	 * @param info
+	 *            The information for the count of chain steps or NULL
+	 * @return The position after the written data
+	 */
+	private static int compressOptimal(byte[] dData, byte[] cData,
+			int writeIndex, int maxIterations, DBPFPackagerInfo info) {
+		int length = dData.length;
+		int windowMask = windowSize(length) - 1;
+		int hashBits = hashBits(windowMask + 1);
+		int[] head = new int[1 << hashBits];
+		int[] prev = new int[windowMask + 1];
+		Arrays.fill(head, -1);
+
+		// cost: the size to encode the data till the position
+		// run: the count of plain bytes since the last offset copy
+		// step: the offset copy ending at the position (count << 17 |
+		// offset - 1) or 0 for a plain byte
+		int[] cost = new int[length + 1];
+		int[] run = new int[length + 1];
+		int[] step = new int[length + 1];
+		Arrays.fill(cost, Integer.MAX_VALUE);
+		cost[0] = 0;
+
+		int skipIndex = 0;
+		long chainSteps = 0;
+		for (int index = 0; index < length; index++) {
+			// plain byte, each run of 4 to 112 bytes needs a control byte
+			int plainCost = cost[index] + ((run[index] % 0x70 == 3) ? 2 : 1);
+			if (plainCost < cost[index + 1]) {
+				cost[index + 1] = plainCost;
+				run[index + 1] = run[index] + 1;
+				step[index + 1] = 0;
+			}
+			if (index >= length - 2) {
+				continue;
+			}
+			int hash = hash(dData, index, hashBits);
+			prev[index & windowMask] = head[hash];
+			head[hash] = index;
+			// positions within a long match are not searched
+			if (index < skipIndex) {
+				continue;
+			}
+
+			// offset copies, for each count the nearest offset is the
+			// cheapest
+			int maxCount = Math.min(MAX_COPY_COUNT, length - index);
+			int bestCount = 2;
+			int loopcount = 1;
+			int chainLength = maxIterations;
+			int lastImprove = 1;
+			int foundindex = prev[index & windowMask];
+			for (; (foundindex >= 0) && (loopcount < chainLength); foundindex = prev[foundindex
+					& windowMask]) {
+				chainSteps++;
+				int copyOffset = index - foundindex;
+				if (copyOffset >= MAX_OFFSET) {
+					break;
+				}
+				if (!isMatch(dData, foundindex, index)) {
+					continue;
+				}
+				loopcount++;
+				// stop, if a quarter of the chain brings no longer match
+				if (loopcount - lastImprove > (chainLength >> 2)) {
+					break;
+				}
+				// only a longer match can be cheaper than the nearer ones
+				if (dData[index + bestCount] != dData[foundindex + bestCount]) {
+					continue;
+				}
+				int copyCount = 3;
+				while ((copyCount < maxCount)
+						&& (dData[index + copyCount] == dData[foundindex
+								+ copyCount])) {
+					copyCount++;
+				}
+				if (copyCount <= bestCount) {
+					continue;
+				}
+				int minCount = bestCount + 1;
+				if (copyCount >= NICE_COPY_COUNT) {
+					// take only the long match
+					minCount = copyCount;
+					skipIndex = index + copyCount;
+				}
+				for (int count = minCount; count <= copyCount; count++) {
+					int copyCost = copyCost(count, copyOffset);
+					if (copyCost > 0 && cost[index] + copyCost < cost[index + count]) {
+						cost[index + count] = cost[index] + copyCost;
+						run[index + count] = 0;
+						step[index + count] = (count << 17) | (copyOffset - 1);
+					}
+				}
+				if (bestCount < GOOD_COPY_COUNT && copyCount >= GOOD_COPY_COUNT) {
+					// a good match, shorten the remaining chain
+					chainLength = loopcount + ((chainLength - loopcount) >> 2);
+				}
+				bestCount = copyCount;
+				lastImprove = loopcount;
+				if (copyCount == maxCount) {
+					break;
+				}
+			}
+		}
+
+		// mark the offset copies of the cheapest way at their start
+		int[] copy = run;
+		Arrays.fill(copy, 0);
+		int index = length;
+		while (index > 0) {
+			int count = step[index] >>> 17;
+			if (count == 0) {
+				index--;
+			} else {
+				copy[index - count] = step[index];
+				index -= count;
+			}
+		}
+
+		// write the offset copies
+		int lastReadIndex = 0;
+		index = 0;
+		while (index < length) {
+			int count = copy[index] >>> 17;
+			if (count == 0) {
+				index++;
+				continue;
+			}
+			int copyOffset = (copy[index] & 0x1FFFF) + 1;
+			writeIndex = writePlain(dData, lastReadIndex, index, cData,
+					writeIndex);
+			lastReadIndex = index - ((index - lastReadIndex) & 0x03);
+			writeIndex = writeCopy(dData, lastReadIndex, index, count,
+					copyOffset, cData, writeIndex);
+			index += count;
+			lastReadIndex = index;
+		}
+		if (info != null) {
+			info.setChainSteps(chainSteps);
+		}
+		return writeEnd(dData, lastReadIndex, cData, writeIndex);
+	}
+
+	/**
+	 * Returns the size of the control bytes for an offset copy.<br>
+	 * 
+	 * @param copyCount
+	 *            The count of bytes to copy
+	 * @param copyOffset
+	 *            The offset to copy from
+	 * @return The size or 0, if the offset copy cannot be encoded or is not
+	 *         worth it
+	 */
+	private static int copyCost(int copyCount, int copyOffset) {
+		if (copyCount <= 2 || copyOffset <= 0) {
+			return 0;
+		} else if ((copyCount <= 0x0A) && (copyOffset <= 0x400)) {
+			return 2;
+		} else if (copyCount == 3) {
+			return 0;
+		} else if ((copyCount <= 0x43) && (copyOffset <= 0x4000)) {
+			return 3;
+		} else if (copyCount == 4) {
+			return 0;
+		} else if ((copyCount <= MAX_COPY_COUNT) && (copyOffset <= MAX_OFFSET)) {
+			return 4;
+		}
+		return 0;
+	}
+
+	/**
+	 * Writes the plain bytes in blocks of 4 to 112 bytes.<br>
+	 * The last 0 to 3 bytes are left for the next control.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param lastReadIndex
+	 *            The position of the first plain byte
+	 * @param index
+	 *            The position after the last plain byte
+	 * @param cData
+	 *            The compressed data
+	 * @param writeIndex
+	 *            The position to write
+	 * @return The position after the written data
+	 */
+	private static int writePlain(byte[] dData, int lastReadIndex, int index,
+			byte[] cData, int writeIndex) {
+		while (index - lastReadIndex >= 4) {
+			int copyCount = (index - lastReadIndex) / 4 - 1;
+			if (copyCount > 0x1B) {
+				copyCount = 0x1B;
+			}
+			cData[writeIndex++] = (byte) (0xE0 + copyCount);
+			copyCount = 4 * copyCount + 4;
+
+			System.arraycopy(dData, lastReadIndex, cData, writeIndex, copyCount);
+			lastReadIndex += copyCount;
+			writeIndex += copyCount;
+		}
+		return writeIndex;
+	}
+
+	/**
+	 * Writes an offset copy with the 0 to 3 plain bytes before.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param lastReadIndex
+	 *            The position of the first plain byte
+	 * @param index
+	 *            The position after the last plain byte
+	 * @param offsetCopyCount
+	 *            The count of bytes to copy
+	 * @param copyOffset
+	 *            The offset to copy from
+	 * @param cData
+	 *            The compressed data
+	 * @param writeIndex
+	 *            The position to write
+	 * @return The position after the written data
+	 */
+	private static int writeCopy(byte[] dData, int lastReadIndex, int index,
+			int offsetCopyCount, int copyOffset, byte[] cData, int writeIndex) {
+		int copyCount = index - lastReadIndex;
+		copyOffset--;
+		if ((offsetCopyCount <= 0x0A) && (copyOffset < 0x400)) {
+			cData[writeIndex++] = (byte) (((copyOffset >> 8) << 5)
+					+ ((offsetCopyCount - 3) << 2) + copyCount);
+			cData[writeIndex++] = (byte) (copyOffset & 0xff);
+		} else if ((offsetCopyCount <= 0x43) && (copyOffset < 0x4000)) {
+			cData[writeIndex++] = (byte) (0x80 + (offsetCopyCount - 4));
+			cData[writeIndex++] = (byte) ((copyCount << 6) + (copyOffset >> 8));
+			cData[writeIndex++] = (byte) (copyOffset & 0xff);
+		} else {
+			cData[writeIndex++] = (byte) (0xc0 + ((copyOffset >> 16) << 4)
+					+ (((offsetCopyCount - 5) >> 8) << 2) + copyCount);
+			cData[writeIndex++] = (byte) ((copyOffset >> 8) & 0xff);
+			cData[writeIndex++] = (byte) (copyOffset & 0xff);
+			cData[writeIndex++] = (byte) ((offsetCopyCount - 5) & 0xff);
+		}
+		System.arraycopy(dData, lastReadIndex, cData, writeIndex, copyCount);
+		return writeIndex + copyCount;
+	}
+
+	/**
+	 * Writes the remaining plain bytes and the end record.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param lastReadIndex
+	 *            The position of the first plain byte
+	 * @param cData
+	 *            The compressed data
+	 * @param writeIndex
+	 *            The position to write
+	 * @return The position after the written data
+	 */
+	private static int writeEnd(byte[] dData, int lastReadIndex, byte[] cData,
+			int writeIndex) {
+		int index = dData.length;
+		writeIndex = writePlain(dData, lastReadIndex, index, cData, writeIndex);
+		lastReadIndex = index - ((index - lastReadIndex) & 0x03);
+		int copyCount = index - lastReadIndex;
+		cData[writeIndex++] = (byte) (0xfc + copyCount);
+		System.arraycopy(dData, lastReadIndex, cData, writeIndex, copyCount);
+		return writeIndex + copyCount;
+	}
+
+	/**
+	 * Returns the size of the window for the hash chains.<br>
+	 * 
+	 * @param length
+	 *            The length of the data
+	 * @return The size, a power of two
+	 */
+	private static int windowSize(int length) {
+		return Integer.highestOneBit(Math.max(Math.min(length, MAX_OFFSET) - 1,
+				1)) << 1;
+	}
+
+	/**
+	 * Returns the bits of the hash for the hash chains.<br>
+	 * 
+	 * @param windowSize
+	 *            The size of the window
+	 * @return The bits
+	 */
+	private static int hashBits(int windowSize) {
+		return Math.min(Integer.numberOfTrailingZeros(windowSize), HASH_BITS);
+	}
+
+	/**
+	 * Returns the hash of the three bytes at the position.<br>
+	 * 
+	 * @param dData
+	 *            The data
+	 * @param index
+	 *            The position
+	 * @param hashBits
+	 *            The bits of the hash
+	 * @return The hash
+	 */
+	private static int hash(byte[] dData, int index, int hashBits) {
+		int mapindex = (dData[index] & 0xFF) + ((dData[index + 1] & 0xFF) << 8)
+				+ ((dData[index + 2] & 0xFF) << 16);
+		return (mapindex * 0x9E3779B1) >>> (32 - hashBits);
+	}
+
+	/**
+	 * Check, if the three bytes at both positions are the same.<br>
+	 * 
+	 * @param dData
+	 *            The data
+	 * @param foundindex
+	 *            The first position
+	 * @param index
+	 *            The second position
+	 * @return TRUE, if the same; FALSE, otherwise
+	 */
+	private static boolean isMatch(byte[] dData, int foundindex, int index) {
+		return (dData[foundindex] == dData[index])
+				&& (dData[foundindex + 1] == dData[index + 1])
+				&& (dData[foundindex + 2] == dData[index + 2]);
+	}
+
 	/**
 	 * Decompress the compressed data.<br>
 	 * 
@@ -386,7 +715,8 @@ public class DBPFPackager {
 	/**
 	 * Decompress the compressed data.<br>
 	 * 
-	 * If the data are not compressed, this will return the same data.
+	 * If the data are not compressed, this will return the same data. The data
+	 * is converted to bytes, see {@link #decompress(byte[], DBPFPackagerInfo)}.
 	 * 
 	 * @param cData
 	 *            The compressed data
@@ -396,122 +726,206 @@ public class DBPFPackager {
 	 * @return The decompressed data
 	 */
 	public static short[] decompress(short[] cData, DBPFPackagerInfo info) {
-		if (cData.length > 6) {
-			// HEADER
-			long compressedSize = DBPFUtil.getUint32(cData, 0x00, 4);
-			int signature = (int) DBPFUtil.getUint32(cData, 0x04, 2);
-			// if not compressed
-			long decompressedSize = compressedSize;
+		if (!isCompressed(cData)) {
+			if (info != null) {
+				info.setCompressed(false);
+			}
+			return cData;
+		}
+		return DBPFUtil.toShorts(decompress(DBPFUtil.toBytes(cData), info));
+	}
 
-			if (signature == DBPFConstant.MAGICNUMBER_QFS) {
-				short a = (short) DBPFUtil.getUint32(cData, 0x06, 1);
-				short b = (short) DBPFUtil.getUint32(cData, 0x07, 1);
-				short c = (short) DBPFUtil.getUint32(cData, 0x08, 1);
-				decompressedSize = a * 65536 + b * 256 + c;
-
-				// There seems sometimes that given compressedSize is
-				// not exactly the read data size.
-				// Don't know why but take real data size for decompress
-				if (Math.abs(compressedSize - cData.length) > 4) {
-					String message = "[decompress] Different sizes! RawData-Size: "
-							+ cData.length
-							+ " CompressedSize: "
-							+ compressedSize
-							+ " DecompressedSize: "
-							+ decompressedSize;
-					DBPFLogger.toLog("DBPFPackager", Level.WARNING, message);
-				}
+	/**
+	 * Decompress the compressed data.<br>
+	 * 
+	 * If the data are not compressed, this will return the same data.
+	 * 
+	 * @param cData
+	 *            The compressed data
+	 * @return The decompressed data
+	 */
+	public static byte[] decompress(byte[] cData) {
+		return decompress(cData, null);
+	}
 
-				short[] dData = new short[(int) decompressedSize];
-				int dpos = 0;
-				// COMPRESSED DATA
-				int pos = 9;
-				long control1 = 0;
-				while (control1 != 0xFC && pos < cData.length) {
-					control1 = cData[pos];
-					// System.out.println(">>> Position: " + pos +
-					// " ## Control: "
-					// + Integer.toHexString((int)
-					// control1)+" ## Rest: "+(compressedSize-pos));
-					pos++;
-
-					if (control1 >= 0 && control1 <= 127) {
-						// 0x00 - 0x7F
-						long control2 = cData[pos];
-						pos++;
-						long numberOfPlainText = (control1 & 0x03);
-						arrayCopy2(cData, pos, dData, dpos, numberOfPlainText);
-						dpos += numberOfPlainText;
-						pos += numberOfPlainText;
-
-						int offset = (int) (((control1 & 0x60) << 3)
-								+ (control2) + 1);
-						long numberToCopyFromOffset = ((control1 & 0x1C) >> 2) + 3;
-						offsetCopy(dData, offset, dpos, numberToCopyFromOffset);
-						dpos += numberToCopyFromOffset;
-
-					} else if (control1 >= 128 && control1 <= 191) {
-						// 0x80 - 0xBF
-						long control2 = cData[pos];
-						pos++;
-						long control3 = cData[pos];
-						pos++;
-
-						long numberOfPlainText = (control2 >> 6) & 0x03;
-						arrayCopy2(cData, pos, dData, dpos, numberOfPlainText);
-						dpos += numberOfPlainText;
-						pos += numberOfPlainText;
-
-						int offset = (int) (((control2 & 0x3F) << 8)
-								+ (control3) + 1);
-						long numberToCopyFromOffset = (control1 & 0x3F) + 4;
-						offsetCopy(dData, offset, dpos, numberToCopyFromOffset);
-						dpos += numberToCopyFromOffset;
-					} else if (control1 >= 192 && control1 <= 223) {
-						// 0xC0 - 0xDF
-						long numberOfPlainText = (control1 & 0x03);
-						long control2 = cData[pos];
-						pos++;
-						long control3 = cData[pos];
-						pos++;
-						long control4 = cData[pos];
-						pos++;
-						arrayCopy2(cData, pos, dData, dpos, numberOfPlainText);
-						dpos += numberOfPlainText;
-						pos += numberOfPlainText;
-
-						int offset = (int) (((control1 & 0x10) << 12)
-								+ (control2 << 8) + (control3) + 1);
-						long numberToCopyFromOffset = ((control1 & 0x0C) << 6)
-								+ (control4) + 5;
-						offsetCopy(dData, offset, dpos, numberToCopyFromOffset);
-						dpos += numberToCopyFromOffset;
-					} else if (control1 >= 224 && control1 <= 251) {
-						// 0xE0 - 0xFB
-						long numberOfPlainText = ((control1 & 0x1F) << 2) + 4;
-						arrayCopy2(cData, pos, dData, dpos, numberOfPlainText);
-						dpos += numberOfPlainText;
-						pos += numberOfPlainText;
-					} else {
-						long numberOfPlainText = (control1 & 0x03);
-						arrayCopy2(cData, pos, dData, dpos, numberOfPlainText);
-						dpos += numberOfPlainText;
-						pos += numberOfPlainText;
-					}
-				} // while
-					// updates the info
-				if (info != null) {
-					info.setCompressedSize(compressedSize);
-					info.setDecompressedSize(decompressedSize);
-					info.setCompressed(true);
-				}
-				return dData;
+	/**
+	 * Decompress the compressed data.<br>
+	 * 
+	 * If the data are not compressed, this will return the same data. If the
+	 * data is truncated or corrupt, the not decompressed rest is zero.
+	 * 
+	 * @param cData
+	 *            The compressed data
+	 * @param info
+	 *            The information about decompressed data in return or NULL, if
+	 *            unneeded
+	 * @return The decompressed data
+	 */
+	public static byte[] decompress(byte[] cData, DBPFPackagerInfo info) {
+		if (!isCompressed(cData)) {
+			// no data to decompress
+			if (info != null) {
+				info.setCompressed(false);
 			}
+			return cData;
 		}
-		// no data to decompress
+		byte[] dData = new byte[getDecompressedSize(cData)];
+		decompress(cData, dData, info);
+		return dData;
+	}
+
+	/**
+	 * Decompress the compressed data into the given buffer.<br>
+	 * 
+	 * The buffer can be reused for several decompressions, it must have at
+	 * least the size of {@link #getDecompressedSize(byte[])}. If the data are
+	 * not compressed, the data is copied to the buffer.<br>
+	 * If the data is truncated or corrupt, only the data till the error is
+	 * decompressed and the returned length is smaller than the decompressed
+	 * size. The rest of the buffer is unchanged, so it might still contain
+	 * the data of a former decompression.
+	 * 
+	 * @param cData
+	 *            The compressed data
+	 * @param buffer
+	 *            The buffer for the decompressed data
+	 * @param info
+	 *            The information about decompressed data in return or NULL, if
+	 *            unneeded
+	 * @return The length of the valid decompressed data in the buffer
+	 * @throws IllegalArgumentException
+	 *             Thrown, if the buffer is too small
+	 */
+	public static int decompress(byte[] cData, byte[] buffer,
+			DBPFPackagerInfo info) {
+		int decompressedSize = getDecompressedSize(cData);
+		if (buffer.length < decompressedSize) {
+			throw new IllegalArgumentException("Buffer too small: "
+					+ buffer.length + " < " + decompressedSize);
+		}
+		if (!isCompressed(cData)) {
+			System.arraycopy(cData, 0, buffer, 0, cData.length);
+			if (info != null) {
+				info.setCompressed(false);
+			}
+			return cData.length;
+		}
+
+		// HEADER
+		long compressedSize = DBPFUtil.getUint32(cData, 0x00, 4);
+
+		// There seems sometimes that given compressedSize is
+		// not exactly the read data size.
+		// Don't know why but take real data size for decompress
+		if (Math.abs(compressedSize - cData.length) > 4) {
+			String message = "[decompress] Different sizes! RawData-Size: "
+					+ cData.length + " CompressedSize: " + compressedSize
+					+ " DecompressedSize: " + decompressedSize;
+			DBPFLogger.toLog("DBPFPackager", Level.WARNING, message);
+		}
+
+		// COMPRESSED DATA
+		int dpos = 0;
+		int pos = 9;
+		while (pos < cData.length) {
+			int control1 = cData[pos++] & 0xFF;
+			int numberOfPlainText;
+			int numberToCopyFromOffset = 0;
+			int offset = 0;
+			int controlSize = 0;
+			if (control1 <= 0x7F) {
+				// 0x00 - 0x7F
+				controlSize = 1;
+			} else if (control1 <= 0xBF) {
+				// 0x80 - 0xBF
+				controlSize = 2;
+			} else if (control1 <= 0xDF) {
+				// 0xC0 - 0xDF
+				controlSize = 3;
+			}
+			if (pos + controlSize > cData.length) {
+				DBPFLogger.toLog("DBPFPackager", Level.WARNING,
+						"[decompress] Truncated control at " + (pos - 1));
+				break;
+			}
+			if (control1 <= 0x7F) {
+				int control2 = cData[pos++] & 0xFF;
+				numberOfPlainText = control1 & 0x03;
+				offset = ((control1 & 0x60) << 3) + control2 + 1;
+				numberToCopyFromOffset = ((control1 & 0x1C) >> 2) + 3;
+			} else if (control1 <= 0xBF) {
+				int control2 = cData[pos++] & 0xFF;
+				int control3 = cData[pos++] & 0xFF;
+				numberOfPlainText = (control2 >> 6) & 0x03;
+				offset = ((control2 & 0x3F) << 8) + control3 + 1;
+				numberToCopyFromOffset = (control1 & 0x3F) + 4;
+			} else if (control1 <= 0xDF) {
+				int control2 = cData[pos++] & 0xFF;
+				int control3 = cData[pos++] & 0xFF;
+				int control4 = cData[pos++] & 0xFF;
+				numberOfPlainText = control1 & 0x03;
+				offset = ((control1 & 0x10) << 12) + (control2 << 8) + control3
+						+ 1;
+				numberToCopyFromOffset = ((control1 & 0x0C) << 6) + control4
+						+ 5;
+			} else if (control1 <= 0xFB) {
+				// 0xE0 - 0xFB
+				numberOfPlainText = ((control1 & 0x1F) << 2) + 4;
+			} else {
+				// 0xFC - 0xFF, end
+				numberOfPlainText = control1 & 0x03;
+			}
+
+			// check the bounds once for the whole control
+			if (pos + numberOfPlainText > cData.length
+					|| dpos + numberOfPlainText + numberToCopyFromOffset > decompressedSize
+					|| offset > dpos + numberOfPlainText) {
+				DBPFLogger.toLog("DBPFPackager", Level.WARNING,
+						"[decompress] Corrupt control "
+								+ DBPFUtil.toHex(control1, 2) + " at "
+								+ (pos - 1 - controlSize));
+				break;
+			}
+			System.arraycopy(cData, pos, buffer, dpos, numberOfPlainText);
+			pos += numberOfPlainText;
+			dpos += numberOfPlainText;
+			if (numberToCopyFromOffset > 0) {
+				offsetCopy(buffer, offset, dpos, numberToCopyFromOffset);
+				dpos += numberToCopyFromOffset;
+			}
+			if (control1 >= 0xFC) {
+				break;
+			}
+		}
+		if (dpos != decompressedSize) {
+			DBPFLogger.toLog("DBPFPackager", Level.WARNING,
+					"[decompress] Decompressed " + dpos + " of "
+							+ decompressedSize + " bytes");
+		}
+		// updates the info
 		if (info != null) {
-			info.setCompressed(false);
+			info.setCompressedSize(compressedSize);
+			info.setDecompressedSize(decompressedSize);
+			info.setCompressed(true);
+		}
+		return dpos;
+	}
+
+	/**
+	 * Returns the size of the decompressed data.<br>
+	 * 
+	 * @param cData
+	 *            The compressed data
+	 * @return The decompressed size from the header or the length of the
+	 *         data, if not compressed
+	 */
+	public static int getDecompressedSize(byte[] cData) {
+		if (!isCompressed(cData)) {
+			return cData.length;
+		} else if (cData.length < 9) {
+			return 0;
 		}
-		return cData;
+		return ((cData[6] & 0xFF) << 16) | ((cData[7] & 0xFF) << 8)
+				| (cData[8] & 0xFF);
 	}
 }
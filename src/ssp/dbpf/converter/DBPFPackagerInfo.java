@@ -30,6 +30,7 @@ public class DBPFPackagerInfo {
 	private long compressedSize = 0;
 	private long decompressedSize = 0;
 	private boolean compressed = false;
+	private long chainSteps = 0;
 
 	/**
 	 * @return the compressedSize
@@ -76,4 +77,23 @@ public class DBPFPackagerInfo {
 		this.compressed = compressed;
 	}
 
+	/**
+	 * Returns the count of offsets checked in the hash chains on compress.<br>
+	 * This depends only on the data and the compression level, not on the
+	 * speed of the machine.
+	 * 
+	 * @return the chainSteps
+	 */
+	public long getChainSteps() {
+		return chainSteps;
+	}
+
+	/**
+	 * @param chainSteps
+	 *            the chainSteps to set
+	 */
+	public void setChainSteps(long chainSteps) {
+		this.chainSteps = chainSteps;
+	}
+
 }
@@ -17,7 +17,6 @@
  */
 package ssp.dbpf.converter;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.logging.Level;
 
 import ssp.dbpf.event.DBPFException;
@@ -61,7 +60,7 @@ public class PropertyConverter {
 		long id = DBPFUtil.getUint32(dData, offset, 4);
 		offset += 4;
 		short typeID = (short) DBPFUtil.getUint32(dData, offset, 2);
-		DBPFPropertyTypes type = DBPFPropertyTypes.forID.get(typeID);
+		DBPFPropertyTypes type = DBPFPropertyTypes.forID(typeID);
 
 		offset += 2;
 		long hasCountLong = DBPFUtil.getUint32(dData, offset, 1);
@@ -86,16 +85,11 @@ public class PropertyConverter {
 
 		DBPFProperty prop = null;
 		try {
-			prop = type.propertyRawConstructor.newInstance(id, count, type,
-					hasCount, dData, offset);
-		} catch (InstantiationException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (IllegalAccessException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (IllegalArgumentException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (InvocationTargetException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
+			if (type != null) {
+				prop = type.createProperty(id, count, hasCount, dData, offset);
+			}
+		} catch (RuntimeException e) {
+			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.toString());
 		}
 		if (prop == null) {
 			String message = "Property can not be decoded! ID=0x"
@@ -108,6 +102,45 @@ public class PropertyConverter {
 		return prop;
 	}
 
+	/**
+	 * Returns the length of the property at the given offset without decoding
+	 * its values.<br>
+	 * 
+	 * @param dData
+	 *            The rawData
+	 * @param offset
+	 *            The offset
+	 * @return The length of the property in bytes
+	 * @throws DBPFException
+	 *             Thrown, if the type is unknown or the property exceeds the
+	 *             data
+	 */
+	public static int getBinaryLength(short[] dData, int offset)
+			throws DBPFException {
+		long id = DBPFUtil.getUint32(dData, offset, 4);
+		short typeID = (short) DBPFUtil.getUint32(dData, offset + 4, 2);
+		DBPFPropertyTypes type = DBPFPropertyTypes.forID(typeID);
+		long hasCountLong = DBPFUtil.getUint32(dData, offset + 6, 1);
+
+		boolean hasCount = false;
+		long count = 1;
+		int length = 9;
+		if (hasCountLong == 0x80 || type == DBPFPropertyTypes.STRING) {
+			hasCount = true;
+			count = DBPFUtil.getUint32(dData, offset + 9, 4);
+			length += 4;
+		}
+		if (type == null
+				|| offset + length + count * type.length > dData.length) {
+			String message = "Property can not be decoded! ID=0x"
+					+ DBPFUtil.toHex(id, 8) + ", TypeID="
+					+ DBPFUtil.toHex(typeID, 4) + ", HasCount=" + hasCount
+					+ ", Count=" + count;
+			throw new DBPFException(LOGNAME, message);
+		}
+		return (int) (length + count * type.length);
+	}
+
 	/**
 	 * Decodes the property from the given string.<br>
 	 * 
@@ -129,8 +162,13 @@ public class PropertyConverter {
 
 		// now analyze the value
 		String[] propValues = tokens[1].split(":");
-		DBPFPropertyTypes type = DBPFPropertyTypes.valueOf(propValues[0]
-				.toUpperCase());
+		DBPFPropertyTypes type;
+		try {
+			type = DBPFPropertyTypes.valueOf(propValues[0].toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new DBPFException(LOGNAME, "Unknown property type: "
+					+ propValues[0]);
+		}
 
 		int count = Integer.parseInt(propValues[1]);
 		boolean hasCount = true;
@@ -146,16 +184,9 @@ public class PropertyConverter {
 
 		DBPFProperty prop = null;
 		try {
-			prop = type.propertyTextConstructor.newInstance(id, count, type,
-					hasCount, data);
-		} catch (InstantiationException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (IllegalAccessException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (IllegalArgumentException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (InvocationTargetException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
+			prop = type.createProperty(id, count, hasCount, data);
+		} catch (RuntimeException e) {
+			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.toString());
 		}
 		if (prop == null) {
 			String message = "Property can not be decoded! ID=0x"
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import ssp.dbpf.util.DBPFConstant;
+
+/**
+ * Stream, which decompresses QFS data incrementally.<br>
+ * 
+ * The controls of the compressed data are decoded only as far as the data is
+ * read, so reading the first bytes of a large entry does not decompress the
+ * whole entry. Only the last 128 KB of the decompressed data are held for
+ * the offset copies. If the data is not compressed, it is read as it is.<br>
+ * The stream is also a ReadableByteChannel. The source buffer can be a mapped
+ * region of a file, see
+ * {@link ssp.dbpf.io.DBPFReader#openStream(ssp.dbpf.entries.DBPFEntry)}.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class QFSInputStream extends InputStream implements
+		ReadableByteChannel {
+
+	/**
+	 * The maximal offset of an offset copy
+	 */
+	private static final int WINDOW_SIZE = 0x20000;
+	/**
+	 * The maximal size of the decompressed data of one control
+	 */
+	private static final int MAX_CONTROL_SIZE = 3 + 0x404;
+	/**
+	 * The size of data decompressed at once
+	 */
+	private static final int FILL_SIZE = 0x1000;
+
+	private ByteBuffer source;
+	private boolean compressed;
+	private int decompressedSize;
+
+	private byte[] buffer;
+	private int readPos;
+	private int endPos;
+	private int total;
+	private boolean finished;
+	private boolean closed;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param data
+	 *            The compressed or uncompressed data
+	 */
+	public QFSInputStream(byte[] data) {
+		this(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Constructor.<br>
+	 * The remaining bytes of the buffer are read, the position of the given
+	 * buffer is not changed.
+	 * 
+	 * @param source
+	 *            The compressed or uncompressed data
+	 */
+	public QFSInputStream(ByteBuffer source) {
+		this.source = source.slice();
+		this.compressed = isCompressed(this.source);
+		if (compressed) {
+			decompressedSize = ((this.source.get(6) & 0xFF) << 16)
+					| ((this.source.get(7) & 0xFF) << 8)
+					| (this.source.get(8) & 0xFF);
+			this.source.position(9);
+			buffer = new byte[Math.min(decompressedSize, WINDOW_SIZE
+					+ FILL_SIZE + MAX_CONTROL_SIZE)];
+		} else {
+			decompressedSize = this.source.remaining();
+		}
+	}
+
+	/**
+	 * Check, if the data in the buffer is compressed.<br>
+	 * The position of the buffer is not changed.
+	 * 
+	 * @param data
+	 *            The data
+	 * @return TRUE, if compressed; FALSE, otherwise
+	 */
+	public static boolean isCompressed(ByteBuffer data) {
+		int pos = data.position();
+		if (data.remaining() > 8) {
+			int signature = (data.get(pos + 4) & 0xFF)
+					| ((data.get(pos + 5) & 0xFF) << 8);
+			return signature == DBPFConstant.MAGICNUMBER_QFS;
+		}
+		return false;
+	}
+
+	/**
+	 * Check, if the data is compressed.<br>
+	 * 
+	 * @return TRUE, if compressed; FALSE, if read as it is
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * Returns the size of the whole decompressed data.<br>
+	 * 
+	 * @return The size
+	 */
+	public int getDecompressedSize() {
+		return decompressedSize;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		if (read(b, 0, 1) < 0) {
+			return -1;
+		}
+		return b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!compressed) {
+			if (!source.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, source.remaining());
+			source.get(b, off, count);
+			return count;
+		}
+		if (readPos == endPos) {
+			fill();
+			if (readPos == endPos) {
+				return -1;
+			}
+		}
+		int count = Math.min(len, endPos - readPos);
+		System.arraycopy(buffer, readPos, b, off, count);
+		readPos += count;
+		return count;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+		if (closed) {
+			throw new ClosedChannelException();
+		}
+		if (!dst.hasRemaining()) {
+			return 0;
+		}
+		if (dst.hasArray()) {
+			int count = read(dst.array(), dst.arrayOffset() + dst.position(),
+					dst.remaining());
+			if (count > 0) {
+				dst.position(dst.position() + count);
+			}
+			return count;
+		}
+		byte[] b = new byte[Math.min(dst.remaining(), FILL_SIZE)];
+		int count = read(b, 0, b.length);
+		if (count > 0) {
+			dst.put(b, 0, count);
+		}
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		byte[] b = new byte[(int) Math.min(Math.max(n, 0), FILL_SIZE)];
+		long skipped = 0;
+		while (skipped < n) {
+			int count = read(b, 0, (int) Math.min(b.length, n - skipped));
+			if (count < 0) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		if (closed) {
+			return 0;
+		}
+		if (!compressed) {
+			return source.remaining();
+		}
+		return endPos - readPos;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return !closed;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		buffer = null;
+		source = null;
+	}
+
+	/**
+	 * Decodes controls till at least FILL_SIZE bytes are available or the end
+	 * is reached.<br>
+	 * 
+	 * @throws IOException
+	 *             Thrown, if the data is corrupt
+	 */
+	private void fill() throws IOException {
+		while (!finished && endPos - readPos < FILL_SIZE) {
+			// keep the window for the offset copies and the unread data
+			if (endPos + MAX_CONTROL_SIZE + 0x70 > buffer.length) {
+				int keep = Math.max(endPos - WINDOW_SIZE, 0);
+				keep = Math.min(keep, readPos);
+				System.arraycopy(buffer, keep, buffer, 0, endPos - keep);
+				readPos -= keep;
+				endPos -= keep;
+			}
+			decodeControl();
+		}
+	}
+
+	/**
+	 * Decodes the next control to the end of the buffer.<br>
+	 * 
+	 * @throws IOException
+	 *             Thrown, if the data is corrupt
+	 */
+	private void decodeControl() throws IOException {
+		if (!source.hasRemaining()) {
+			throw new IOException("Truncated QFS data: " + total + " of "
+					+ decompressedSize + " bytes");
+		}
+		int control1 = source.get() & 0xFF;
+		int controlSize = 0;
+		if (control1 <= 0x7F) {
+			controlSize = 1;
+		} else if (control1 <= 0xBF) {
+			controlSize = 2;
+		} else if (control1 <= 0xDF) {
+			controlSize = 3;
+		}
+		if (source.remaining() < controlSize) {
+			throw new IOException("Truncated QFS control at "
+					+ (source.position() - 1));
+		}
+		int numberOfPlainText;
+		int numberToCopyFromOffset = 0;
+		int offset = 0;
+		if (control1 <= 0x7F) {
+			int control2 = source.get() & 0xFF;
+			numberOfPlainText = control1 & 0x03;
+			offset = ((control1 & 0x60) << 3) + control2 + 1;
+			numberToCopyFromOffset = ((control1 & 0x1C) >> 2) + 3;
+		} else if (control1 <= 0xBF) {
+			int control2 = source.get() & 0xFF;
+			int control3 = source.get() & 0xFF;
+			numberOfPlainText = (control2 >> 6) & 0x03;
+			offset = ((control2 & 0x3F) << 8) + control3 + 1;
+			numberToCopyFromOffset = (control1 & 0x3F) + 4;
+		} else if (control1 <= 0xDF) {
+			int control2 = source.get() & 0xFF;
+			int control3 = source.get() & 0xFF;
+			int control4 = source.get() & 0xFF;
+			numberOfPlainText = control1 & 0x03;
+			offset = ((control1 & 0x10) << 12) + (control2 << 8) + control3 + 1;
+			numberToCopyFromOffset = ((control1 & 0x0C) << 6) + control4 + 5;
+		} else if (control1 <= 0xFB) {
+			numberOfPlainText = ((control1 & 0x1F) << 2) + 4;
+		} else {
+			numberOfPlainText = control1 & 0x03;
+			finished = true;
+		}
+
+		int count = numberOfPlainText + numberToCopyFromOffset;
+		if (source.remaining() < numberOfPlainText
+				|| total + count > decompressedSize
+				|| offset > Math.min(total + numberOfPlainText, endPos
+						+ numberOfPlainText)) {
+			throw new IOException("Corrupt QFS control "
+					+ Integer.toHexString(control1) + " at "
+					+ (source.position() - 1 - controlSize));
+		}
+		source.get(buffer, endPos, numberOfPlainText);
+		endPos += numberOfPlainText;
+		if (numberToCopyFromOffset > 0) {
+			int srcPos = endPos - offset;
+			if (offset >= numberToCopyFromOffset) {
+				System.arraycopy(buffer, srcPos, buffer, endPos,
+						numberToCopyFromOffset);
+			} else if (offset == 1) {
+				Arrays.fill(buffer, endPos, endPos + numberToCopyFromOffset,
+						buffer[srcPos]);
+			} else {
+				for (int i = 0; i < numberToCopyFromOffset; i++) {
+					buffer[endPos + i] = buffer[srcPos + i];
+				}
+			}
+			endPos += numberToCopyFromOffset;
+		}
+		total += count;
+		if (total == decompressedSize) {
+			finished = true;
+		}
+	}
+}
@@ -73,6 +73,21 @@ public class CohortConverter {
 		return null;
 	}
 
+	/**
+	 * Creates an cohort from the given data.<br>
+	 * The data is converted to a short array, see
+	 * {@link #createType(short[])}.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The cohort or NULL, if data is no cohort
+	 * @throws DBPFException
+	 *             Thrown, if cohort cannot be created
+	 */
+	public static DBPFCohort createType(byte[] dData) throws DBPFException {
+		return createType(DBPFUtil.toShorts(dData));
+	}
+
 	/**
 	 * Create the data for the given cohort.<br>
 	 * 
@@ -100,6 +115,26 @@ public class CohortConverter {
 		return null;
 	}
 
+	/**
+	 * Create the data for the given cohort as byte array.<br>
+	 * 
+	 * @param cohort
+	 *            The cohort
+	 * @param format
+	 *            DBPFUtil.MAGICNUMBER_B_FORMAT or T_FORMAT
+	 * @return The data or NULL, if data is whether BINARY nor TEXT format
+	 * @throws DBPFException
+	 *             Thrown, if data cannot be created
+	 */
+	public static byte[] createBytes(DBPFCohort cohort, short format)
+			throws DBPFException {
+		short[] data = createData(cohort, format);
+		if (data == null) {
+			return null;
+		}
+		return DBPFUtil.toBytes(data);
+	}
+
 	/**
 	 * Returns the data length for the given exemplar after calculating.<br>
 	 * 
@@ -18,6 +18,7 @@
 package ssp.dbpf.converter.types;
 
 import ssp.dbpf.types.DBPFDirectory;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Converter between Directory data and Directory type.<br>
@@ -42,8 +43,19 @@ public class DirectoryConverter {
 	 * @return The DBPFDirectory
 	 */
 	public static DBPFDirectory createType(short[] dData) {
+		return createType(DBPFUtil.toBytes(dData));
+	}
+
+	/**
+	 * Creates a DBPFDirectory from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFDirectory
+	 */
+	public static DBPFDirectory createType(byte[] dData) {
 		DBPFDirectory type = new DBPFDirectory();
-		type.setData(dData);
+		type.setBytes(dData);
 		return type;
 	}
 
@@ -55,7 +67,19 @@ public class DirectoryConverter {
 	 * @return The data
 	 */
 	public static short[] createData(DBPFDirectory type) {
-		short[] data = type.getData();
+		short[] data = DBPFUtil.toShorts(type.getBytes());
+		return data;
+	}
+
+	/**
+	 * Creates the data from the given DBPFDirectory.<br>
+	 * 
+	 * @param type
+	 *            The DBPFDirectory
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFDirectory type) {
+		byte[] data = type.getBytes();
 		return data;
 	}
 }
@@ -50,6 +50,27 @@ public class ExemplarConverter {
 	 *             Thrown, if exemplar cannot be created
 	 */
 	public static DBPFExemplar createType(short[] dData) throws DBPFException {
+		return createType(dData, false);
+	}
+
+	/**
+	 * Creates an exemplar from the given data.<br>
+	 * 
+	 * If lazy, the properties of the Binary-format are decoded not before they
+	 * are requested, see {@link BinaryDataConverter#createExemplar(short[],
+	 * boolean)}.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @param lazy
+	 *            TRUE, to decode the properties on request; FALSE, to decode
+	 *            all at once
+	 * @return The exemplar or NULL, if data is no exemplar
+	 * @throws DBPFException
+	 *             Thrown, if exemplar cannot be created
+	 */
+	public static DBPFExemplar createType(short[] dData, boolean lazy)
+			throws DBPFException {
 		String fileType = DBPFUtil.getChars(dData, 0x00, 3);
 		if (fileType.equals(DBPFConstant.MAGICNUMBER_EQZ)) {
 			long format = DBPFUtil.getUint32(dData, 0x03, 1);
@@ -61,7 +82,7 @@ public class ExemplarConverter {
 			DBPFExemplar exemplar = null;
 			// B-Format
 			if (format == DBPFConstant.FORMAT_BINARY) {
-				exemplar = BinaryDataConverter.createExemplar(dData);
+				exemplar = BinaryDataConverter.createExemplar(dData, lazy);
 			}
 			// T-Format
 			else if (format == DBPFConstant.FORMAT_TEXT) {
@@ -72,6 +93,21 @@ public class ExemplarConverter {
 		return null;
 	}
 
+	/**
+	 * Creates an exemplar from the given data.<br>
+	 * The data is converted to a short array, see
+	 * {@link #createType(short[])}.
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The exemplar or NULL, if data is no exemplar
+	 * @throws DBPFException
+	 *             Thrown, if exemplar cannot be created
+	 */
+	public static DBPFExemplar createType(byte[] dData) throws DBPFException {
+		return createType(DBPFUtil.toShorts(dData));
+	}
+
 	/**
 	 * Create the data for the given exemplar.<br>
 	 * 
@@ -93,6 +129,26 @@ public class ExemplarConverter {
 		return null;
 	}
 
+	/**
+	 * Create the data for the given exemplar as byte array.<br>
+	 * 
+	 * @param exemplar
+	 *            The exemplar
+	 * @param format
+	 *            DBPFUtil.MAGICNUMBER_B_FORMAT or T_FORMAT
+	 * @return The data or NULL, if data is whether BINARY nor TEXT format
+	 * @throws DBPFException
+	 *             Thrown, if data cannot be created
+	 */
+	public static byte[] createBytes(DBPFExemplar exemplar, short format)
+			throws DBPFException {
+		short[] data = createData(exemplar, format);
+		if (data == null) {
+			return null;
+		}
+		return DBPFUtil.toBytes(data);
+	}
+
 	/**
 	 * Returns the data length for the given exemplar after calculating.<br>
 	 * 
@@ -104,8 +160,13 @@ public class ExemplarConverter {
 	 */
 	public static int calcDataLength(DBPFExemplar exemplar) {
 		int dataLength = 0x18;
-		DBPFProperty[] propList = exemplar.getPropertyList();
-		for (DBPFProperty prop : propList) {
+		for (int i = 0; i < exemplar.getPropertyCount(); i++) {
+			DBPFProperty prop = exemplar.getDecodedProperty(i);
+			if (prop == null) {
+				// not decoded property of a lazy exemplar
+				dataLength += exemplar.getRawPropertyLength(i);
+				continue;
+			}
 			// Updates the hasCount
 			if (prop.getCount() > 1) {
 				// if more than one value
@@ -18,6 +18,7 @@
 package ssp.dbpf.converter.types;
 
 import ssp.dbpf.types.DBPFFSH;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Converter between FSH data and FSH type.<br>
@@ -42,8 +43,19 @@ public class FSHConverter {
 	 * @return The DBPFFSH
 	 */
 	public static DBPFFSH createType(short[] dData) {
+		return createType(DBPFUtil.toBytes(dData));
+	}
+
+	/**
+	 * Creates a DBPFFSH from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFFSH
+	 */
+	public static DBPFFSH createType(byte[] dData) {
 		DBPFFSH type = new DBPFFSH();
-		type.setData(dData);
+		type.setBytes(dData);
 		return type;
 	}
 
@@ -55,7 +67,19 @@ public class FSHConverter {
 	 * @return The data
 	 */
 	public static short[] createData(DBPFFSH type) {
-		short[] data = type.getData();
+		short[] data = DBPFUtil.toShorts(type.getBytes());
+		return data;
+	}
+
+	/**
+	 * Creates the data from the given DBPFFSH.<br>
+	 * 
+	 * @param type
+	 *            The DBPFFSH
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFFSH type) {
+		byte[] data = type.getBytes();
 		return data;
 	}
 }
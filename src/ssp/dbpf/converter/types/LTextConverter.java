@@ -59,6 +59,31 @@ public class LTextConverter {
 		return type;
 	}
 	
+	/**
+	 * Creates a LText from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFLText
+	 */
+	public static DBPFLText createType(byte[] dData) {
+		DBPFLText type = new DBPFLText();
+		String s = "";
+		int unicode = 0x00;
+		if (dData.length > 3) {
+			unicode = (int) DBPFUtil.getUint32(dData, 0x03, 1);
+		}
+		// fourth is 0x10 as unicode indicator
+		if (unicode == 0x10) {
+			int numberOfChars = (int) DBPFUtil.getUint32(dData, 0x00, 3);
+			s = DBPFUtil.getUnicode(dData, 4, numberOfChars);
+		} else {
+			s = DBPFUtil.getChars(dData, 0, dData.length);
+		}
+		type.setString(s);
+		return type;
+	}
+
 	/**
 	 * Creates the data from the given DBPFLText.<br>
 	 * 
@@ -77,4 +102,23 @@ public class LTextConverter {
 		DBPFUtil.setUnicode(s, data, 0x04);
 		return data;
 	}
+
+	/**
+	 * Creates the data from the given DBPFLText.<br>
+	 * 
+	 * The data is always UNICODE format!
+	 * 
+	 * @param type
+	 *            The DBPFLText
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFLText type) {
+		String s = type.getString();
+		byte[] data = new byte[2 * s.length() + 4];
+		DBPFUtil.setUint32(s.length(), data, 0x00, 3);
+		// fourth is always 0x10 as UNICODE indicator
+		DBPFUtil.setUint32(0x10, data, 0x03, 1);
+		DBPFUtil.setUnicode(s, data, 0x04);
+		return data;
+	}
 }
@@ -49,6 +49,20 @@ public class LUAConverter {
 		return type;
 	}
 
+	/**
+	 * Creates a LUA from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFLUA
+	 */
+	public static DBPFLUA createType(byte[] dData) {
+		DBPFLUA type = new DBPFLUA();
+		String s = DBPFUtil.getChars(dData, 0x00, dData.length);
+		type.setString(s);
+		return type;
+	}
+
 	/**
 	 * Creates the data from the given DBPFLUA.<br>
 	 * 
@@ -62,4 +76,18 @@ public class LUAConverter {
 		DBPFUtil.setChars(s, data, 0x00);
 		return data;
 	}
+
+	/**
+	 * Creates the data from the given DBPFLUA.<br>
+	 * 
+	 * @param type
+	 *            The DBPFLUA
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFLUA type) {
+		String s = type.getString();
+		byte[] data = new byte[s.length()];
+		DBPFUtil.setChars(s, data, 0x00);
+		return data;
+	}
 }
@@ -18,6 +18,8 @@
 package ssp.dbpf.converter.types;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.logging.Level;
 
@@ -82,6 +84,43 @@ public class PNGConverter {
 		return type;
 	}
 
+	/**
+	 * Create an image from the given imageData.<br>
+	 * <ul>
+	 * <li>If the imageData is encoded this will decode the data automatically.</li>
+	 * <li>If the imageData is null or has a length of zero this will throw an
+	 * exception.</li>
+	 * </ul>
+	 * 
+	 * @param imageData
+	 *            The imageData, may be encoded
+	 * @return The image
+	 * @throws DBPFException
+	 *             Thrown, if type cannot be created
+	 */
+	public static DBPFPNG createType(byte[] imageData) throws DBPFException {
+		DBPFPNG type = new DBPFPNG();
+
+		BufferedImage bim = null;
+		// ImageData exists: Try to read the image
+		if (imageData != null && imageData.length != 0) {
+			ByteArrayInputStream bis = new ByteArrayInputStream(
+					getCheckedData(imageData));
+			try {
+				bim = ImageIO.read(bis);
+			} catch (IOException e) {
+				throw new DBPFException(LOGNAME, "Cannot decode imageData: "
+						+ imageData.length + ", ERROR: " + e.getMessage());
+			}
+		}
+		if (bim == null) {
+			throw new DBPFException(LOGNAME, "Cannot decode imageData: "
+					+ (imageData == null ? 0 : imageData.length));
+		}
+		type.setImage(bim);
+		return type;
+	}
+
 	/**
 	 * This will return the checked imageData.<br>
 	 * If the imageData corresponds to PNG image it will return the data as it
@@ -110,6 +149,35 @@ public class PNGConverter {
 		return new short[0];
 	}
 
+	/**
+	 * This will return the checked imageData.<br>
+	 * If the imageData corresponds to PNG image it will return the data as it
+	 * is, else it will try to decode the data and return the decoded data. <br>
+	 * If the imageData is NULL or has length of zero, it returns an empty byte
+	 * array.
+	 * 
+	 * @param imageData
+	 *            The imageData
+	 * @return The data as it is or decoded
+	 */
+	private static byte[] getCheckedData(byte[] imageData) {
+		if (imageData != null && imageData.length != 0) {
+			String magic = DBPFUtil.getChars(imageData, 0,
+					Math.min(4, imageData.length));
+			// Uncompressed data ([0]=0x89,[1]=P,[2]=N,[3]=G): OK
+			if (magic.equals(DBPFConstant.MAGICNUMBER_PNG)) {
+				return imageData;
+			}
+			// Compressed data: Need to be decompress!
+			DBPFLogger.toLog(LOGNAME, Level.WARNING,
+					"Compressed data for png image found! "
+							+ "Return decompressed data (length="
+							+ imageData.length + ") ...");
+			return DBPFPackager.decompress(imageData);
+		}
+		return new byte[0];
+	}
+
 	/**
 	 * Create the imageData from the given DBPFPNG.<br>
 	 * Using the {@link ShortArrayOutputStream ShortArrayOutputStream}.
@@ -129,6 +197,24 @@ public class PNGConverter {
 		return vos.toShortArray();
 	}
 
+	/**
+	 * Create the imageData from the given DBPFPNG as byte array.<br>
+	 * 
+	 * @param png
+	 *            The type
+	 * @return The imageData
+	 */
+	public static byte[] createBytes(DBPFPNG png) {
+		int dataLength = calcDataLength(png.getImage());
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(dataLength);
+		try {
+			ImageIO.write(png.getImage(), "png", bos);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return bos.toByteArray();
+	}
+
 	/**
 	 * Returns the data length for the given image after calculating.<br>
 	 * 
@@ -49,6 +49,20 @@ public class RULConverter {
 		return type;
 	}
 	
+	/**
+	 * Creates a RUL from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFRUL
+	 */
+	public static DBPFRUL createType(byte[] dData) {
+		DBPFRUL type = new DBPFRUL();
+		String s = DBPFUtil.getChars(dData, 0x00, dData.length);
+		type.setString(s);
+		return type;
+	}
+
 	/**
 	 * Creates the data from the given DBPFRUL.<br>
 	 * 
@@ -62,4 +76,18 @@ public class RULConverter {
 		DBPFUtil.setChars(s, data, 0x00);
 		return data;
 	}
+
+	/**
+	 * Creates the data from the given DBPFRUL.<br>
+	 * 
+	 * @param type
+	 *            The DBPFRUL
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFRUL type) {
+		String s = type.getString();
+		byte[] data = new byte[s.length()];
+		DBPFUtil.setChars(s, data, 0x00);
+		return data;
+	}
 }
@@ -18,6 +18,7 @@
 package ssp.dbpf.converter.types;
 
 import ssp.dbpf.types.DBPFS3D;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Converter between S3D data and S3D type.<br>
@@ -42,8 +43,19 @@ public class S3DConverter {
 	 * @return The DBPFS3D
 	 */
 	public static DBPFS3D createType(short[] dData) {
+		return createType(DBPFUtil.toBytes(dData));
+	}
+
+	/**
+	 * Creates a DBPFS3D from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFS3D
+	 */
+	public static DBPFS3D createType(byte[] dData) {
 		DBPFS3D type = new DBPFS3D();
-		type.setData(dData);
+		type.setBytes(dData);
 		return type;
 	}
 
@@ -55,7 +67,19 @@ public class S3DConverter {
 	 * @return The data
 	 */
 	public static short[] createData(DBPFS3D type) {
-		short[] data = type.getData();
+		short[] data = DBPFUtil.toShorts(type.getBytes());
+		return data;
+	}
+
+	/**
+	 * Creates the data from the given DBPFS3D.<br>
+	 * 
+	 * @param type
+	 *            The DBPFS3D
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFS3D type) {
+		byte[] data = type.getBytes();
 		return data;
 	}
 }
@@ -18,6 +18,7 @@
 package ssp.dbpf.converter.types;
 
 import ssp.dbpf.types.DBPFWAV;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Converter between WAV data and WAV type.<br>
@@ -42,8 +43,19 @@ public class WAVConverter {
 	 * @return The DBPFWAV
 	 */
 	public static DBPFWAV createType(short[] dData) {
+		return createType(DBPFUtil.toBytes(dData));
+	}
+
+	/**
+	 * Creates a DBPFWAV from the given data.<br>
+	 * 
+	 * @param dData
+	 *            The decompressed data
+	 * @return The DBPFWAV
+	 */
+	public static DBPFWAV createType(byte[] dData) {
 		DBPFWAV type = new DBPFWAV();
-		type.setData(dData);
+		type.setBytes(dData);
 		return type;
 	}
 
@@ -55,7 +67,19 @@ public class WAVConverter {
 	 * @return The data
 	 */
 	public static short[] createData(DBPFWAV type) {
-		short[] data = type.getData();
+		short[] data = DBPFUtil.toShorts(type.getBytes());
+		return data;
+	}
+
+	/**
+	 * Creates the data from the given DBPFWAV.<br>
+	 * 
+	 * @param type
+	 *            The DBPFWAV
+	 * @return The data
+	 */
+	public static byte[] createBytes(DBPFWAV type) {
+		byte[] data = type.getBytes();
 		return data;
 	}
 }
@@ -19,6 +19,7 @@ package ssp.dbpf.entries;
 
 import java.io.File;
 
+import ssp.dbpf.DBPFContainer;
 import ssp.dbpf.tgi.TGIKey;
 import ssp.dbpf.util.DBPFUtil;
 
@@ -33,6 +34,7 @@ public class DBPFEntry {
 
 	// for later reading of file
 	private File filename;
+	private DBPFContainer container;
 
 	// Global, this will read from DBPF File
 	private TGIKey tgiKey;
@@ -40,6 +42,10 @@ public class DBPFEntry {
 	private long offset;
 	private long size;
 
+	// Global, this will read from the DIRECTORY of the DBPF File
+	private boolean compressed;
+	private long decompressedSize;
+
 	/**
 	 * Constructor.<br>
 	 * 
@@ -50,7 +56,10 @@ public class DBPFEntry {
 		this.tgiKey = tgiKey;
 		offset = 0;
 		size = 0;
+		compressed = false;
+		decompressedSize = 0;
 		filename = null;
+		container = null;
 	}
 
 	/**
@@ -73,7 +82,7 @@ public class DBPFEntry {
 	public boolean equals(Object obj) {
 		if (obj instanceof DBPFEntry) {
 			DBPFEntry entry = (DBPFEntry) obj;
-			return tgiKey.equals(entry.getTGIKey());
+			return getTGIKey().equals(entry.getTGIKey());
 		}
 		return false;
 	}
@@ -86,13 +95,13 @@ public class DBPFEntry {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		sb.append(tgiKey.toString());
+		sb.append(getTGIKey().toString());
 		sb.append("\n");
 		sb.append("Offset: ");
-		sb.append(DBPFUtil.toHex(offset, 8));
+		sb.append(DBPFUtil.toHex(getOffset(), 8));
 		sb.append(" ");
 		sb.append("Size: ");
-		sb.append(size);
+		sb.append(getSize());
 		return sb.toString();
 	}
 
@@ -126,6 +135,45 @@ public class DBPFEntry {
 		this.size = size;
 	}
 
+	/**
+	 * Check, if the data of this entry is compressed.<br>
+	 * This is read from the DIRECTORY of the DBPF file.
+	 * 
+	 * @return TRUE, if compressed; FALSE, otherwise
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * @param compressed
+	 *            the compressed to set
+	 */
+	public void setCompressed(boolean compressed) {
+		this.compressed = compressed;
+	}
+
+	/**
+	 * Returns the size of the decompressed data.<br>
+	 * If the entry is not compressed, this is the size.
+	 * 
+	 * @return the decompressedSize
+	 */
+	public long getDecompressedSize() {
+		if (compressed) {
+			return decompressedSize;
+		}
+		return size;
+	}
+
+	/**
+	 * @param decompressedSize
+	 *            the decompressedSize to set
+	 */
+	public void setDecompressedSize(long decompressedSize) {
+		this.decompressedSize = decompressedSize;
+	}
+
 	/**
 	 * @return the filename
 	 */
@@ -134,6 +182,10 @@ public class DBPFEntry {
 	}
 
 	/**
+	 * Sets the filename.<br>
+	 * Entries of a {@link DBPFEntryTable} share the filename of the table and
+	 * throw an UnsupportedOperationException, if it is changed.
+	 * 
 	 * @param filename
 	 *            the filename to set
 	 */
@@ -141,4 +193,27 @@ public class DBPFEntry {
 		this.filename = filename;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Returns the container this entry belongs to.<br>
+	 * If the container is open, the data of this entry will be read through
+	 * the channel of the container.
+	 * 
+	 * @return the container or NULL, if not set
+	 */
+	public DBPFContainer getContainer() {
+		return container;
+	}
+
+	/**
+	 * Sets the container.<br>
+	 * Entries of a {@link DBPFEntryTable} share the container of the table
+	 * and throw an UnsupportedOperationException, if it is changed.
+	 * 
+	 * @param container
+	 *            the container to set
+	 */
+	public void setContainer(DBPFContainer container) {
+		this.container = container;
+	}
+
+}
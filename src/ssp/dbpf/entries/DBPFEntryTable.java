@@ -0,0 +1,868 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.entries;
+
+import java.io.File;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import ssp.dbpf.DBPFContainer;
+import ssp.dbpf.tgi.PackedTGIKey;
+import ssp.dbpf.tgi.TGIIntMap;
+import ssp.dbpf.tgi.TGIKey;
+
+/**
+ * Compact list of the entries of one DBPF file.<br>
+ * 
+ * The TID, GID, IID, offset, size and decompressed size of all entries are
+ * stored in primitive arrays and the filename and container are shared by
+ * all entries. This needs about 25 bytes per entry instead of the objects of
+ * a DBPFEntry with its TGIKey.<br>
+ * {@link #get(int)} returns a new view of the entry on each call. Changes of
+ * the offset, size and compression of a view are written to the table, but
+ * changes of its TGIKey are not, use {@link #setTGIKey(int, TGIKey)}. The
+ * filename and container of a view can not be set, only those of the whole
+ * table. Views are equal, if their TGIs are equal, like all DBPFEntries, but
+ * they are not the same object, so do not compare them by identity.<br>
+ * The table has its own TGI index in primitive arrays, see
+ * {@link #searchIndex(TGIKey)}. It is built on the first search, updated on
+ * adding and rebuilt after removing or changing the TGI of entries.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFEntryTable extends AbstractList<DBPFEntry> implements
+		RandomAccess {
+
+	private static final long MASK = 0xFFFFFFFFL;
+	private static final int NO_ROW = -1;
+
+	private File filename;
+	private DBPFContainer container;
+
+	private int size;
+	private int[] tids;
+	private int[] gids;
+	private int[] iids;
+	private int[] offsets;
+	private int[] sizes;
+	private int[] decompressedSizes;
+	private boolean[] compressed;
+
+	// TGI index for the exact TGI, for TID and GID and for TID, NULL if not
+	// built
+	private RowChains tgiChains;
+	private RowChains tgChains;
+	private RowChains tChains;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param filename
+	 *            The filename shared by all entries
+	 * @param capacity
+	 *            The initial capacity
+	 */
+	public DBPFEntryTable(File filename, int capacity) {
+		this.filename = filename;
+		allocate(Math.max(capacity, 10));
+	}
+
+	/**
+	 * Adds an entry.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @param offset
+	 *            The offset
+	 * @param size
+	 *            The size
+	 * @return The index of the entry
+	 * @throws IllegalArgumentException
+	 *             Thrown, if a value is no unsigned 32 bit value
+	 */
+	public int add(long tid, long gid, long iid, long offset, long size) {
+		ensureCapacity(this.size + 1);
+		int index = this.size;
+		tids[index] = toUint32(tid, "TID");
+		gids[index] = toUint32(gid, "GID");
+		iids[index] = toUint32(iid, "IID");
+		offsets[index] = toUint32(offset, "Offset");
+		sizes[index] = toUint32(size, "Size");
+		decompressedSizes[index] = 0;
+		compressed[index] = false;
+		this.size++;
+		modCount++;
+		if (tgiChains != null) {
+			// the index is updated instead of rebuilt
+			indexRow(index);
+		}
+		return index;
+	}
+
+	/**
+	 * Adds a copy of the values of the given entry.<br>
+	 * The filename and container of the entry are not copied.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return TRUE
+	 * @throws IllegalArgumentException
+	 *             Thrown, if a value is no unsigned 32 bit value
+	 */
+	@Override
+	public boolean add(DBPFEntry entry) {
+		TGIKey tgiKey = entry.getTGIKey();
+		int index = add(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID(),
+				entry.getOffset(), entry.getSize());
+		setCompressed(index, entry.isCompressed());
+		setDecompressedSize(index, entry.getDecompressedSize());
+		return true;
+	}
+
+	/**
+	 * Sets a copy of the values of the given entry.<br>
+	 * The filename and container of the entry are not copied.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param entry
+	 *            The entry
+	 * @return The view of the entry
+	 * @throws IllegalArgumentException
+	 *             Thrown, if a value is no unsigned 32 bit value
+	 */
+	@Override
+	public DBPFEntry set(int index, DBPFEntry entry) {
+		checkIndex(index);
+		setTGIKey(index, entry.getTGIKey());
+		setOffset(index, entry.getOffset());
+		setSize(index, entry.getSize());
+		setCompressed(index, entry.isCompressed());
+		setDecompressedSize(index, entry.getDecompressedSize());
+		return new View(index);
+	}
+
+	/**
+	 * Returns a new view of the entry.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The view
+	 */
+	@Override
+	public DBPFEntry get(int index) {
+		checkIndex(index);
+		return new View(index);
+	}
+
+	/**
+	 * Removes the entry.<br>
+	 * The following entries are moved, so existing views of them point to
+	 * other entries afterwards.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return A copy of the removed entry
+	 */
+	@Override
+	public DBPFEntry remove(int index) {
+		checkIndex(index);
+		DBPFEntry entry = new DBPFEntry(getTGIKey(index));
+		entry.setOffset(getOffset(index));
+		entry.setSize(getSize(index));
+		entry.setCompressed(isCompressed(index));
+		entry.setDecompressedSize(getDecompressedSize(index));
+		entry.setFilename(filename);
+		entry.setContainer(container);
+		int count = size - index - 1;
+		System.arraycopy(tids, index + 1, tids, index, count);
+		System.arraycopy(gids, index + 1, gids, index, count);
+		System.arraycopy(iids, index + 1, iids, index, count);
+		System.arraycopy(offsets, index + 1, offsets, index, count);
+		System.arraycopy(sizes, index + 1, sizes, index, count);
+		System.arraycopy(decompressedSizes, index + 1, decompressedSizes,
+				index, count);
+		System.arraycopy(compressed, index + 1, compressed, index, count);
+		size--;
+		modCount++;
+		invalidate();
+		return entry;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+		invalidate();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Reduces the capacity of the arrays to the size.<br>
+	 */
+	public void trimToSize() {
+		if (tids.length > size) {
+			tids = Arrays.copyOf(tids, size);
+			gids = Arrays.copyOf(gids, size);
+			iids = Arrays.copyOf(iids, size);
+			offsets = Arrays.copyOf(offsets, size);
+			sizes = Arrays.copyOf(sizes, size);
+			decompressedSizes = Arrays.copyOf(decompressedSizes, size);
+			compressed = Arrays.copyOf(compressed, size);
+		}
+	}
+
+	/**
+	 * Returns the index of the first entry with the given TGI.<br>
+	 * Uses the TGI index of the table.
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @return The index or -1, if not found
+	 */
+	public int indexOf(long tid, long gid, long iid) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			return NO_ROW;
+		}
+		buildIndex();
+		return tgiChains.first(tid, gid, iid);
+	}
+
+	/**
+	 * Returns the index of the first entry, which matches the given TGI.<br>
+	 * Uses the TGI index of the table, which is built on the first search. The
+	 * wildcards are resolved like in {@link ssp.dbpf.tgi.TGIIndex}, but no
+	 * objects are created for the entries.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The index or -1, if not found
+	 */
+	public int searchIndex(TGIKey tgiKey) {
+		RowChains chains = getChains(tgiKey);
+		int row = firstCandidate(chains, tgiKey);
+		while (row != NO_ROW && !matches(row, tgiKey)) {
+			row = nextCandidate(chains, row);
+		}
+		return row;
+	}
+
+	/**
+	 * Returns the indices of all entries, which match the given TGI.<br>
+	 * Uses the TGI index of the table, see {@link #searchIndex(TGIKey)}.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The ascending indices, might be empty
+	 */
+	public int[] searchIndices(TGIKey tgiKey) {
+		int[] result = new int[4];
+		int count = 0;
+		RowChains chains = getChains(tgiKey);
+		int row = firstCandidate(chains, tgiKey);
+		while (row != NO_ROW) {
+			if (matches(row, tgiKey)) {
+				if (count == result.length) {
+					result = Arrays.copyOf(result, count << 1);
+				}
+				result[count++] = row;
+			}
+			row = nextCandidate(chains, row);
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return the TID
+	 */
+	public long getTID(int index) {
+		checkIndex(index);
+		return tids[index] & MASK;
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return the GID
+	 */
+	public long getGID(int index) {
+		checkIndex(index);
+		return gids[index] & MASK;
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return the IID
+	 */
+	public long getIID(int index) {
+		checkIndex(index);
+		return iids[index] & MASK;
+	}
+
+	/**
+	 * Returns a new TGIKey of the entry.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @return the TGIKey
+	 */
+	public TGIKey getTGIKey(int index) {
+		checkIndex(index);
+		return new TGIKey(tids[index] & MASK, gids[index] & MASK, iids[index]
+				& MASK);
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @param tgiKey
+	 *            the TGIKey to set
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value
+	 */
+	public void setTGIKey(int index, TGIKey tgiKey) {
+		checkIndex(index);
+		int tid = toUint32(tgiKey.getTID(), "TID");
+		int gid = toUint32(tgiKey.getGID(), "GID");
+		int iid = toUint32(tgiKey.getIID(), "IID");
+		tids[index] = tid;
+		gids[index] = gid;
+		iids[index] = iid;
+		invalidate();
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return the offset
+	 */
+	public long getOffset(int index) {
+		checkIndex(index);
+		return offsets[index] & MASK;
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @param offset
+	 *            the offset to set
+	 * @throws IllegalArgumentException
+	 *             Thrown, if offset is no unsigned 32 bit value
+	 */
+	public void setOffset(int index, long offset) {
+		checkIndex(index);
+		offsets[index] = toUint32(offset, "Offset");
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return the size
+	 */
+	public long getSize(int index) {
+		checkIndex(index);
+		return sizes[index] & MASK;
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @param size
+	 *            the size to set
+	 * @throws IllegalArgumentException
+	 *             Thrown, if size is no unsigned 32 bit value
+	 */
+	public void setSize(int index, long size) {
+		checkIndex(index);
+		sizes[index] = toUint32(size, "Size");
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @return TRUE, if compressed; FALSE, otherwise
+	 */
+	public boolean isCompressed(int index) {
+		checkIndex(index);
+		return compressed[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @param compressed
+	 *            the compressed to set
+	 */
+	public void setCompressed(int index, boolean compressed) {
+		checkIndex(index);
+		this.compressed[index] = compressed;
+	}
+
+	/**
+	 * Returns the size of the decompressed data.<br>
+	 * If the entry is not compressed, this is the size.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return the decompressedSize
+	 */
+	public long getDecompressedSize(int index) {
+		checkIndex(index);
+		if (compressed[index]) {
+			return decompressedSizes[index] & MASK;
+		}
+		return sizes[index] & MASK;
+	}
+
+	/**
+	 * @param index
+	 *            The index
+	 * @param decompressedSize
+	 *            the decompressedSize to set
+	 * @throws IllegalArgumentException
+	 *             Thrown, if decompressedSize is no unsigned 32 bit value
+	 */
+	public void setDecompressedSize(int index, long decompressedSize) {
+		checkIndex(index);
+		decompressedSizes[index] = toUint32(decompressedSize,
+				"DecompressedSize");
+	}
+
+	/**
+	 * @return the filename of all entries
+	 */
+	public File getFilename() {
+		return filename;
+	}
+
+	/**
+	 * @param filename
+	 *            the filename of all entries to set
+	 */
+	public void setFilename(File filename) {
+		this.filename = filename;
+	}
+
+	/**
+	 * @return the container of all entries or NULL, if not set
+	 */
+	public DBPFContainer getContainer() {
+		return container;
+	}
+
+	/**
+	 * @param container
+	 *            the container of all entries to set
+	 */
+	public void setContainer(DBPFContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Drops the TGI index, it is rebuilt on the next search.<br>
+	 */
+	private void invalidate() {
+		tgiChains = null;
+		tgChains = null;
+		tChains = null;
+	}
+
+	/**
+	 * Builds the TGI index, if necessary.<br>
+	 */
+	private void buildIndex() {
+		if (tgiChains == null) {
+			tgiChains = new RowChains(size);
+			tgChains = new RowChains(size);
+			tChains = new RowChains(size);
+			for (int row = 0; row < size; row++) {
+				indexRow(row);
+			}
+		}
+	}
+
+	/**
+	 * Appends the row to the TGI index.<br>
+	 * 
+	 * @param row
+	 *            The row
+	 */
+	private void indexRow(int row) {
+		long tid = tids[row] & MASK;
+		long gid = gids[row] & MASK;
+		tgiChains.add(row, tid, gid, iids[row] & MASK);
+		tgChains.add(row, tid, gid, 0);
+		tChains.add(row, tid, 0, 0);
+	}
+
+	/**
+	 * Returns the chains, which have to be checked for the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The chains or NULL, if all rows have to be checked
+	 */
+	private RowChains getChains(TGIKey tgiKey) {
+		long tid = tgiKey.getTID();
+		long gid = tgiKey.getGID();
+		long iid = tgiKey.getIID();
+		if (tid < 0 || tid > MASK || gid > MASK || iid > MASK) {
+			return null;
+		}
+		buildIndex();
+		if (gid < 0) {
+			return tChains;
+		} else if (iid < 0) {
+			return tgChains;
+		}
+		return tgiChains;
+	}
+
+	/**
+	 * Returns the first row to check for the given TGI.<br>
+	 * 
+	 * @param chains
+	 *            The chains or NULL for all rows
+	 * @param tgiKey
+	 *            The TGI
+	 * @return The row or -1, if none
+	 */
+	private int firstCandidate(RowChains chains, TGIKey tgiKey) {
+		if (chains == null) {
+			return size > 0 ? 0 : NO_ROW;
+		} else if (chains == tChains) {
+			return chains.first(tgiKey.getTID(), 0, 0);
+		} else if (chains == tgChains) {
+			return chains.first(tgiKey.getTID(), tgiKey.getGID(), 0);
+		}
+		return chains.first(tgiKey.getTID(), tgiKey.getGID(),
+				tgiKey.getIID());
+	}
+
+	/**
+	 * Returns the next row to check.<br>
+	 * 
+	 * @param chains
+	 *            The chains or NULL for all rows
+	 * @param row
+	 *            The current row
+	 * @return The row or -1, if none
+	 */
+	private int nextCandidate(RowChains chains, int row) {
+		if (chains == null) {
+			return row + 1 < size ? row + 1 : NO_ROW;
+		}
+		return chains.next(row);
+	}
+
+	/**
+	 * Check, if the ids of the row match the given TGI.<br>
+	 * 
+	 * @param row
+	 *            The row
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return TRUE, if matches; FALSE, otherwise
+	 */
+	private boolean matches(int row, TGIKey tgiKey) {
+		long tid = tgiKey.getTID();
+		long gid = tgiKey.getGID();
+		long iid = tgiKey.getIID();
+		return (tid < 0 || tid == (tids[row] & MASK))
+				&& (gid < 0 || gid == (gids[row] & MASK))
+				&& (iid < 0 || iid == (iids[row] & MASK));
+	}
+
+	/**
+	 * Check, if the index is in range.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index
+					+ ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Converts an unsigned 32 bit value to its int representation.<br>
+	 * 
+	 * @param value
+	 *            The value
+	 * @param name
+	 *            The name of the value for the exception
+	 * @return The int value
+	 */
+	private static int toUint32(long value, String name) {
+		if (value < 0 || value > MASK) {
+			throw new IllegalArgumentException(name
+					+ " is no unsigned 32 bit value: " + value);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Allocates empty arrays.<br>
+	 * 
+	 * @param capacity
+	 *            The capacity
+	 */
+	private void allocate(int capacity) {
+		tids = new int[capacity];
+		gids = new int[capacity];
+		iids = new int[capacity];
+		offsets = new int[capacity];
+		sizes = new int[capacity];
+		decompressedSizes = new int[capacity];
+		compressed = new boolean[capacity];
+	}
+
+	/**
+	 * Grows the arrays, if necessary.<br>
+	 * 
+	 * @param capacity
+	 *            The minimum capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > tids.length) {
+			int newCapacity = Math.max(capacity, tids.length
+					+ (tids.length >> 1));
+			tids = Arrays.copyOf(tids, newCapacity);
+			gids = Arrays.copyOf(gids, newCapacity);
+			iids = Arrays.copyOf(iids, newCapacity);
+			offsets = Arrays.copyOf(offsets, newCapacity);
+			sizes = Arrays.copyOf(sizes, newCapacity);
+			decompressedSizes = Arrays.copyOf(decompressedSizes, newCapacity);
+			compressed = Arrays.copyOf(compressed, newCapacity);
+		}
+	}
+
+	/**
+	 * Rows with the same key chained in order of the table.<br>
+	 * The key is mapped to a key number, which gives the first and last row of
+	 * its chain.
+	 */
+	private static class RowChains {
+
+		private final TGIIntMap keyMap;
+		private int[] heads;
+		private int[] tails;
+		private int[] next;
+
+		/**
+		 * Constructor.<br>
+		 * 
+		 * @param capacity
+		 *            The expected count of rows
+		 */
+		private RowChains(int capacity) {
+			keyMap = new TGIIntMap();
+			heads = new int[16];
+			tails = new int[16];
+			next = new int[Math.max(capacity, 10)];
+		}
+
+		/**
+		 * Appends the row to the chain of the key.<br>
+		 * 
+		 * @param row
+		 *            The row, greater than all added rows
+		 * @param tid
+		 *            The TID of the key
+		 * @param gid
+		 *            The GID of the key
+		 * @param iid
+		 *            The IID of the key
+		 */
+		private void add(int row, long tid, long gid, long iid) {
+			if (row >= next.length) {
+				next = Arrays.copyOf(next, Math.max(row + 1, next.length
+						+ (next.length >> 1)));
+			}
+			next[row] = NO_ROW;
+			int key = keyMap.get(tid, gid, iid);
+			if (key == TGIIntMap.NOT_FOUND) {
+				key = keyMap.size();
+				if (key == heads.length) {
+					heads = Arrays.copyOf(heads, key << 1);
+					tails = Arrays.copyOf(tails, key << 1);
+				}
+				keyMap.put(tid, gid, iid, key);
+				heads[key] = row;
+			} else {
+				next[tails[key]] = row;
+			}
+			tails[key] = row;
+		}
+
+		/**
+		 * Returns the first row of the key.<br>
+		 * 
+		 * @param tid
+		 *            The TID of the key
+		 * @param gid
+		 *            The GID of the key
+		 * @param iid
+		 *            The IID of the key
+		 * @return The row or -1, if not found
+		 */
+		private int first(long tid, long gid, long iid) {
+			int key = keyMap.get(tid, gid, iid);
+			return key == TGIIntMap.NOT_FOUND ? NO_ROW : heads[key];
+		}
+
+		/**
+		 * Returns the next row with the same key.<br>
+		 * 
+		 * @param row
+		 *            The row
+		 * @return The row or -1, if it was the last one
+		 */
+		private int next(int row) {
+			return next[row];
+		}
+	}
+
+	/**
+	 * Flyweight view of one entry of the table.<br>
+	 * The filename and container are shared by all entries of the table.
+	 */
+	private class View extends DBPFEntry {
+
+		private final int index;
+
+		/**
+		 * Constructor.<br>
+		 * 
+		 * @param index
+		 *            The index in the table
+		 */
+		private View(int index) {
+			super(null);
+			this.index = index;
+		}
+
+		@Override
+		public TGIKey getTGIKey() {
+			return DBPFEntryTable.this.getTGIKey(index);
+		}
+
+		@Override
+		public long getOffset() {
+			return DBPFEntryTable.this.getOffset(index);
+		}
+
+		@Override
+		public void setOffset(long offset) {
+			DBPFEntryTable.this.setOffset(index, offset);
+		}
+
+		@Override
+		public long getSize() {
+			return DBPFEntryTable.this.getSize(index);
+		}
+
+		@Override
+		public void setSize(long size) {
+			DBPFEntryTable.this.setSize(index, size);
+		}
+
+		@Override
+		public boolean isCompressed() {
+			return DBPFEntryTable.this.isCompressed(index);
+		}
+
+		@Override
+		public void setCompressed(boolean compressed) {
+			DBPFEntryTable.this.setCompressed(index, compressed);
+		}
+
+		@Override
+		public long getDecompressedSize() {
+			return DBPFEntryTable.this.getDecompressedSize(index);
+		}
+
+		@Override
+		public void setDecompressedSize(long decompressedSize) {
+			DBPFEntryTable.this.setDecompressedSize(index, decompressedSize);
+		}
+
+		@Override
+		public File getFilename() {
+			return filename;
+		}
+
+		/**
+		 * Does nothing, if the filename equals the shared filename of the
+		 * table. A different one must be set with
+		 * {@link DBPFEntryTable#setFilename(File)}.<br>
+		 * 
+		 * @throws UnsupportedOperationException
+		 *             Thrown, if the filename differs from the shared one
+		 */
+		@Override
+		public void setFilename(File filename) {
+			if (filename == null ? DBPFEntryTable.this.filename != null
+					: !filename.equals(DBPFEntryTable.this.filename)) {
+				throw new UnsupportedOperationException(
+						"The filename is shared by all entries of the table");
+			}
+		}
+
+		@Override
+		public DBPFContainer getContainer() {
+			return container;
+		}
+
+		/**
+		 * Does nothing, if the container is the shared container of the
+		 * table. A different one must be set with
+		 * {@link DBPFEntryTable#setContainer(DBPFContainer)}.<br>
+		 * 
+		 * @throws UnsupportedOperationException
+		 *             Thrown, if the container differs from the shared one
+		 */
+		@Override
+		public void setContainer(DBPFContainer container) {
+			if (container != DBPFEntryTable.this.container) {
+				throw new UnsupportedOperationException(
+						"The container is shared by all entries of the table");
+			}
+		}
+	}
+}
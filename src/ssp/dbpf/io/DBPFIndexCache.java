@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+import ssp.dbpf.DBPFContainer;
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.util.DBPFLogger;
+
+/**
+ * Persistent cache of the indexes of DBPF files.<br>
+ * 
+ * For each file the cache stores its size, last modification time and header
+ * and for each entry the TGI, offset, size, compressed flag and decompressed
+ * size. A file is only read again, if its size or last modification time has
+ * changed. Files, which are no DBPF files, are remembered too.<br>
+ * The entries of a file are kept in one {@link DBPFEntryTable}, which is
+ * shared with the containers returned by {@link #read(File)}. So the entry
+ * list of these containers must not be changed, set a copy with
+ * {@link DBPFContainer#setEntryList(List)} before.<br>
+ * The cache is stored in a compact binary file. The methods are thread safe.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFIndexCache {
+
+	private static final String LOGNAME = DBPFIndexCache.class.getSimpleName();
+
+	private static final long MAGICNUMBER = 0x4A44425046494458L; // JDBPFIDX
+	private static final int VERSION = 1;
+
+	private Map<String, CacheEntry> cacheMap;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Constructor.<br>
+	 * Creates an empty cache.
+	 */
+	public DBPFIndexCache() {
+		cacheMap = new HashMap<String, CacheEntry>();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "Files: " + cacheMap.size() + ", Hits: " + hits + ", Misses: "
+				+ misses;
+	}
+
+	/**
+	 * Loads the cache from the given cache file.<br>
+	 * If the cache file does not exist or cannot be read, an empty cache will
+	 * be returned.
+	 * 
+	 * @param cacheFile
+	 *            The cache file
+	 * @return The cache
+	 */
+	public static DBPFIndexCache load(File cacheFile) {
+		DBPFIndexCache cache = new DBPFIndexCache();
+		if (!cacheFile.exists()) {
+			return cache;
+		}
+		DataInputStream dis = null;
+		try {
+			dis = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(cacheFile)));
+			if (dis.readLong() != MAGICNUMBER || dis.readInt() != VERSION) {
+				DBPFLogger.toLog(LOGNAME, Level.INFO, "Ignore cache file: "
+						+ cacheFile);
+				return cache;
+			}
+			int fileCount = dis.readInt();
+			for (int i = 0; i < fileCount; i++) {
+				CacheEntry cacheEntry = readCacheEntry(dis);
+				cache.cacheMap.put(cacheEntry.path, cacheEntry);
+			}
+		} catch (IOException e) {
+			DBPFLogger.toLog(LOGNAME, Level.WARNING, "Cannot read cache file "
+					+ cacheFile + ": " + e.getMessage());
+			cache.cacheMap.clear();
+		} finally {
+			close(dis);
+		}
+		return cache;
+	}
+
+	/**
+	 * Saves the cache to the given cache file.<br>
+	 * The cache is written to a temporary file first, which then replaces the
+	 * cache file.
+	 * 
+	 * @param cacheFile
+	 *            The cache file
+	 * @throws DBPFException
+	 *             Thrown, if cache file cannot be written
+	 */
+	public synchronized void save(File cacheFile) throws DBPFException {
+		File tmpFile = new File(cacheFile.getPath() + ".tmp");
+		DataOutputStream dos = null;
+		try {
+			dos = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tmpFile)));
+			dos.writeLong(MAGICNUMBER);
+			dos.writeInt(VERSION);
+			dos.writeInt(cacheMap.size());
+			for (CacheEntry cacheEntry : cacheMap.values()) {
+				writeCacheEntry(dos, cacheEntry);
+			}
+			dos.close();
+			dos = null;
+		} catch (IOException e) {
+			throw new DBPFException(LOGNAME, "Cannot write cache file "
+					+ tmpFile + ": " + e.getMessage(), e);
+		} finally {
+			close(dos);
+		}
+		DBPFWriter.replaceFile(tmpFile, cacheFile);
+	}
+
+	/**
+	 * Returns the container of the file with the entries from the cache or
+	 * reads the file, if not cached or changed.<br>
+	 * The container is closed. Its entry table is shared with the cache and
+	 * must not be changed.
+	 * 
+	 * @param file
+	 *            The DBPF file
+	 * @return The container or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if file cannot be read
+	 */
+	public DBPFContainer read(File file) throws DBPFException {
+		long length = file.length();
+		long lastModified = file.lastModified();
+		String path = file.getAbsolutePath();
+		CacheEntry cacheEntry;
+		synchronized (this) {
+			cacheEntry = cacheMap.get(path);
+			if (cacheEntry != null && cacheEntry.length == length
+					&& cacheEntry.lastModified == lastModified) {
+				hits++;
+			} else {
+				cacheEntry = null;
+				misses++;
+			}
+		}
+		if (cacheEntry != null) {
+			return cacheEntry.createContainer(file);
+		}
+		DBPFContainer container = DBPFReader.read(file, false, true);
+		put(file, length, lastModified, container);
+		return container;
+	}
+
+	/**
+	 * Stores the container of the file to the cache.<br>
+	 * If the entry list of the container is a {@link DBPFEntryTable}, the
+	 * table is kept by the cache and must not be changed afterwards.
+	 * 
+	 * @param file
+	 *            The file
+	 * @param length
+	 *            The length of the file
+	 * @param lastModified
+	 *            The last modification time of the file
+	 * @param container
+	 *            The container or NULL, if file no DBPF file
+	 */
+	public synchronized void put(File file, long length, long lastModified,
+			DBPFContainer container) {
+		CacheEntry cacheEntry = new CacheEntry(file.getAbsolutePath(), length,
+				lastModified, container);
+		cacheMap.put(cacheEntry.path, cacheEntry);
+	}
+
+	/**
+	 * Removes all files from the cache, which are not in the given files.<br>
+	 * 
+	 * @param files
+	 *            The files to keep
+	 */
+	public synchronized void retain(Collection<File> files) {
+		Set<String> paths = new HashSet<String>();
+		for (File file : files) {
+			paths.add(file.getAbsolutePath());
+		}
+		Iterator<String> it = cacheMap.keySet().iterator();
+		while (it.hasNext()) {
+			if (!paths.contains(it.next())) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the count of cached files.<br>
+	 * 
+	 * @return The count
+	 */
+	public synchronized int size() {
+		return cacheMap.size();
+	}
+
+	/**
+	 * Returns the count of reads served from the cache.<br>
+	 * 
+	 * @return The hits
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the count of reads, which had to read the file.<br>
+	 * 
+	 * @return The misses
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Reads a cache entry from the stream.<br>
+	 * 
+	 * @param dis
+	 *            The stream
+	 * @return The cache entry
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private static CacheEntry readCacheEntry(DataInputStream dis)
+			throws IOException {
+		CacheEntry cacheEntry = new CacheEntry();
+		cacheEntry.path = dis.readUTF();
+		cacheEntry.length = dis.readLong();
+		cacheEntry.lastModified = dis.readLong();
+		if (dis.readBoolean()) {
+			long[] header = cacheEntry.header;
+			for (int i = 0; i < header.length; i++) {
+				header[i] = dis.readInt() & 0xFFFFFFFFL;
+			}
+			int count = dis.readInt();
+			if (count < 0) {
+				throw new IOException("Invalid entry count: " + count);
+			}
+			// a broken count ends with an EOFException, not a huge table
+			DBPFEntryTable table = new DBPFEntryTable(new File(
+					cacheEntry.path), Math.min(count, 0x10000));
+			for (int i = 0; i < count; i++) {
+				int index = table.add(dis.readInt() & 0xFFFFFFFFL, dis
+						.readInt() & 0xFFFFFFFFL, dis.readInt() & 0xFFFFFFFFL,
+						dis.readInt() & 0xFFFFFFFFL, dis.readInt() & 0xFFFFFFFFL);
+				table.setCompressed(index, dis.readInt() != 0);
+				table.setDecompressedSize(index, dis.readInt() & 0xFFFFFFFFL);
+			}
+			table.trimToSize();
+			cacheEntry.table = table;
+		}
+		return cacheEntry;
+	}
+
+	/**
+	 * Writes a cache entry to the stream.<br>
+	 * 
+	 * @param dos
+	 *            The stream
+	 * @param cacheEntry
+	 *            The cache entry
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private static void writeCacheEntry(DataOutputStream dos,
+			CacheEntry cacheEntry) throws IOException {
+		dos.writeUTF(cacheEntry.path);
+		dos.writeLong(cacheEntry.length);
+		dos.writeLong(cacheEntry.lastModified);
+		DBPFEntryTable table = cacheEntry.table;
+		dos.writeBoolean(table != null);
+		if (table != null) {
+			for (long value : cacheEntry.header) {
+				dos.writeInt((int) value);
+			}
+			dos.writeInt(table.size());
+			for (int i = 0; i < table.size(); i++) {
+				dos.writeInt((int) table.getTID(i));
+				dos.writeInt((int) table.getGID(i));
+				dos.writeInt((int) table.getIID(i));
+				dos.writeInt((int) table.getOffset(i));
+				dos.writeInt((int) table.getSize(i));
+				dos.writeInt(table.isCompressed(i) ? 1 : 0);
+				dos.writeInt((int) table.getDecompressedSize(i));
+			}
+		}
+	}
+
+	/**
+	 * Closes the stream and logs errors.<br>
+	 * 
+	 * @param stream
+	 *            The stream or NULL
+	 */
+	private static void close(Closeable stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The cached index of one file.<br>
+	 * The entries are stored in one table, which is shared with the created
+	 * containers.
+	 */
+	private static class CacheEntry {
+
+		private String path;
+		private long length;
+		private long lastModified;
+		// major, minor, created, modified, count, offset, size
+		private long[] header = new long[7];
+		// NULL, if no DBPF file
+		private DBPFEntryTable table;
+
+		/**
+		 * Constructor.<br>
+		 */
+		private CacheEntry() {
+		}
+
+		/**
+		 * Constructor.<br>
+		 * 
+		 * @param path
+		 *            The absolute path
+		 * @param length
+		 *            The length of the file
+		 * @param lastModified
+		 *            The last modification time of the file
+		 * @param container
+		 *            The container or NULL, if file no DBPF file
+		 */
+		private CacheEntry(String path, long length, long lastModified,
+				DBPFContainer container) {
+			this.path = path;
+			this.length = length;
+			this.lastModified = lastModified;
+			if (container != null) {
+				header[0] = container.getMajorVersion();
+				header[1] = container.getMinorVersion();
+				header[2] = container.getDateCreated();
+				header[3] = container.getDateModified();
+				header[4] = container.getIndexEntryCount();
+				header[5] = container.getIndexOffsetLocation();
+				header[6] = container.getIndexSize();
+				List<DBPFEntry> entryList = container.getEntryList();
+				if (entryList instanceof DBPFEntryTable) {
+					table = (DBPFEntryTable) entryList;
+				} else {
+					table = new DBPFEntryTable(new File(path), entryList
+							.size());
+					table.addAll(entryList);
+				}
+			}
+		}
+
+		/**
+		 * Creates a closed container with the cached entries.<br>
+		 * The container gets the cached table.
+		 * 
+		 * @param file
+		 *            The file
+		 * @return The container or NULL, if file no DBPF file
+		 */
+		private DBPFContainer createContainer(File file) {
+			if (table == null) {
+				return null;
+			}
+			DBPFContainer container = new DBPFContainer();
+			container.setFilename(file);
+			container.setMajorVersion(header[0]);
+			container.setMinorVersion(header[1]);
+			container.setDateCreated(header[2]);
+			container.setDateModified(header[3]);
+			container.setIndexEntryCount(header[4]);
+			container.setIndexOffsetLocation(header[5]);
+			container.setIndexSize(header[6]);
+			table.setFilename(file);
+			container.setEntryList(table);
+			return container;
+		}
+	}
+}
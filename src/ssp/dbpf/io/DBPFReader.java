@@ -17,24 +17,39 @@
  */
 package ssp.dbpf.io;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 import ssp.dbpf.DBPFCollection;
 import ssp.dbpf.DBPFContainer;
 import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.converter.DBPFPackager;
+import ssp.dbpf.converter.QFSInputStream;
 import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
 import ssp.dbpf.event.DBPFException;
 import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIKeys;
+import ssp.dbpf.tgi.TGIMap;
+import ssp.dbpf.types.DBPFLazyType;
+import ssp.dbpf.types.DBPFType;
 import ssp.dbpf.util.DBPFConstant;
 import ssp.dbpf.util.DBPFLogger;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Reads the DBPF format.<br>
@@ -47,6 +62,12 @@ public class DBPFReader {
 
 	private static final String LOGNAME = DBPFReader.class.getSimpleName();
 
+	/**
+	 * The size of one entry in the index: TID, GID, IID, offset and size
+	 */
+	private static final int INDEX_ENTRY_SIZE = 5 * 4;
+	private static final int DIRECTORY_ENTRY_SIZE = 4 * 4;
+
 	/**
 	 * Constructor.<br>
 	 * 
@@ -83,6 +104,10 @@ public class DBPFReader {
 	/**
 	 * Reads a DBPF file.<br>
 	 * 
+	 * The header and the index are each read with a single call to the
+	 * FileChannel and decoded from a LITTLE_ENDIAN ByteBuffer. The file is
+	 * closed after reading the index.
+	 * 
 	 * @param filename
 	 *            The filename of the DBPF file
 	 * @return The container or NULL, if file no DBPF file
@@ -90,30 +115,75 @@ public class DBPFReader {
 	 *             Thrown, if file not found or I/O error
 	 */
 	public static DBPFContainer read(File filename) throws DBPFException {
+		return read(filename, false);
+	}
+
+	/**
+	 * Reads a DBPF file.<br>
+	 * 
+	 * If keepOpen is TRUE, the returned container stays open and all entries
+	 * will be read through its channel. The caller is responsible to close the
+	 * container with {@link DBPFContainer#close()}.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param keepOpen
+	 *            TRUE, if the container should stay open; FALSE, otherwise
+	 * @return The container or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public static DBPFContainer read(File filename, boolean keepOpen)
+			throws DBPFException {
+		return read(filename, keepOpen, false);
+	}
+
+	/**
+	 * Reads a DBPF file.<br>
+	 * 
+	 * If compact is TRUE, the index is stored in a {@link DBPFEntryTable}
+	 * with primitive arrays instead of a DBPFEntry object for each entry. This
+	 * is for reading the index of many or very large files.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param keepOpen
+	 *            TRUE, if the container should stay open; FALSE, otherwise
+	 * @param compact
+	 *            TRUE, if the index should be stored compact; FALSE,
+	 *            otherwise
+	 * @return The container or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public static DBPFContainer read(File filename, boolean keepOpen,
+			boolean compact) throws DBPFException {
 		// to store the entries of the file
 		DBPFContainer container = new DBPFContainer();
 
-		RandomAccessFile raf = null;
+		// if file can be opened, set the filename
+		container.setFilename(filename);
+		container.open();
 
+		boolean success = false;
 		try {
-			raf = new RandomAccessFile(filename, "r");
+			FileChannel fc = container.getChannel();
 
-			// if file can be opened, set the filename
-			container.setFilename(filename);
-
-			// Analyze the fileType
-			String fileType = readChars(raf, 4);
-			if (fileType.equals(DBPFConstant.MAGICNUMBER_DBPF)) {
-				long majorVersion = readUint32(raf, 4);
-				long minorVersion = readUint32(raf, 4);
-				raf.skipBytes(12);
-				long dateCreated = readUint32(raf, 4);
-				long dateModified = readUint32(raf, 4);
+			// Read the whole header with one call and analyze the fileType
+			ByteBuffer header = readBuffer(fc, 0, DBPFConstant.HEADERSIZE_DBPF);
+			String fileType = readChars(header, 4);
+			if (header.limit() == DBPFConstant.HEADERSIZE_DBPF
+					&& fileType.equals(DBPFConstant.MAGICNUMBER_DBPF)) {
+				long majorVersion = readUint32(header);
+				long minorVersion = readUint32(header);
+				header.position(header.position() + 12);
+				long dateCreated = readUint32(header);
+				long dateModified = readUint32(header);
 				@SuppressWarnings("unused")
-				long indexType = readUint32(raf, 4);
-				long indexEntryCount = readUint32(raf, 4);
-				long indexOffsetLocation = readUint32(raf, 4);
-				long indexSize = readUint32(raf, 4);
+				long indexType = readUint32(header);
+				long indexEntryCount = readUint32(header);
+				long indexOffsetLocation = readUint32(header);
+				long indexSize = readUint32(header);
 
 				container.setMajorVersion(majorVersion);
 				container.setMinorVersion(minorVersion);
@@ -123,14 +193,34 @@ public class DBPFReader {
 				container.setIndexOffsetLocation(indexOffsetLocation);
 				container.setIndexSize(indexSize);
 
-				// Read the index
-				raf.seek(indexOffsetLocation);
+				// Read the whole index with one call
+				long indexLength = INDEX_ENTRY_SIZE * indexEntryCount;
+				if (indexLength > Integer.MAX_VALUE) {
+					throw new DBPFException(LOGNAME, "Index too large: "
+							+ indexEntryCount + " entries in " + filename);
+				}
+				ByteBuffer index = readBuffer(fc, indexOffsetLocation,
+						(int) indexLength);
+				if (index.limit() != indexLength) {
+					throw new DBPFException(LOGNAME, "Index truncated: "
+							+ index.limit() + " of " + indexLength
+							+ " bytes in " + filename);
+				}
+				DBPFEntryTable table = null;
+				if (compact) {
+					table = new DBPFEntryTable(filename, (int) indexEntryCount);
+					container.setEntryList(table);
+				}
 				for (int i = 0; i < indexEntryCount; i++) {
-					long tid = readUint32(raf, 4);
-					long gid = readUint32(raf, 4);
-					long iid = readUint32(raf, 4);
-					long offset = readUint32(raf, 4);
-					long size = readUint32(raf, 4);
+					long tid = readUint32(index);
+					long gid = readUint32(index);
+					long iid = readUint32(index);
+					long offset = readUint32(index);
+					long size = readUint32(index);
+					if (table != null) {
+						table.add(tid, gid, iid, offset, size);
+						continue;
+					}
 					DBPFEntry entry = new DBPFEntry(new TGIKey(tid, gid, iid));
 					entry.setOffset(offset);
 					entry.setSize(size);
@@ -139,25 +229,72 @@ public class DBPFReader {
 
 					// System.out.println(entry.toString());
 				}
-			} else {
-				container = null;
+				readDirectory(fc, container);
+				success = true;
 			}
-		} catch (FileNotFoundException e) {
-			throw new DBPFException(LOGNAME, e.getMessage());
 		} catch (IOException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
 		} finally {
-			if (raf != null) {
-				try {
-					raf.close();
-				} catch (IOException e) {
-					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
-				}
+			if (!keepOpen || !success) {
+				container.close();
 			}
 		}
+		if (!success) {
+			return null;
+		}
 		return container;
 	}
 
+	/**
+	 * Reads the DIRECTORY of the container and sets the compressed flag and
+	 * the decompressed size of the listed entries.<br>
+	 * If the DIRECTORY cannot be read, the entries stay uncompressed.
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param container
+	 *            The container
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private static void readDirectory(FileChannel fc, DBPFContainer container)
+			throws IOException {
+		TGIKey tgiKeyDir = TGIKeys.DIRECTORY.getTGIKey();
+		DBPFEntry dirEntry = null;
+		TGIMap<DBPFEntry> entryMap = new TGIMap<DBPFEntry>(container
+				.getEntryList().size());
+		for (DBPFEntry entry : container.getEntryList()) {
+			if (tgiKeyDir.equals(entry.getTGIKey())) {
+				dirEntry = entry;
+			} else {
+				entryMap.put(entry.getTGIKey(), entry);
+			}
+		}
+		if (dirEntry == null || dirEntry.getSize() > Integer.MAX_VALUE) {
+			return;
+		}
+		ByteBuffer dir = readBuffer(fc, dirEntry.getOffset(),
+				(int) dirEntry.getSize());
+		byte[] data = DBPFPackager.decompress(dir.array());
+		if (data.length % DIRECTORY_ENTRY_SIZE != 0) {
+			DBPFLogger.toLog(LOGNAME, Level.WARNING, "Directory size "
+					+ data.length + " is no multiple of "
+					+ DIRECTORY_ENTRY_SIZE + " in " + container.getFilename());
+		}
+		int count = data.length / DIRECTORY_ENTRY_SIZE;
+		for (int i = 0; i < count; i++) {
+			int pos = i * DIRECTORY_ENTRY_SIZE;
+			long tid = DBPFUtil.getUint32(data, pos, 4);
+			long gid = DBPFUtil.getUint32(data, pos + 4, 4);
+			long iid = DBPFUtil.getUint32(data, pos + 8, 4);
+			DBPFEntry entry = entryMap.get(tid, gid, iid);
+			if (entry != null) {
+				entry.setCompressed(true);
+				entry.setDecompressedSize(DBPFUtil.getUint32(data, pos + 12, 4));
+			}
+		}
+	}
+
 	/**
 	 * Reads chars from stream till length reached.<br>
 	 * 
@@ -198,16 +335,77 @@ public class DBPFReader {
 		long sum = 0;
 		for (int i = 0; i < length; i++) {
 			int readed = raf.read();
-			sum += (readed * Math.pow(16 * 16, i));
+			sum += ((long) readed) << (8 * i);
 		}
 		return sum;
 	}
 
+	/**
+	 * Reads a UINT32 value from the buffer at its current position.<br>
+	 * 
+	 * The buffer has to be in LITTLE_ENDIAN order, see
+	 * {@link #readBuffer(FileChannel, long, int)}.
+	 * 
+	 * @param buffer
+	 *            The buffer
+	 * @return The uint32 as a long value (cause of signed JAVA values)
+	 */
+	public static long readUint32(ByteBuffer buffer) {
+		return buffer.getInt() & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Reads chars from the buffer till length or end of buffer reached.<br>
+	 * 
+	 * @param buffer
+	 *            The buffer
+	 * @param length
+	 *            The length
+	 * @return The readed chars as a string
+	 */
+	public static String readChars(ByteBuffer buffer, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length && buffer.hasRemaining(); i++) {
+			sb.append((char) (buffer.get() & 0xFF));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reads a region of the channel into a buffer with as few calls as
+	 * possible.<br>
+	 * The returned buffer is flipped and in LITTLE_ENDIAN order. If the end of
+	 * the file is reached before length, the limit of the buffer is smaller
+	 * than the given length.
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param position
+	 *            The position in the file
+	 * @param length
+	 *            The length to read
+	 * @return The buffer
+	 * @throws IOException
+	 *             Thrown, if error occur
+	 */
+	public static ByteBuffer readBuffer(FileChannel fc, long position,
+			int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			int readed = fc.read(buffer, position + buffer.position());
+			if (readed == -1) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
 	/**
 	 * Reads the data from the file for the given entry.<br>
-	 * Opens the file, maps the entry content to memory, read and close the file
-	 * when finished. The data might be compressed! Uses RandomAccessFile with
-	 * MappedByteBuffer for reading.
+	 * The data is converted to a short array, see {@link #readBytes(DBPFEntry)}
+	 * . The data might be compressed!
 	 * 
 	 * @param entry
 	 *            The entry
@@ -216,41 +414,203 @@ public class DBPFReader {
 	 *             Thrown, if file not found or I/O error
 	 */
 	public static short[] readData(DBPFEntry entry) throws DBPFException {
-		File filename = entry.getFilename();
-		short[] data = new short[(int) entry.getSize()];
+		return DBPFUtil.toShorts(readBytes(entry));
+	}
+
+	/**
+	 * Reads the data for the given entry from the channel.<br>
+	 * The data is converted to a short array, see
+	 * {@link #readBytes(FileChannel, DBPFEntry)}. The data might be compressed!
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param entry
+	 *            The entry
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if I/O error or end of file reached
+	 */
+	public static short[] readData(FileChannel fc, DBPFEntry entry)
+			throws DBPFException {
+		return DBPFUtil.toShorts(readBytes(fc, entry));
+	}
+
+	/**
+	 * Reads the data from the file for the given entry.<br>
+	 * If the container of the entry is open, the data is read through its
+	 * channel. Otherwise opens the file, read and close the file when
+	 * finished. The data might be compressed!
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public static byte[] readBytes(DBPFEntry entry) throws DBPFException {
+		DBPFContainer container = entry.getContainer();
+		if (container != null) {
+			FileChannel fc = container.getChannel();
+			if (fc != null) {
+				return readBytes(fc, entry);
+			}
+		}
+
+		RandomAccessFile raf = null;
 		try {
-			RandomAccessFile raf = new RandomAccessFile(filename, "r");
-			
-			// old version with simple seek
-//			raf.seek(entry.getOffset());
-//			for (int i = 0; i < data.length; i++) {
-//				data[i] = (short) raf.read();
-//			}
-			
-			// new version with memory map from SC4Devotion: CasperVg
-			FileChannel fc = raf.getChannel();
-			MappedByteBuffer mbb = fc.map(FileChannel.MapMode.READ_ONLY,
-					entry.getOffset(), entry.getSize());
-			// System.out.println("Capacity of Buffer: "+mbb.capacity());
-			for (int i = 0; i < data.length; i++) {
-				// The get functions deliver signed byte, so this has to be
-				// converted to unsigned short
-				data[i] = (short) (mbb.get() & 0xff);
+			raf = new RandomAccessFile(entry.getFilename(), "r");
+			return readBytes(raf.getChannel(), entry);
+		} catch (FileNotFoundException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
 			}
-			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the data for the given entry from the channel.<br>
+	 * Uses a positional read, so the position of the channel is not changed
+	 * and the channel can be shared by several threads. The data might be
+	 * compressed!
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param entry
+	 *            The entry
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if I/O error or end of file reached
+	 */
+	public static byte[] readBytes(FileChannel fc, DBPFEntry entry)
+			throws DBPFException {
+		try {
+			ByteBuffer buffer = readBuffer(fc, entry.getOffset(),
+					(int) entry.getSize());
+			if (buffer.limit() != entry.getSize()) {
+				throw new DBPFException(LOGNAME, "Entry truncated: "
+						+ entry.getTGIKey() + " in " + entry.getFilename());
+			}
+			return buffer.array();
+		} catch (IOException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		}
+	}
+
+	/**
+	 * Copies the raw data of the given entry from the channel to the
+	 * target.<br>
+	 * The data is transferred by the channels without copying it to the heap,
+	 * so compressed data stays compressed. Uses a positional read, so the
+	 * position of the channel is not changed.
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param entry
+	 *            The entry
+	 * @param target
+	 *            The target channel
+	 * @return The number of copied bytes, the size of the entry
+	 * @throws DBPFException
+	 *             Thrown, if I/O error or end of file reached
+	 */
+	public static long transferBytes(FileChannel fc, DBPFEntry entry,
+			WritableByteChannel target) throws DBPFException {
+		long position = entry.getOffset();
+		long size = entry.getSize();
+		try {
+			while (size > 0) {
+				long count = fc.transferTo(position, size, target);
+				if (count <= 0) {
+					throw new DBPFException(LOGNAME, "Entry truncated: "
+							+ entry.getTGIKey() + " in " + entry.getFilename());
+				}
+				position += count;
+				size -= count;
+			}
+		} catch (IOException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		}
+		return entry.getSize();
+	}
+
+	/**
+	 * Opens a stream, which decompresses the data of the entry
+	 * incrementally.<br>
+	 * The data of the entry is mapped from the file, so only the read part of
+	 * the data is loaded. If the container of the entry is open, its channel
+	 * is used. Otherwise opens the file, map and close the file, the mapping
+	 * stays valid.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @return The stream
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public static QFSInputStream openStream(DBPFEntry entry)
+			throws DBPFException {
+		DBPFContainer container = entry.getContainer();
+		if (container != null) {
+			FileChannel fc = container.getChannel();
+			if (fc != null) {
+				return openStream(fc, entry);
+			}
+		}
+
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(entry.getFilename(), "r");
+			return openStream(raf.getChannel(), entry);
 		} catch (FileNotFoundException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens a stream, which decompresses the data of the entry from the
+	 * channel incrementally.<br>
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param entry
+	 *            The entry
+	 * @return The stream
+	 * @throws DBPFException
+	 *             Thrown, if I/O error or the entry is outside of the file
+	 */
+	public static QFSInputStream openStream(FileChannel fc, DBPFEntry entry)
+			throws DBPFException {
+		try {
+			if (entry.getOffset() + entry.getSize() > fc.size()) {
+				throw new DBPFException(LOGNAME, "Entry truncated: "
+						+ entry.getTGIKey() + " in " + entry.getFilename());
+			}
+			ByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY,
+					entry.getOffset(), entry.getSize());
+			return new QFSInputStream(buffer);
 		} catch (IOException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
 		}
-		return data;
 	}
 
 	/**
 	 * Reads the rawData from the file.<br>
-	 * Opens the file, read and close the file when finished.
-	 * 
-	 * Uses BufferedInputstream with FileInputStream for reading.
+	 * Opens the file, read and close the file when finished. The data is
+	 * converted to a short array, see {@link #readRawBytes(File)}.
 	 * 
 	 * @param filename
 	 *            The filename
@@ -259,20 +619,38 @@ public class DBPFReader {
 	 *             Thrown, if file not found or I/O error
 	 */
 	public static short[] readRawData(File filename) throws DBPFException {
-		short[] rawData = new short[(int) filename.length()];
+		return DBPFUtil.toShorts(readRawBytes(filename));
+	}
+
+	/**
+	 * Reads the rawData from the file.<br>
+	 * Opens the file, read and close the file when finished.
+	 * 
+	 * @param filename
+	 *            The filename
+	 * @return The read rawData, might be empty
+	 * @throws DBPFException
+	 *             Thrown, if file not found or I/O error
+	 */
+	public static byte[] readRawBytes(File filename) throws DBPFException {
+		RandomAccessFile raf = null;
 		try {
-			FileInputStream fis = new FileInputStream(filename);
-			BufferedInputStream bis = new BufferedInputStream(fis);
-			for (int i = 0; i < rawData.length; i++) {
-				rawData[i] = (short) bis.read();
-			}
-			bis.close();
+			raf = new RandomAccessFile(filename, "r");
+			FileChannel fc = raf.getChannel();
+			return readBuffer(fc, 0, (int) fc.size()).array();
 		} catch (FileNotFoundException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
 		} catch (IOException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+			}
 		}
-		return rawData;
 	}
 
 	// ***********************************************************************
@@ -281,21 +659,175 @@ public class DBPFReader {
 
 	/**
 	 * Reads the entrys and stores them in a collection.<br>
+	 * The file is opened only once for all entries.
 	 * 
 	 * @param filename
 	 *            The filename
-	 * @return The collection
+	 * @return The collection or NULL, if file no DBPF file
 	 * @throws DBPFException
 	 *             Thrown, if error while reading
 	 */
 	public static DBPFCollection readCollection(File filename)
 			throws DBPFException {
-		DBPFContainer dbpfFile = DBPFReader.read(filename);
+		return readCollection(filename, false);
+	}
+
+	/**
+	 * Reads a DBPF file and creates a collection of its types.<br>
+	 * 
+	 * If lazy is TRUE, the collection contains a {@link DBPFLazyType} for each
+	 * entry, which reads and decodes its data not before it is requested. The
+	 * collection then holds the opened container and should be closed with
+	 * {@link DBPFCollection#close()}, when no more types are needed.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param lazy
+	 *            TRUE, if types are decoded on first access; FALSE, if all
+	 *            types are decoded now
+	 * @return The collection or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static DBPFCollection readCollection(File filename, boolean lazy)
+			throws DBPFException {
+		DBPFContainer dbpfFile = DBPFReader.read(filename, true);
+		if (dbpfFile == null) {
+			return null;
+		}
 
 		DBPFCollection collection = new DBPFCollection();
 		collection.setFilename(filename);
-		for (DBPFEntry entry : dbpfFile.getEntryList()) {
-			collection.addType(DBPFConverter.createType(entry));
+		if (lazy) {
+			collection.setContainer(dbpfFile);
+			for (DBPFEntry entry : dbpfFile.getEntryList()) {
+				collection.addType(new DBPFLazyType(entry));
+			}
+			return collection;
+		}
+		try {
+			for (DBPFEntry entry : dbpfFile.getEntryList()) {
+				collection.addType(DBPFConverter.createType(entry));
+			}
+		} finally {
+			dbpfFile.close();
+		}
+		return collection;
+	}
+
+	/**
+	 * Reads a DBPF file and creates a collection of its types in parallel.<br>
+	 * 
+	 * The entries are read, decompressed and decoded with the given number of
+	 * threads. The order of the types in the collection is the order of the
+	 * index.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param parallelism
+	 *            The number of threads
+	 * @return The collection or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static DBPFCollection readCollection(File filename, int parallelism)
+			throws DBPFException {
+		if (parallelism < 1) {
+			throw new DBPFException(LOGNAME, "Parallelism must be positive: "
+					+ parallelism);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			return readCollection(filename, executor, parallelism);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Reads a DBPF file and creates a collection of its types in parallel.<br>
+	 * 
+	 * The entries are split into parts, which are read, decompressed and
+	 * decoded by the given executor. The order of the types in the collection
+	 * is the order of the index. The executor will not be shut down.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param executor
+	 *            The executor
+	 * @param parallelism
+	 *            The number of parts processed at the same time by the
+	 *            executor
+	 * @return The collection or NULL, if file no DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static DBPFCollection readCollection(File filename,
+			ExecutorService executor, int parallelism) throws DBPFException {
+		DBPFContainer dbpfFile = DBPFReader.read(filename, true);
+		if (dbpfFile == null) {
+			return null;
+		}
+
+		DBPFCollection collection = new DBPFCollection();
+		collection.setFilename(filename);
+		try {
+			final List<DBPFEntry> entryList = dbpfFile.getEntryList();
+			final DBPFType[] types = new DBPFType[entryList.size()];
+
+			// some parts for each thread to balance different entry sizes
+			int parts = Math.max(1, Math.min(entryList.size(),
+					4 * parallelism));
+			List<Future<Void>> futureList = new ArrayList<Future<Void>>(parts);
+			for (int i = 0; i < parts; i++) {
+				final int from = (int) ((long) entryList.size() * i / parts);
+				final int to = (int) ((long) entryList.size() * (i + 1) / parts);
+				futureList.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws DBPFException {
+						for (int j = from; j < to; j++) {
+							types[j] = DBPFConverter.createType(entryList
+									.get(j));
+						}
+						return null;
+					}
+				}));
+			}
+
+			// wait for all parts, even if one fails
+			DBPFException exception = null;
+			for (Future<Void> future : futureList) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					exception = new DBPFException(LOGNAME, "Interrupted: "
+							+ filename);
+					break;
+				} catch (ExecutionException e) {
+					if (exception == null) {
+						Throwable cause = e.getCause();
+						if (cause instanceof DBPFException) {
+							exception = (DBPFException) cause;
+						} else {
+							exception = new DBPFException(LOGNAME,
+									String.valueOf(cause), cause);
+						}
+					}
+				}
+			}
+			if (exception != null) {
+				for (Future<Void> future : futureList) {
+					future.cancel(true);
+				}
+				throw exception;
+			}
+
+			for (DBPFType type : types) {
+				collection.addType(type);
+			}
+		} finally {
+			dbpfFile.close();
 		}
 		return collection;
 	}
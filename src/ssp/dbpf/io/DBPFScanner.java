@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+
+import ssp.dbpf.DBPFContainer;
+import ssp.dbpf.DBPFPluginIndex;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.util.DBPFLogger;
+
+/**
+ * Scans folders with DBPF files and builds a merged TGI index.<br>
+ * 
+ * The files are ordered like the game loads a plugin folder: The files of a
+ * folder are loaded before its subfolders, both in alphabetical order ignoring
+ * the case. A file loaded later overrides the entries with the same TGI of the
+ * files loaded before.<br>
+ * Only files with the extension .dat or .sc4* and the DBPF file type are
+ * indexed.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFScanner {
+
+	private static final String LOGNAME = DBPFScanner.class.getSimpleName();
+
+	private static final Comparator<File> LOAD_ORDER = new Comparator<File>() {
+		@Override
+		public int compare(File f1, File f2) {
+			int result = f1.getName().compareToIgnoreCase(f2.getName());
+			if (result == 0) {
+				result = f1.getName().compareTo(f2.getName());
+			}
+			return result;
+		}
+	};
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * PRIVATE to prevent instance.
+	 */
+	private DBPFScanner() {
+	}
+
+	/**
+	 * Check, if the file has an extension of a plugin file.<br>
+	 * These are .dat and .sc4*, e.g. .sc4lot, .sc4desc or .sc4model.
+	 * 
+	 * @param file
+	 *            The file
+	 * @return TRUE, if plugin extension; FALSE, otherwise
+	 */
+	public static boolean isPluginFile(File file) {
+		String name = file.getName().toLowerCase();
+		int dot = name.lastIndexOf('.');
+		if (dot == -1) {
+			return false;
+		}
+		String extension = name.substring(dot);
+		return extension.equals(".dat") || extension.startsWith(".sc4");
+	}
+
+	/**
+	 * Returns all plugin files of the folder and its subfolders in load
+	 * order.<br>
+	 * 
+	 * @param folder
+	 *            The folder
+	 * @return The files, might be empty
+	 */
+	public static List<File> listFiles(File folder) {
+		List<File> fileList = new ArrayList<File>();
+		listFiles(folder, fileList);
+		return fileList;
+	}
+
+	/**
+	 * Adds the plugin files of the folder and its subfolders in load order to
+	 * the list.<br>
+	 * 
+	 * @param folder
+	 *            The folder
+	 * @param fileList
+	 *            The list
+	 */
+	private static void listFiles(File folder, List<File> fileList) {
+		File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, LOAD_ORDER);
+		for (File file : files) {
+			if (file.isFile() && isPluginFile(file)) {
+				fileList.add(file);
+			}
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				listFiles(file, fileList);
+			}
+		}
+	}
+
+	/**
+	 * Scans the folder and builds the merged index.<br>
+	 * The files are read with one thread per available processor.
+	 * 
+	 * @param folder
+	 *            The folder
+	 * @return The index
+	 * @throws DBPFException
+	 *             Thrown, if interrupted
+	 */
+	public static DBPFPluginIndex scan(File folder) throws DBPFException {
+		return scan(folder, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Scans the folder and builds the merged index.<br>
+	 * 
+	 * @param folder
+	 *            The folder
+	 * @param parallelism
+	 *            The number of threads to read the files
+	 * @return The index
+	 * @throws DBPFException
+	 *             Thrown, if interrupted
+	 */
+	public static DBPFPluginIndex scan(File folder, int parallelism)
+			throws DBPFException {
+		if (parallelism < 1) {
+			throw new DBPFException(LOGNAME, "Parallelism must be positive: "
+					+ parallelism);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			return scan(listFiles(folder), executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Reads the index of each file with the executor and builds the merged
+	 * index.<br>
+	 * The files must be in load order. Files, which are no DBPF file or cannot
+	 * be read, are logged and skipped. The executor will not be shut down.
+	 * 
+	 * @param fileList
+	 *            The files in load order
+	 * @param executor
+	 *            The executor
+	 * @return The index
+	 * @throws DBPFException
+	 *             Thrown, if interrupted
+	 */
+	public static DBPFPluginIndex scan(List<File> fileList,
+			ExecutorService executor) throws DBPFException {
+		return scan(fileList, executor, null);
+	}
+
+	/**
+	 * Scans the folder and builds the merged index using the cache file.<br>
+	 * Only files, which are not cached or whose size or last modification
+	 * time has changed, are read. The cache file is updated afterwards.
+	 * 
+	 * @param folder
+	 *            The folder
+	 * @param parallelism
+	 *            The number of threads to read the files
+	 * @param cacheFile
+	 *            The cache file
+	 * @return The index
+	 * @throws DBPFException
+	 *             Thrown, if interrupted or cache file cannot be written
+	 */
+	public static DBPFPluginIndex scan(File folder, int parallelism,
+			File cacheFile) throws DBPFException {
+		if (parallelism < 1) {
+			throw new DBPFException(LOGNAME, "Parallelism must be positive: "
+					+ parallelism);
+		}
+		DBPFIndexCache cache = DBPFIndexCache.load(cacheFile);
+		List<File> fileList = listFiles(folder);
+		DBPFPluginIndex index;
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			index = scan(fileList, executor, cache);
+		} finally {
+			executor.shutdown();
+		}
+		cache.retain(fileList);
+		cache.save(cacheFile);
+		DBPFLogger.toLog(LOGNAME, Level.INFO, "Scanned " + folder + ": "
+				+ cache.toString());
+		return index;
+	}
+
+	/**
+	 * Reads the index of each file with the executor and builds the merged
+	 * index.<br>
+	 * The files must be in load order. If a cache is given, the indexes are
+	 * taken from the cache, if the file has not changed. The entries of each
+	 * container are stored compact in a {@link DBPFEntryTable}. Files, which
+	 * are no DBPF file or cannot be read, are logged and skipped. The executor
+	 * will not be shut down.
+	 * 
+	 * @param fileList
+	 *            The files in load order
+	 * @param executor
+	 *            The executor
+	 * @param cache
+	 *            The cache or NULL
+	 * @return The index
+	 * @throws DBPFException
+	 *             Thrown, if interrupted
+	 */
+	public static DBPFPluginIndex scan(List<File> fileList,
+			ExecutorService executor, final DBPFIndexCache cache)
+			throws DBPFException {
+		List<Future<DBPFContainer>> futureList = new ArrayList<Future<DBPFContainer>>(
+				fileList.size());
+		for (final File file : fileList) {
+			futureList.add(executor.submit(new Callable<DBPFContainer>() {
+				@Override
+				public DBPFContainer call() {
+					try {
+						DBPFContainer container;
+						if (cache != null) {
+							container = cache.read(file);
+						} else {
+							container = DBPFReader.read(file, false, true);
+						}
+						if (container == null) {
+							DBPFLogger.toLog(LOGNAME, Level.WARNING,
+									"No DBPF file: " + file);
+						}
+						return container;
+					} catch (DBPFException e) {
+						DBPFLogger.toLog(LOGNAME, Level.WARNING,
+								"Cannot read " + file + ": " + e.getMessage());
+						return null;
+					}
+				}
+			}));
+		}
+
+		DBPFPluginIndex index = new DBPFPluginIndex();
+		for (Future<DBPFContainer> future : futureList) {
+			try {
+				DBPFContainer container = future.get();
+				if (container != null) {
+					index.addContainer(container);
+				}
+			} catch (InterruptedException e) {
+				for (Future<DBPFContainer> f : futureList) {
+					f.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new DBPFException(LOGNAME, "Interrupted");
+			} catch (ExecutionException e) {
+				DBPFLogger.toLog(LOGNAME, Level.WARNING, String.valueOf(e
+						.getCause()));
+			}
+		}
+		return index;
+	}
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.io;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+import ssp.dbpf.converter.CompressionLevel;
+import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.converter.DBPFPackager;
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIKeys;
+import ssp.dbpf.types.DBPFLazyType;
+import ssp.dbpf.types.DBPFType;
+import ssp.dbpf.util.DBPFConstant;
+import ssp.dbpf.util.DBPFLogger;
+
+/**
+ * Writes the DBPF format type by type.<br>
+ * 
+ * The data of each added type is written to the file at once, only the index
+ * is kept in memory. The directory of the compressed types and the index are
+ * written by {@link #close()}. The data is written to a temporary file, which
+ * replaces the file when closed, so the file is never left half written. Use
+ * {@link #abort()} to discard the written data.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFStreamWriter {
+
+	private static final String LOGNAME = DBPFStreamWriter.class
+			.getSimpleName();
+
+	/**
+	 * The size of the buffer for small data
+	 */
+	private static final int BUFFER_SIZE = 0x10000;
+
+	/**
+	 * The maximal offset in a DBPF file, the index stores unsigned 32 bit
+	 * values
+	 */
+	private static final long MAX_POSITION = 0xFFFFFFFFL;
+
+	private final File filename;
+	private final File target;
+	private final CompressionLevel level;
+	private final DBPFEntryTable entryTable;
+	private final ByteBuffer buffer;
+	private final Map<File, RandomAccessFile> sourceMap;
+	private RandomAccessFile raf;
+	private FileChannel channel;
+	private long position;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @throws DBPFException
+	 *             Thrown, if the file can not be created
+	 */
+	public DBPFStreamWriter(File filename) throws DBPFException {
+		this(filename, CompressionLevel.DEFAULT);
+	}
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param level
+	 *            The compression level for the compressed types
+	 * @throws DBPFException
+	 *             Thrown, if the file can not be created
+	 */
+	public DBPFStreamWriter(File filename, CompressionLevel level)
+			throws DBPFException {
+		this.filename = filename;
+		this.target = new File(filename.getAbsoluteFile().getParentFile(),
+				filename.getName() + ".tmp");
+		this.level = level;
+		this.entryTable = new DBPFEntryTable(filename, 100);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.sourceMap = new HashMap<File, RandomAccessFile>();
+		try {
+			raf = new RandomAccessFile(target, "rw");
+			raf.setLength(0);
+			channel = raf.getChannel();
+			position = DBPFConstant.HEADERSIZE_DBPF;
+			channel.position(position);
+		} catch (FileNotFoundException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} catch (IOException e) {
+			abort();
+			throw new DBPFException(LOGNAME, e.getMessage());
+		}
+	}
+
+	/**
+	 * Adds the type and writes its data.<br>
+	 * 
+	 * Compressed types are compressed with the level of this writer,
+	 * unchanged lazy types are copied as they are. A directory is ignored, it
+	 * is created by {@link #close()}.
+	 * 
+	 * @param type
+	 *            The type
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public void add(DBPFType type) throws DBPFException {
+		TGIKey tgiKey = type.getTGIKey();
+		if (tgiKey.equals(TGIKeys.DIRECTORY.getTGIKey())) {
+			return;
+		}
+		if (type instanceof DBPFLazyType
+				&& ((DBPFLazyType) type).isUnchanged()
+				&& ((DBPFLazyType) type).getEntry().getFilename() != null) {
+			transfer(tgiKey, ((DBPFLazyType) type).getEntry());
+		} else {
+			byte[] data = DBPFConverter.createBytes(type, level);
+			boolean compressed = type.isCompressed()
+					&& DBPFPackager.isCompressed(data);
+			addRaw(tgiKey, data, compressed, compressed ? DBPFPackager
+					.getDecompressedSize(data) : data.length);
+		}
+	}
+
+	/**
+	 * Adds the data as it is.<br>
+	 * A directory is ignored, it is created by {@link #close()}.<br>
+	 * If the data can not be written, the file is reset to the end of the
+	 * last added data, so the writer stays usable. Data, which would end
+	 * behind the 4 GB limit of the offsets, is rejected before writing.
+	 * 
+	 * @param tgiKey
+	 *            The TGI of the data
+	 * @param data
+	 *            The data to write
+	 * @param compressed
+	 *            TRUE, if the data is compressed; FALSE, otherwise
+	 * @param decompressedSize
+	 *            The size of the decompressed data
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public void addRaw(TGIKey tgiKey, byte[] data, boolean compressed,
+			long decompressedSize) throws DBPFException {
+		checkOpen();
+		if (!tgiKey.equals(TGIKeys.DIRECTORY.getTGIKey())) {
+			write(tgiKey, data, compressed, decompressedSize);
+		}
+	}
+
+	/**
+	 * Writes the data and adds its index entry.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI of the data
+	 * @param data
+	 *            The data to write
+	 * @param compressed
+	 *            TRUE, if the data is compressed; FALSE, otherwise
+	 * @param decompressedSize
+	 *            The size of the decompressed data
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	private void write(TGIKey tgiKey, byte[] data, boolean compressed,
+			long decompressedSize) throws DBPFException {
+		checkSize(data.length);
+		if (data.length > buffer.remaining()) {
+			flushOrAbort();
+		}
+		if (data.length > buffer.remaining()) {
+			try {
+				writeFully(ByteBuffer.wrap(data));
+			} catch (IOException e) {
+				rollback();
+				throw new DBPFException(LOGNAME, e.getMessage());
+			}
+		} else {
+			buffer.put(data);
+		}
+		addIndex(tgiKey, data.length, compressed, decompressedSize);
+	}
+
+	/**
+	 * Adds the data of the entry of another file as it is.<br>
+	 * 
+	 * The data is transferred from the file of the entry without copying it
+	 * to the heap. The compressed flag and the decompressed size of the entry
+	 * are taken to the directory. If the container of the entry is open, its
+	 * channel is used, otherwise the file is opened till this writer is
+	 * closed. A directory is ignored, it is created by {@link #close()}.<br>
+	 * If the data can not be transferred, e.g. the entry exceeds its file,
+	 * the file is reset to the end of the last added data, so the writer
+	 * stays usable. Data, which would end behind the 4 GB limit of the
+	 * offsets, is rejected before writing.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public void addEntry(DBPFEntry entry) throws DBPFException {
+		TGIKey tgiKey = entry.getTGIKey();
+		if (!tgiKey.equals(TGIKeys.DIRECTORY.getTGIKey())) {
+			transfer(tgiKey, entry);
+		}
+	}
+
+	/**
+	 * Copies the data of the entry with the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param entry
+	 *            The entry
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	private void transfer(TGIKey tgiKey, DBPFEntry entry)
+			throws DBPFException {
+		checkOpen();
+		checkSize(entry.getSize());
+		flushOrAbort();
+		long size;
+		try {
+			FileChannel fc = DBPFWriter.getSourceChannel(entry, sourceMap);
+			size = DBPFReader.transferBytes(fc, entry, channel);
+		} catch (IOException e) {
+			rollback();
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} catch (DBPFException e) {
+			rollback();
+			throw e;
+		}
+		addIndex(tgiKey, size, entry.isCompressed(), entry
+				.getDecompressedSize());
+	}
+
+	/**
+	 * Returns the count of added types.<br>
+	 * 
+	 * @return The count
+	 */
+	public int size() {
+		return entryTable.size();
+	}
+
+	/**
+	 * Writes the directory and the index and replaces the file.<br>
+	 * 
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public void close() throws DBPFException {
+		checkOpen();
+		try {
+			// Write directory of the compressed types
+			int count = 0;
+			for (int i = 0; i < entryTable.size(); i++) {
+				if (entryTable.isCompressed(i)) {
+					count++;
+				}
+			}
+			if (count > 0) {
+				ByteBuffer dir = ByteBuffer.allocate(count * 16).order(
+						ByteOrder.LITTLE_ENDIAN);
+				for (int i = 0; i < entryTable.size(); i++) {
+					if (entryTable.isCompressed(i)) {
+						dir.putInt((int) entryTable.getTID(i));
+						dir.putInt((int) entryTable.getGID(i));
+						dir.putInt((int) entryTable.getIID(i));
+						dir.putInt((int) entryTable.getDecompressedSize(i));
+					}
+				}
+				write(TGIKeys.DIRECTORY.getTGIKey(), dir.array(), false,
+						dir.capacity());
+			}
+			flush();
+
+			// Write index and at last the header with the index location
+			long indexOffsetLocation = position;
+			ByteBuffer index = ByteBuffer.allocateDirect(
+					5 * 4 * entryTable.size()).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < entryTable.size(); i++) {
+				index.putInt((int) entryTable.getTID(i));
+				index.putInt((int) entryTable.getGID(i));
+				index.putInt((int) entryTable.getIID(i));
+				index.putInt((int) entryTable.getOffset(i));
+				index.putInt((int) entryTable.getSize(i));
+			}
+			index.flip();
+			writeFully(index);
+			long date = System.currentTimeMillis() / 1000;
+			DBPFWriter.writeBuffer(channel, DBPFWriter.createHeader(
+					entryTable.size(), indexOffsetLocation, date, date), 0);
+			channel.force(false);
+			raf.close();
+		} catch (IOException e) {
+			abort();
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} catch (DBPFException e) {
+			abort();
+			throw e;
+		}
+		closeSources();
+		raf = null;
+		channel = null;
+
+		// Replace the file with the temporary file
+		DBPFWriter.replaceFile(target, filename);
+	}
+
+	/**
+	 * Discards the written data, the file stays unchanged.<br>
+	 * 
+	 * Does nothing, if already closed.
+	 */
+	public void abort() {
+		closeSources();
+		if (raf != null) {
+			try {
+				raf.close();
+			} catch (IOException e) {
+				DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			}
+			raf = null;
+			channel = null;
+			target.delete();
+		}
+	}
+
+	/**
+	 * Check, if the writer is open.<br>
+	 * 
+	 * @return TRUE, if open; FALSE, if closed or aborted
+	 */
+	public boolean isOpen() {
+		return channel != null;
+	}
+
+	/**
+	 * Checks, if the writer is open.<br>
+	 * 
+	 * @throws DBPFException
+	 *             Thrown, if closed or aborted
+	 */
+	private void checkOpen() throws DBPFException {
+		if (channel == null) {
+			throw new DBPFException(LOGNAME, "Writer closed: " + filename);
+		}
+	}
+
+	/**
+	 * Checks, if data of the given size can be added, before anything is
+	 * written.<br>
+	 * 
+	 * @param size
+	 *            The size of the data
+	 * @throws DBPFException
+	 *             Thrown, if the end of the data exceeds the maximal offset
+	 */
+	private void checkSize(long size) throws DBPFException {
+		if (position + size > MAX_POSITION) {
+			throw new DBPFException(LOGNAME, "File too big, " + size
+					+ " bytes at offset " + position + " exceed 4 GB: "
+					+ filename);
+		}
+	}
+
+	/**
+	 * Adds the index entry for the data written at the current position.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param size
+	 *            The size of the written data
+	 * @param compressed
+	 *            TRUE, if the data is compressed; FALSE, otherwise
+	 * @param decompressedSize
+	 *            The size of the decompressed data
+	 */
+	private void addIndex(TGIKey tgiKey, long size, boolean compressed,
+			long decompressedSize) {
+		int index = entryTable.add(tgiKey.getTID(), tgiKey.getGID(), tgiKey
+				.getIID(), position, size);
+		entryTable.setCompressed(index, compressed);
+		entryTable.setDecompressedSize(index, decompressedSize);
+		position += size;
+	}
+
+	/**
+	 * Writes the buffered data to the file.<br>
+	 * If this fails, the written data of already added types is incomplete,
+	 * so the writer is aborted.
+	 * 
+	 * @throws DBPFException
+	 *             Thrown, if I/O error
+	 */
+	private void flushOrAbort() throws DBPFException {
+		try {
+			flush();
+		} catch (IOException e) {
+			abort();
+			throw new DBPFException(LOGNAME, e.getMessage());
+		}
+	}
+
+	/**
+	 * Resets the file to the end of the last added data after a failed
+	 * write.<br>
+	 * The buffer must be empty. If the file can not be reset, the writer is
+	 * aborted.
+	 */
+	private void rollback() {
+		try {
+			channel.position(position);
+			channel.truncate(position);
+		} catch (IOException e) {
+			DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			abort();
+		}
+	}
+
+	/**
+	 * Writes the buffered data to the file.<br>
+	 * 
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the data to the current position of the file.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private void writeFully(ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			channel.write(data);
+		}
+	}
+
+	/**
+	 * Closes the files of the copied lazy types.<br>
+	 */
+	private void closeSources() {
+		for (RandomAccessFile source : sourceMap.values()) {
+			try {
+				source.close();
+			} catch (IOException e) {
+				DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			}
+		}
+		sourceMap.clear();
+	}
+}
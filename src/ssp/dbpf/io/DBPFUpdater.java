@@ -19,15 +19,17 @@ package ssp.dbpf.io;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import ssp.dbpf.DBPFContainer;
-import ssp.dbpf.converter.DBPFConverter;
 import ssp.dbpf.entries.DBPFEntry;
 import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.tgi.TGIIndex;
 import ssp.dbpf.tgi.TGIKey;
 import ssp.dbpf.tgi.TGIKeys;
 import ssp.dbpf.types.DBPFDirectory;
+import ssp.dbpf.types.DBPFLazyType;
 import ssp.dbpf.types.DBPFRaw;
 import ssp.dbpf.types.DBPFType;
 import ssp.dbpf.util.DBPFUtil;
@@ -57,7 +59,8 @@ public class DBPFUpdater {
 	 * Updates a DBPF file with the given filename with the typeList.<br>
 	 * This will read the DBPF file given by the filename and replace each entry
 	 * by the one from the given typeList, if the TGI is the same. Then it will
-	 * write the updated entrys to the given filename.
+	 * write the updated entrys to the given filename. The other entries are
+	 * copied as they are, without decompressing and compressing them again.
 	 * 
 	 * @param filename
 	 *            The file to update
@@ -70,19 +73,39 @@ public class DBPFUpdater {
 	public static boolean updateDBPF(File filename, List<DBPFType> typeList)
 			throws DBPFException {
 		DBPFContainer file = DBPFReader.read(filename);
-		boolean found = false;
+
+		// index the types by TGI, types with wildcards are checked for each
+		TGIIndex<Integer> typeIndex = new TGIIndex<Integer>();
+		List<Integer> wildcardList = new ArrayList<Integer>();
+		for (int j = 0; j < typeList.size(); j++) {
+			TGIKey tgiKey = typeList.get(j).getTGIKey();
+			if (tgiKey.getTID() < 0 || tgiKey.getGID() < 0
+					|| tgiKey.getIID() < 0) {
+				wildcardList.add(j);
+			} else {
+				typeIndex.add(tgiKey, j);
+			}
+		}
+
 		List<DBPFType> writeList = new ArrayList<DBPFType>();
 		for (DBPFEntry entry : file.getEntryList()) {
-			found = false;
-			for (int j = 0; j < typeList.size(); j++) {
-				DBPFType type = typeList.get(j);
-				if (entry.getTGIKey().equals(type.getTGIKey())) {
-					writeList.add(type);
-					found = true;
+			List<Integer> found = typeIndex.get(entry.getTGIKey());
+			for (Integer j : wildcardList) {
+				if (entry.getTGIKey().equals(typeList.get(j).getTGIKey())) {
+					found.add(j);
 				}
 			}
-			if (!found) {
-				writeList.add(DBPFConverter.createType(entry));
+			// keep the order of the typeList
+			if (!wildcardList.isEmpty()) {
+				Collections.sort(found);
+			}
+			if (found.isEmpty()) {
+				// copied as it is by the writer
+				writeList.add(new DBPFLazyType(entry));
+			} else {
+				for (Integer j : found) {
+					writeList.add(typeList.get(j));
+				}
 			}
 		}
 		DBPFWriter.write(filename, writeList);
@@ -118,7 +141,7 @@ public class DBPFUpdater {
 				typeList.remove(dir);
 			}
 		} else {
-			short[] data = new short[v.size() * 16];
+			byte[] data = new byte[v.size() * 16];
 			int pos = 0x00;
 			for (DBPFType type : v) {
 				long[] tgi = type.getTGIKey().getTGI();
@@ -129,17 +152,22 @@ public class DBPFUpdater {
 						4);
 				pos += 16;
 			}
-			if (dir != null) {
-				if (dir instanceof DBPFDirectory) {
-					((DBPFDirectory) dir).setData(data);
-				} else {
-					((DBPFRaw) dir).setData(data);
-				}
+			if (dir instanceof DBPFDirectory) {
+				((DBPFDirectory) dir).setBytes(data);
+			} else if (dir instanceof DBPFRaw) {
+				((DBPFRaw) dir).setBytes(data);
+			} else if (dir != null) {
+				// e.g. a lazy type, replace it
+				DBPFDirectory newDir = new DBPFDirectory();
+				newDir.setCompressed(false);
+				newDir.setTGIKey(tgiKeyDir);
+				newDir.setBytes(data);
+				typeList.set(typeList.indexOf(dir), newDir);
 			} else {
 				dir = new DBPFDirectory();
 				dir.setCompressed(false);
 				dir.setTGIKey(tgiKeyDir);
-				((DBPFDirectory) dir).setData(data);
+				((DBPFDirectory) dir).setBytes(data);
 				typeList.add(dir);
 			}
 		}
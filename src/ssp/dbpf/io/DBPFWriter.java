@@ -24,10 +24,23 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 import ssp.dbpf.DBPFCollection;
+import ssp.dbpf.DBPFContainer;
+import ssp.dbpf.converter.CompressionLevel;
 import ssp.dbpf.converter.DBPFConverter;
 import ssp.dbpf.converter.types.LTextConverter;
 import ssp.dbpf.converter.types.LUAConverter;
@@ -36,6 +49,7 @@ import ssp.dbpf.event.DBPFException;
 import ssp.dbpf.tgi.TGIKey;
 import ssp.dbpf.types.DBPFLText;
 import ssp.dbpf.types.DBPFLUA;
+import ssp.dbpf.types.DBPFLazyType;
 import ssp.dbpf.types.DBPFType;
 import ssp.dbpf.util.DBPFConstant;
 import ssp.dbpf.util.DBPFLogger;
@@ -52,6 +66,16 @@ public class DBPFWriter {
 
 	private static final String LOGNAME = DBPFWriter.class.getSimpleName();
 
+	/**
+	 * The maximum count of buffers for a gathering write
+	 */
+	private static final int GATHER_COUNT = 64;
+
+	/**
+	 * The maximum size of buffers for a gathering write
+	 */
+	private static final int GATHER_SIZE = 0x100000;
+
 	/**
 	 * Constructor.<br>
 	 * 
@@ -75,83 +99,659 @@ public class DBPFWriter {
 	 */
 	public static void write(File filename, List<DBPFType> writeList)
 			throws DBPFException {
+		write(filename, writeList, CompressionLevel.DEFAULT);
+	}
+
+	/**
+	 * Writes a list with DBPFType to a DBPF file.<br>
+	 * 
+	 * The compressed types are compressed with the given level. The unchanged
+	 * lazy types are written as they are.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param writeList
+	 *            The list of DBPFType to write to file
+	 * @param level
+	 *            The compression level
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void write(File filename, List<DBPFType> writeList,
+			CompressionLevel level) throws DBPFException {
+		write(filename, writeList, level, null, 1);
+	}
+
+	/**
+	 * Writes a list with DBPFType to a DBPF file with several threads.<br>
+	 * 
+	 * The types are created and compressed in parallel, the data is written in
+	 * the order of the list, see
+	 * {@link #write(File, List, CompressionLevel, ExecutorService, int)}.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param writeList
+	 *            The list of DBPFType to write to file
+	 * @param level
+	 *            The compression level
+	 * @param parallelism
+	 *            The count of threads
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void write(File filename, List<DBPFType> writeList,
+			CompressionLevel level, int parallelism) throws DBPFException {
+		if (parallelism < 1) {
+			throw new DBPFException(LOGNAME, "Parallelism must be positive: "
+					+ parallelism);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			write(filename, writeList, level, executor, parallelism);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Writes a list with DBPFType to a DBPF file with the given executor.<br>
+	 * 
+	 * The types are created and compressed by the executor ahead of writing,
+	 * the data is written in the order of the list. To bound the memory, at
+	 * most four times the parallelism of types are created, but not yet
+	 * written. The unchanged lazy types are written as they are.<br>
+	 * The data is written to a temporary file, which replaces the file when
+	 * complete, see {@link #replaceFile(File, File)}. The lazy types may be
+	 * read from the file itself, but a lazy collection of the file must be
+	 * read again afterwards: Its open container still reads the replaced
+	 * data, but after it is closed or opened again, the offsets of its
+	 * entries do not match the new file.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param writeList
+	 *            The list of DBPFType to write to file
+	 * @param level
+	 *            The compression level
+	 * @param executor
+	 *            The executor or NULL, to create the types by the calling
+	 *            thread
+	 * @param parallelism
+	 *            The count of threads of the executor
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void write(File filename, List<DBPFType> writeList,
+			final CompressionLevel level, ExecutorService executor,
+			int parallelism) throws DBPFException {
 
 		// Updates the directory of the writeList
 		DBPFUpdater.updateDirectory(writeList);
 
+		// The data is written to a temporary file first, which replaces the
+		// file when complete, so the file is never left half written
+		File target = new File(filename.getAbsoluteFile().getParentFile(),
+				filename.getName() + ".tmp");
+
+		Map<File, RandomAccessFile> sourceMap = new HashMap<File, RandomAccessFile>();
+		List<Future<byte[]>> futureList = new ArrayList<Future<byte[]>>(
+				writeList.size());
 		RandomAccessFile raf = null;
 		try {
-			raf = new RandomAccessFile(filename, "rw");
+			raf = new RandomAccessFile(target, "rw");
+			raf.setLength(0);
+			FileChannel fc = raf.getChannel();
 
-			// create necessary file data
-			String fileType = DBPFConstant.MAGICNUMBER_DBPF;
-			long majorVersion = 1;
-			long minorVersion = 0;
-			long dateCreated = System.currentTimeMillis() / 1000;
-			long dateModified = System.currentTimeMillis() / 1000;
-			long indexType = 7;
-			long indexEntryCount = writeList.size();
-			long indexOffsetLocation = DBPFConstant.HEADERSIZE_DBPF;
-			long indexSize = 5 * 4 * indexEntryCount;
-
-			// set minimum file size
-			long count = indexOffsetLocation + indexSize;
-			raf.setLength(count);
-
-			// Write header
-			writeChars(raf, fileType);
-			writeUINT32(raf, majorVersion, 4);
-			writeUINT32(raf, minorVersion, 4);
-			writeUINT32(raf, 0, 12);
-			writeUINT32(raf, dateCreated, 4);
-			writeUINT32(raf, dateModified, 4);
-			writeUINT32(raf, indexType, 4);
-			writeUINT32(raf, indexEntryCount, 4);
-			writeUINT32(raf, indexOffsetLocation, 4);
-			writeUINT32(raf, indexSize, 4);
-			writeUINT32(raf, 0, 48);
-
-			// Write rawData, remember offset position and store length
+			// Write rawData behind the header, remember offset position and
+			// store length. The rawData is collected and written with a
+			// gathering write, the unchanged lazy types are copied from their
+			// file without decompressing and compressing them again
 			long[] offsetList = new long[writeList.size()];
 			long[] sizeList = new long[writeList.size()];
+			List<ByteBuffer> bufferList = new ArrayList<ByteBuffer>();
+			long bufferSize = 0;
+			long position = DBPFConstant.HEADERSIZE_DBPF;
+			fc.position(position);
+			int ahead = executor == null ? 0 : 4 * Math.max(1, parallelism);
+			int submitted = 0;
 			for (int i = 0; i < writeList.size(); i++) {
-				short[] data = DBPFConverter.createData(writeList.get(i));
-				offsetList[i] = raf.getFilePointer();
-				sizeList[i] = data.length;
-				indexOffsetLocation += sizeList[i];
-				for (int j = 0; j < data.length; j++) {
-					writeUINT32(raf, data[j], 1);
+				// create the following types by the executor
+				while (submitted < writeList.size() && submitted <= i + ahead) {
+					final DBPFType next = writeList.get(submitted);
+					if (executor != null && !isPassthrough(next)) {
+						futureList.add(executor.submit(new Callable<byte[]>() {
+							@Override
+							public byte[] call() throws DBPFException {
+								return DBPFConverter.createBytes(next, level);
+							}
+						}));
+					} else {
+						futureList.add(null);
+					}
+					submitted++;
 				}
+
+				DBPFType type = writeList.get(i);
+				offsetList[i] = position;
+				if (isPassthrough(type)) {
+					writeBuffers(fc, bufferList);
+					bufferSize = 0;
+					DBPFEntry entry = ((DBPFLazyType) type).getEntry();
+					sizeList[i] = DBPFReader.transferBytes(
+							getSourceChannel(entry, sourceMap), entry, fc);
+				} else {
+					byte[] data;
+					Future<byte[]> future = futureList.set(i, null);
+					if (future != null) {
+						data = getBytes(future, filename);
+					} else {
+						data = DBPFConverter.createBytes(type, level);
+					}
+					sizeList[i] = data.length;
+					bufferList.add(ByteBuffer.wrap(data));
+					bufferSize += data.length;
+					if (bufferList.size() >= GATHER_COUNT
+							|| bufferSize >= GATHER_SIZE) {
+						writeBuffers(fc, bufferList);
+						bufferSize = 0;
+					}
+				}
+				position += sizeList[i];
+			}
+
+			// Write index and at last the header with the index location
+			bufferList.add(createIndex(writeList, offsetList, sizeList));
+			writeBuffers(fc, bufferList);
+			long date = System.currentTimeMillis() / 1000;
+			writeBuffer(fc,
+					createHeader(writeList.size(), position, date, date), 0);
+			fc.force(false);
+
+			raf.close();
+			raf = null;
+		} catch (FileNotFoundException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} catch (IOException e) {
+			throw new DBPFException(LOGNAME, e.getMessage());
+		} finally {
+			// cancel the types not written on error, but do not interrupt
+			// them, it closes the shared channel of an open container
+			for (Future<byte[]> future : futureList) {
+				if (future != null) {
+					future.cancel(false);
+				}
+			}
+			for (RandomAccessFile source : sourceMap.values()) {
+				try {
+					source.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+			}
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+				target.delete();
 			}
+		}
 
-			// Write index
+		replaceFile(target, filename);
+	}
+
+	/**
+	 * Replaces the file with the new file.<br>
+	 * 
+	 * The rename replaces the file at once on most platforms. Platforms,
+	 * which cannot rename to an existing file, rename the file to a backup
+	 * first, which is restored, if the new file cannot be renamed. So the
+	 * file is never lost. On error the new file is deleted.
+	 * 
+	 * @param source
+	 *            The new file
+	 * @param filename
+	 *            The file to replace
+	 * @throws DBPFException
+	 *             Thrown, if the file cannot be replaced
+	 */
+	static void replaceFile(File source, File filename) throws DBPFException {
+		if (source.renameTo(filename)) {
+			return;
+		}
+		File backup = null;
+		try {
+			backup = File.createTempFile(filename.getName(), ".bak", filename
+					.getAbsoluteFile().getParentFile());
+		} catch (IOException e) {
+			source.delete();
+			throw new DBPFException(LOGNAME, "Can not replace " + filename
+					+ ": " + e.getMessage());
+		}
+		if (!backup.delete() || !filename.renameTo(backup)) {
+			backup.delete();
+			source.delete();
+			throw new DBPFException(LOGNAME, "Can not replace " + filename
+					+ " with " + source);
+		}
+		if (!source.renameTo(filename)) {
+			source.delete();
+			if (!backup.renameTo(filename)) {
+				throw new DBPFException(LOGNAME, "Can not replace "
+						+ filename + ", the file is kept in " + backup);
+			}
+			throw new DBPFException(LOGNAME, "Can not replace " + filename
+					+ " with " + source);
+		}
+		if (!backup.delete()) {
+			DBPFLogger.toLog(LOGNAME, Level.WARNING, "Can not delete "
+					+ backup);
+		}
+	}
+
+	/**
+	 * Writes the entries of other DBPF files to a DBPF file.<br>
+	 * 
+	 * The data of the entries is copied as it is, without decompressing or
+	 * compressing it, see {@link DBPFStreamWriter#addEntry(DBPFEntry)}. The
+	 * directory is created for the compressed entries.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param entryList
+	 *            The entries to copy
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void writeEntries(File filename, List<DBPFEntry> entryList)
+			throws DBPFException {
+		DBPFStreamWriter writer = new DBPFStreamWriter(filename);
+		try {
+			for (DBPFEntry entry : entryList) {
+				writer.addEntry(entry);
+			}
+			writer.close();
+		} finally {
+			writer.abort();
+		}
+	}
+
+	/**
+	 * Writes a list with DBPFType incremental to an existing DBPF file.<br>
+	 * 
+	 * The unchanged lazy types of the file stay where they are, only the other
+	 * types and a new index are appended to the end of the file. At last the
+	 * header is updated to point to the new index, so the file is valid till
+	 * then with the old index. The space of replaced or removed entries and
+	 * of the old index is not used anymore, see
+	 * {@link #compact(File, double)}.<br>
+	 * If the file not exists or is not a DBPF file, the complete file is
+	 * written.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param writeList
+	 *            The list of DBPFType to write to file
+	 * @param level
+	 *            The compression level
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void writeIncremental(File filename,
+			List<DBPFType> writeList, CompressionLevel level)
+			throws DBPFException {
+		if (!filename.exists() || !DBPFReader.checkFileType(filename)) {
+			write(filename, writeList, level);
+			return;
+		}
+
+		// Updates the directory of the writeList
+		DBPFUpdater.updateDirectory(writeList);
+
+		Map<File, RandomAccessFile> sourceMap = new HashMap<File, RandomAccessFile>();
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(filename, "rw");
+			raf.seek(raf.length());
+
+			// Append the changed rawData, keep the position of the unchanged
+			long[] offsetList = new long[writeList.size()];
+			long[] sizeList = new long[writeList.size()];
 			for (int i = 0; i < writeList.size(); i++) {
-				TGIKey tgiKey = writeList.get(i).getTGIKey();
-				writeUINT32(raf, tgiKey.getTID(), 4);
-				writeUINT32(raf, tgiKey.getGID(), 4);
-				writeUINT32(raf, tgiKey.getIID(), 4);
-				writeUINT32(raf, offsetList[i], 4);
-				writeUINT32(raf, sizeList[i], 4);
+				DBPFType type = writeList.get(i);
+				if (isPassthrough(type, filename)) {
+					DBPFEntry entry = ((DBPFLazyType) type).getEntry();
+					offsetList[i] = entry.getOffset();
+					sizeList[i] = entry.getSize();
+				} else if (isPassthrough(type)) {
+					DBPFEntry entry = ((DBPFLazyType) type).getEntry();
+					FileChannel fc = getSourceChannel(entry, sourceMap);
+					offsetList[i] = raf.getFilePointer();
+					sizeList[i] = DBPFReader.transferBytes(fc, entry,
+							raf.getChannel());
+				} else {
+					byte[] data = DBPFConverter.createBytes(type, level);
+					offsetList[i] = raf.getFilePointer();
+					sizeList[i] = data.length;
+					raf.write(data);
+				}
 			}
 
-			// Update index location
-			raf.seek(40);
-			writeUINT32(raf, indexOffsetLocation, 4);
+			// Append index
+			long indexOffsetLocation = raf.getFilePointer();
+			FileChannel fc = raf.getChannel();
+			writeBuffer(fc, createIndex(writeList, offsetList, sizeList),
+					indexOffsetLocation);
+			fc.force(false);
+
+			// Update header to the new index
+			ByteBuffer header = createHeader(writeList.size(),
+					indexOffsetLocation, 0, System.currentTimeMillis() / 1000);
+			header.position(28).limit(48);
+			writeBuffer(fc, header, 28);
 
 			raf.close();
+			raf = null;
 		} catch (FileNotFoundException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
 		} catch (IOException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
 		} finally {
-			try {
-				raf.close();
-			} catch (IOException e) {
-				DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+			for (RandomAccessFile source : sourceMap.values()) {
+				try {
+					source.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+			}
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					DBPFLogger.toLog(LOGNAME, Level.WARNING, e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the ratio of the unused space of the DBPF file.<br>
+	 * 
+	 * The unused space is the part of the file, which is neither the header,
+	 * the index nor the data of an entry of the index, e.g. left by
+	 * {@link #writeIncremental(File, List, CompressionLevel)}.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @return The ratio between 0 and 1
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static double getUnusedRatio(File filename) throws DBPFException {
+		return getUnusedRatio(readContainer(filename));
+	}
+
+	/**
+	 * Reads the index of the DBPF file.<br>
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @return The container
+	 * @throws DBPFException
+	 *             Thrown, if the file is no DBPF file or any error occur
+	 */
+	private static DBPFContainer readContainer(File filename)
+			throws DBPFException {
+		DBPFContainer container = DBPFReader.read(filename);
+		if (container == null) {
+			throw new DBPFException(LOGNAME, "No DBPF file: " + filename);
+		}
+		return container;
+	}
+
+	/**
+	 * Returns the ratio of the unused space of the file of the container.<br>
+	 * 
+	 * @param container
+	 *            The read container
+	 * @return The ratio between 0 and 1
+	 */
+	private static double getUnusedRatio(DBPFContainer container) {
+		long length = container.getFilename().length();
+		if (length == 0) {
+			return 0;
+		}
+		long used = DBPFConstant.HEADERSIZE_DBPF + container.getIndexSize();
+		for (DBPFEntry entry : container.getEntryList()) {
+			used += entry.getSize();
+		}
+		return Math.max(0, length - used) / (double) length;
+	}
+
+	/**
+	 * Compacts the DBPF file, if the ratio of the unused space reached the
+	 * threshold.<br>
+	 * 
+	 * The file is written again with the entries of its index, the data of
+	 * the entries is copied as it is.
+	 * 
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @param threshold
+	 *            The minimum ratio of unused space, 0 to compact always
+	 * @return TRUE, if compacted; FALSE, otherwise
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static boolean compact(File filename, double threshold)
+			throws DBPFException {
+		DBPFContainer container = readContainer(filename);
+		if (getUnusedRatio(container) < threshold) {
+			return false;
+		}
+		List<DBPFType> writeList = new ArrayList<DBPFType>();
+		for (DBPFEntry entry : container.getEntryList()) {
+			writeList.add(new DBPFLazyType(entry));
+		}
+		write(filename, writeList);
+		return true;
+	}
+
+	/**
+	 * Waits for the data of a type created by the executor.<br>
+	 * 
+	 * @param future
+	 *            The future of the data
+	 * @param filename
+	 *            The filename of the DBPF file
+	 * @return The data
+	 * @throws DBPFException
+	 *             Thrown, if the creation failed or interrupted
+	 */
+	private static byte[] getBytes(Future<byte[]> future, File filename)
+			throws DBPFException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBPFException(LOGNAME, "Interrupted: " + filename);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof DBPFException) {
+				throw (DBPFException) cause;
 			}
+			throw new DBPFException(LOGNAME, String.valueOf(cause), cause);
 		}
 	}
 
+	/**
+	 * Creates the header of a DBPF file.<br>
+	 * 
+	 * @param indexEntryCount
+	 *            The count of entries in the index
+	 * @param indexOffsetLocation
+	 *            The position of the index
+	 * @param dateCreated
+	 *            The creation date in seconds
+	 * @param dateModified
+	 *            The modification date in seconds
+	 * @return The header, ready to write
+	 */
+	static ByteBuffer createHeader(long indexEntryCount,
+			long indexOffsetLocation, long dateCreated, long dateModified) {
+		ByteBuffer header = ByteBuffer.allocateDirect(
+				DBPFConstant.HEADERSIZE_DBPF).order(ByteOrder.LITTLE_ENDIAN);
+		String fileType = DBPFConstant.MAGICNUMBER_DBPF;
+		for (int i = 0; i < fileType.length(); i++) {
+			header.put(i, (byte) fileType.charAt(i));
+		}
+		header.putInt(4, 1); // majorVersion
+		header.putInt(8, 0); // minorVersion
+		header.putInt(24, (int) dateCreated);
+		header.putInt(28, (int) dateModified);
+		header.putInt(32, 7); // indexType
+		header.putInt(36, (int) indexEntryCount);
+		header.putInt(40, (int) indexOffsetLocation);
+		header.putInt(44, (int) (5 * 4 * indexEntryCount));
+		return header;
+	}
+
+	/**
+	 * Creates the index for the types.<br>
+	 * 
+	 * @param writeList
+	 *            The list of DBPFType
+	 * @param offsetList
+	 *            The offsets of the types
+	 * @param sizeList
+	 *            The sizes of the types
+	 * @return The index, ready to write
+	 */
+	private static ByteBuffer createIndex(List<DBPFType> writeList,
+			long[] offsetList, long[] sizeList) {
+		ByteBuffer index = ByteBuffer.allocateDirect(5 * 4 * writeList.size())
+				.order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < writeList.size(); i++) {
+			TGIKey tgiKey = writeList.get(i).getTGIKey();
+			index.putInt((int) tgiKey.getTID());
+			index.putInt((int) tgiKey.getGID());
+			index.putInt((int) tgiKey.getIID());
+			index.putInt((int) offsetList[i]);
+			index.putInt((int) sizeList[i]);
+		}
+		index.flip();
+		return index;
+	}
+
+	/**
+	 * Writes the buffers to the current position of the channel with
+	 * gathering writes and clears the list.<br>
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param bufferList
+	 *            The buffers to write
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	private static void writeBuffers(FileChannel fc, List<ByteBuffer> bufferList)
+			throws IOException {
+		ByteBuffer[] buffers = bufferList.toArray(new ByteBuffer[bufferList
+				.size()]);
+		int offset = 0;
+		while (offset < buffers.length) {
+			fc.write(buffers, offset, buffers.length - offset);
+			while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+				offset++;
+			}
+		}
+		bufferList.clear();
+	}
+
+	/**
+	 * Writes the buffer to the given position of the channel.<br>
+	 * 
+	 * @param fc
+	 *            The channel
+	 * @param buffer
+	 *            The buffer to write
+	 * @param position
+	 *            The position in the file
+	 * @throws IOException
+	 *             Thrown, if I/O error
+	 */
+	static void writeBuffer(FileChannel fc, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += fc.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Checks, if the type is an unchanged lazy type, which can be copied as
+	 * it is from its file.<br>
+	 * 
+	 * @param type
+	 *            The type
+	 * @return TRUE, if the raw bytes can be copied; FALSE, otherwise
+	 */
+	private static boolean isPassthrough(DBPFType type) {
+		return type instanceof DBPFLazyType
+				&& ((DBPFLazyType) type).isUnchanged()
+				&& ((DBPFLazyType) type).getEntry().getFilename() != null;
+	}
+
+	/**
+	 * Checks, if the type is an unchanged lazy type of the given file.<br>
+	 * 
+	 * @param type
+	 *            The type
+	 * @param filename
+	 *            The file
+	 * @return TRUE, if the raw bytes can be copied and are stored in the file;
+	 *         FALSE, otherwise
+	 */
+	private static boolean isPassthrough(DBPFType type, File filename) {
+		return isPassthrough(type)
+				&& ((DBPFLazyType) type).getEntry().getFilename()
+						.getAbsoluteFile().equals(filename.getAbsoluteFile());
+	}
+
+	/**
+	 * Returns the channel to read the data of the entry from.<br>
+	 * If the container of the entry is open, its channel is used. Otherwise
+	 * the file is opened once and stored in the given map, the caller has to
+	 * close the files of the map.
+	 * 
+	 * @param entry
+	 *            The entry
+	 * @param sourceMap
+	 *            The opened files
+	 * @return The channel
+	 * @throws FileNotFoundException
+	 *             Thrown, if the file of the entry not exists
+	 */
+	static FileChannel getSourceChannel(DBPFEntry entry,
+			Map<File, RandomAccessFile> sourceMap)
+			throws FileNotFoundException {
+		DBPFContainer container = entry.getContainer();
+		if (container != null) {
+			FileChannel fc = container.getChannel();
+			if (fc != null) {
+				return fc;
+			}
+		}
+		File file = entry.getFilename().getAbsoluteFile();
+		RandomAccessFile source = sourceMap.get(file);
+		if (source == null) {
+			source = new RandomAccessFile(file, "r");
+			sourceMap.put(file, source);
+		}
+		return source.getChannel();
+	}
+
 	/**
 	 * Write a string to stream till length reached.<br>
 	 * 
@@ -173,7 +773,8 @@ public class DBPFWriter {
 	 * Write a UINT32 value to the stream with the given size.<br>
 	 * 
 	 * e.g. The value 1230626450 is 0x4959DE92 and will - with size 4 - be
-	 * written as 92 DE 59 49 to stream.
+	 * written as 92 DE 59 49 to stream. Negative values are written in two's
+	 * complement.
 	 * 
 	 * @param raf
 	 *            The stream
@@ -186,12 +787,9 @@ public class DBPFWriter {
 	 */
 	public static void writeUINT32(RandomAccessFile raf, long value, int size)
 			throws IOException {
-		for (int i = 0; i < size; i++) {
-			long rest = value % 256;
-			raf.write((int) rest);
-			value = value / 256;
-		}
-
+		byte[] data = new byte[size];
+		DBPFUtil.setUint32(value, data, 0, size);
+		raf.write(data);
 	}
 
 	/**
@@ -209,6 +807,24 @@ public class DBPFWriter {
 	 */
 	public static void writeData(DBPFEntry entry, short[] data)
 			throws DBPFException {
+		writeData(entry, DBPFUtil.toBytes(data));
+	}
+
+	/**
+	 * Writes data to a file for the given entry.<br>
+	 * Opens (create) the file, seek to offset, write and close the file when
+	 * finished. Be sure the offset is set correctly of the entry to prevent
+	 * overriding!
+	 * 
+	 * @param entry
+	 *            The DBPFEntry
+	 * @param data
+	 *            The rawData to write
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void writeData(DBPFEntry entry, byte[] data)
+			throws DBPFException {
 		RandomAccessFile raf = null;
 		File filename = entry.getFilename();
 		try {
@@ -217,9 +833,7 @@ public class DBPFWriter {
 			}
 			raf = new RandomAccessFile(filename, "rw");
 			raf.seek(entry.getOffset());
-			for (int i = 0; i < data.length; i++) {
-				raf.write(data[i]);
-			}
+			raf.write(data);
 			raf.close();
 		} catch (FileNotFoundException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
@@ -242,15 +856,30 @@ public class DBPFWriter {
 	 */
 	public static void writeRawData(File filename, short[] rawData)
 			throws DBPFException {
+		writeRawData(filename, DBPFUtil.toBytes(rawData));
+	}
+
+	/**
+	 * Writes rawData to the file.<br>
+	 * Opens (create) the file, write and close the file when finished. Uses
+	 * BufferedOutputStream with FileOutputStream for writing.
+	 * 
+	 * @param filename
+	 *            The filename
+	 * @param rawData
+	 *            The rawData to write
+	 * @throws DBPFException
+	 *             Thrown, if any error occur
+	 */
+	public static void writeRawData(File filename, byte[] rawData)
+			throws DBPFException {
 		try {
 			if (!filename.exists()) {
 				filename.createNewFile();
 			}
 			FileOutputStream fos = new FileOutputStream(filename);
 			BufferedOutputStream bos = new BufferedOutputStream(fos);
-			for (int i = 0; i < rawData.length; i++) {
-				bos.write(rawData[i]);
-			}
+			bos.write(rawData);
 			bos.close();
 		} catch (FileNotFoundException e) {
 			throw new DBPFException(LOGNAME, e.getMessage());
@@ -309,17 +938,17 @@ public class DBPFWriter {
 		}
 		String dataText = sb.toString();
 
-		short[] rawData = new short[0];
+		byte[] rawData = new byte[0];
 		if (unicode) {
 			DBPFLText text = new DBPFLText();
 			text.setCompressed(false);
 			text.setString(dataText);
-			rawData = LTextConverter.createData(text);
+			rawData = LTextConverter.createBytes(text);
 		} else {
 			DBPFLUA text = new DBPFLUA();
 			text.setCompressed(false);
 			text.setString(dataText);
-			rawData = LUAConverter.createData(text);
+			rawData = LUAConverter.createBytes(text);
 		}
 		DBPFWriter.writeRawData(filename, rawData);
 
@@ -25,13 +25,19 @@ import ssp.dbpf.util.DBPFUtil;
 /**
  * Defines a long property.<br>
  * 
+ * The values are stored in an array with the size of the type: byte for
+ * UINT8 and BOOL, char for UINT16, int for UINT32 and SINT32 and long for
+ * SINT64. A value is cut to the size of the type, when set. A SINT32 is
+ * stored as int and sign extended, when read.
+ * 
  * @author Stefan Wertich, mapsonswen@web.de
  * @version 2.0.0, 13.08.2012
  * 
  */
 public class DBPFLongProperty extends AbstractDBPFProperty {
 
-	private long[] values;
+	// byte[], char[], int[] or long[] for the storage of the type
+	private Object values;
 
 	/**
 	 * Constructor.<br>
@@ -75,17 +81,17 @@ public class DBPFLongProperty extends AbstractDBPFProperty {
 
 	@Override
 	protected void initValuesFromRaw(short[] rawData, int offset) {
-		values = new long[count];
+		allocate(count);
 		for (int i = 0; i < count; i++) {
 			long val = DBPFUtil.getValue(type, rawData, offset, type.length);
-			values[i] = val;
+			setLong(val, i);
 			offset += type.length;
 		}
 	}
 
 	@Override
 	protected void initValuesFromText(String[] data) {
-		values = new long[count];
+		allocate(count);
 		for (int i = 0; i < data.length; i++) {
 			long value = 0x00;
 			if (data[i].length() > 0) {
@@ -152,12 +158,12 @@ public class DBPFLongProperty extends AbstractDBPFProperty {
 		StringBuilder sb = new StringBuilder();
 		sb.append(super.toString());
 		sb.append(",");
-		sb.append("RepSize: " + values.length);
-		if (values.length > 0) {
+		sb.append("RepSize: " + getCount());
+		if (getCount() > 0) {
 			sb.append(",");
 			sb.append("Values: ");
-			for (int i = 0; i < values.length; i++) {
-				sb.append(DBPFUtil.toHex(values[i], 8));
+			for (int i = 0; i < getCount(); i++) {
+				sb.append(DBPFUtil.toHex(getLong(i), 8));
 				sb.append(" ");
 			}
 		}
@@ -175,7 +181,19 @@ public class DBPFLongProperty extends AbstractDBPFProperty {
 	 */
 	public long getLong(int index) {
 		try {
-			return values[index];
+			switch (type) {
+			case UINT8:
+			case BOOL:
+				return ((byte[]) values)[index] & 0xFFL;
+			case UINT16:
+				return ((char[]) values)[index];
+			case UINT32:
+				return ((int[]) values)[index] & 0xFFFFFFFFL;
+			case SINT32:
+				return ((int[]) values)[index];
+			default:
+				return ((long[]) values)[index];
+			}
 		} catch (ArrayIndexOutOfBoundsException e) {
 			return 0;
 		}
@@ -183,6 +201,7 @@ public class DBPFLongProperty extends AbstractDBPFProperty {
 
 	/**
 	 * Sets the long value at the given index.<br>
+	 * The value is cut to the size of the type.
 	 * 
 	 * @param val
 	 *            The value
@@ -192,23 +211,98 @@ public class DBPFLongProperty extends AbstractDBPFProperty {
 	 */
 	public boolean setLong(long val, int index) {
 		try {
-			values[index] = val;
+			switch (type) {
+			case UINT8:
+			case BOOL:
+				((byte[]) values)[index] = (byte) val;
+				break;
+			case UINT16:
+				((char[]) values)[index] = (char) val;
+				break;
+			case UINT32:
+			case SINT32:
+				((int[]) values)[index] = (int) val;
+				break;
+			default:
+				((long[]) values)[index] = val;
+			}
 			return true;
 		} catch (ArrayIndexOutOfBoundsException e) {
 			return false;
 		}
 	}
 
+	/**
+	 * Sets the type and converts the values to the storage of the type.<br>
+	 * 
+	 * @param type
+	 *            The type
+	 */
+	@Override
+	public void setType(DBPFPropertyTypes type) {
+		if (type != this.type) {
+			int count = getCount();
+			long[] longValues = new long[count];
+			for (int i = 0; i < count; i++) {
+				longValues[i] = getLong(i);
+			}
+			super.setType(type);
+			allocate(count);
+			for (int i = 0; i < count; i++) {
+				setLong(longValues[i], i);
+			}
+		}
+	}
+
 	@Override
 	public void setCount(int count) {
-		if (count != values.length) {
-			values = Arrays.copyOf(values, count);
+		if (count != getCount()) {
+			if (values instanceof byte[]) {
+				values = Arrays.copyOf((byte[]) values, count);
+			} else if (values instanceof char[]) {
+				values = Arrays.copyOf((char[]) values, count);
+			} else if (values instanceof int[]) {
+				values = Arrays.copyOf((int[]) values, count);
+			} else {
+				values = Arrays.copyOf((long[]) values, count);
+			}
 		}
 		super.setCount(count);
 	}
 
 	@Override
 	public int getCount() {
-		return values.length;
+		if (values instanceof byte[]) {
+			return ((byte[]) values).length;
+		} else if (values instanceof char[]) {
+			return ((char[]) values).length;
+		} else if (values instanceof int[]) {
+			return ((int[]) values).length;
+		}
+		return ((long[]) values).length;
+	}
+
+	/**
+	 * Creates the array for the storage of the type.<br>
+	 * 
+	 * @param count
+	 *            The count of values
+	 */
+	private void allocate(int count) {
+		switch (type) {
+		case UINT8:
+		case BOOL:
+			values = new byte[count];
+			break;
+		case UINT16:
+			values = new char[count];
+			break;
+		case UINT32:
+		case SINT32:
+			values = new int[count];
+			break;
+		default:
+			values = new long[count];
+		}
 	}
 }
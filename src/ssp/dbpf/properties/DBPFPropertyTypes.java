@@ -17,13 +17,9 @@
  */
 package ssp.dbpf.properties;
 
-import java.lang.reflect.Constructor;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-
-import ssp.dbpf.util.DBPFLogger;
 
 /**
  * Represents the type of data stored in a {@link DBPFProperty}.<br>
@@ -50,11 +46,35 @@ public enum DBPFPropertyTypes {
 			(short) 0x0300, "Uint32", 4, DBPFLongProperty.class), SINT32(
 			(short) 0x0700, "Sint32", 4, DBPFLongProperty.class), SINT64(
 			(short) 0x0800, "Sint64", 8, DBPFLongProperty.class), FLOAT32(
-			(short) 0x0900, "Float32", 4, DBPFFloatProperty.class), BOOL(
-			(short) 0x0B00, "Bool", 1, DBPFLongProperty.class), STRING(
-			(short) 0x0C00, "String", 1, DBPFStringProperty.class);
-	
-	private final String LOGNAME = DBPFPropertyTypes.class.getSimpleName();
+			(short) 0x0900, "Float32", 4, DBPFFloatProperty.class) {
+		@Override
+		public DBPFProperty createProperty(long id, int count,
+				boolean hasCount, short[] rawData, int offset) {
+			return new DBPFFloatProperty(id, count, this, hasCount, rawData,
+					offset);
+		}
+
+		@Override
+		public DBPFProperty createProperty(long id, int count,
+				boolean hasCount, String[] data) {
+			return new DBPFFloatProperty(id, count, this, hasCount, data);
+		}
+	},
+	BOOL((short) 0x0B00, "Bool", 1, DBPFLongProperty.class), STRING(
+			(short) 0x0C00, "String", 1, DBPFStringProperty.class) {
+		@Override
+		public DBPFProperty createProperty(long id, int count,
+				boolean hasCount, short[] rawData, int offset) {
+			return new DBPFStringProperty(id, count, this, hasCount, rawData,
+					offset);
+		}
+
+		@Override
+		public DBPFProperty createProperty(long id, int count,
+				boolean hasCount, String[] data) {
+			return new DBPFStringProperty(id, count, this, hasCount, data);
+		}
+	};
 
 	/** A map of data type IDs ({@link #id}) to PropertyType constants. */
 	public static final Map<Short, DBPFPropertyTypes> forID;
@@ -69,6 +89,37 @@ public enum DBPFPropertyTypes {
 		forID = Collections.unmodifiableMap(modifiable);
 	}
 
+	/**
+	 * Returns the property type of the given data type ID.<br>
+	 * Unlike {@link #forID}, the ID is not boxed.
+	 * 
+	 * @param id
+	 *            The ID of the data type
+	 * @return The property type or NULL, if unknown
+	 */
+	public static DBPFPropertyTypes forID(short id) {
+		switch (id) {
+		case 0x0100:
+			return UINT8;
+		case 0x0200:
+			return UINT16;
+		case 0x0300:
+			return UINT32;
+		case 0x0700:
+			return SINT32;
+		case 0x0800:
+			return SINT64;
+		case 0x0900:
+			return FLOAT32;
+		case 0x0B00:
+			return BOOL;
+		case 0x0C00:
+			return STRING;
+		default:
+			return null;
+		}
+	}
+
 	/**
 	 * The ID of this data type. This is the value used in a DBPF file to
 	 * identify properties of this data type.
@@ -86,20 +137,6 @@ public enum DBPFPropertyTypes {
 	/** The DBPFProperty that stores this data type */
 	public final Class<? extends DBPFProperty> propertyClass;
 
-	/**
-	 * Instantiates a DBPFProperty that stores this data type by decoding raw
-	 * data. It should point to an implementation of
-	 * {@link AbstractDBPFProperty#AbstractDBPFProperty(long, int, DBPFPropertyTypes, boolean, short[], int)}
-	 */
-	public final Constructor<? extends DBPFProperty> propertyRawConstructor;
-
-	/**
-	 * Instantiates a DBPFProperty that stores this data type by decoding text
-	 * data. It should point to an implementation of
-	 * {@link AbstractDBPFProperty#AbstractDBPFProperty(long, int, DBPFPropertyTypes, boolean, String[])}
-	 */
-	public final Constructor<? extends DBPFProperty> propertyTextConstructor;
-
 	/**
 	 * Constructor.<br>
 	 * 
@@ -116,30 +153,48 @@ public enum DBPFPropertyTypes {
 		this.name = name;
 		this.length = length;
 		this.propertyClass = propertyClass;
+	}
 
-		Constructor<? extends DBPFProperty> tempPRC = null;
-		try {
-			tempPRC = propertyClass.getConstructor(long.class, int.class,
-					DBPFPropertyTypes.class, boolean.class,
-					new short[0].getClass(), int.class);
-		} catch (NoSuchMethodException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (SecurityException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		}
-		propertyRawConstructor = tempPRC;
-
-		Constructor<? extends DBPFProperty> tempPTC = null;
-		try {
-			tempPTC = propertyClass.getConstructor(long.class, int.class,
-					DBPFPropertyTypes.class, boolean.class,
-					new String[0].getClass());
-		} catch (NoSuchMethodException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		} catch (SecurityException e) {
-			DBPFLogger.toLog(LOGNAME, Level.SEVERE, e.getMessage());
-		}
-		propertyTextConstructor = tempPTC;
+	/**
+	 * Instantiates a DBPFProperty that stores this data type by decoding raw
+	 * data.<br>
+	 * The FLOAT32 and STRING types override this for their property classes.
+	 * 
+	 * @param id
+	 *            The ID of the property
+	 * @param count
+	 *            The count of values
+	 * @param hasCount
+	 *            TRUE, if the property has a count; FALSE, otherwise
+	 * @param rawData
+	 *            The rawData
+	 * @param offset
+	 *            The offset of the values in the rawData
+	 * @return The property
+	 */
+	public DBPFProperty createProperty(long id, int count, boolean hasCount,
+			short[] rawData, int offset) {
+		return new DBPFLongProperty(id, count, this, hasCount, rawData, offset);
+	}
+
+	/**
+	 * Instantiates a DBPFProperty that stores this data type by decoding text
+	 * data.<br>
+	 * The FLOAT32 and STRING types override this for their property classes.
+	 * 
+	 * @param id
+	 *            The ID of the property
+	 * @param count
+	 *            The count of values
+	 * @param hasCount
+	 *            TRUE, if the property has a count; FALSE, otherwise
+	 * @param data
+	 *            The values as text
+	 * @return The property
+	 */
+	public DBPFProperty createProperty(long id, int count, boolean hasCount,
+			String[] data) {
+		return new DBPFLongProperty(id, count, this, hasCount, data);
 	}
 
 	@Override
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.tgi;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * List wrapper, which invalidates a {@link TGIIndex} on modification.<br>
+ * 
+ * Every add, set and remove on the list, its iterators and sublists calls
+ * {@link #invalidate()} after the backing list was modified. Modifications
+ * of the backing list itself are not detected.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ * @param <E>
+ *            The type of the elements
+ */
+public abstract class IndexedList<E> extends AbstractList<E> implements
+		RandomAccess {
+
+	private final List<E> list;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param list
+	 *            The backing list
+	 */
+	public IndexedList(List<E> list) {
+		this.list = list;
+	}
+
+	/**
+	 * Invalidates the index of the list.<br>
+	 */
+	protected abstract void invalidate();
+
+	@Override
+	public E get(int index) {
+		return list.get(index);
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E old = list.set(index, element);
+		invalidate();
+		return old;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		list.add(index, element);
+		modCount++;
+		invalidate();
+	}
+
+	@Override
+	public E remove(int index) {
+		E old = list.remove(index);
+		modCount++;
+		invalidate();
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		list.clear();
+		modCount++;
+		invalidate();
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+}
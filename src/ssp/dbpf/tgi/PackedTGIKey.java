@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.tgi;
+
+import ssp.dbpf.util.DBPFUtil;
+
+/**
+ * Immutable TGI with exact equality.<br>
+ * 
+ * The TID and GID are packed in one long and the IID in an int. The hash code
+ * mixes all bits of the three ids, see {@link #hash(long, int)}. Unlike
+ * {@link TGIKey} there are no wildcards, so this key can be used in hash based
+ * collections. Each id must be an unsigned 32 bit value.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public final class PackedTGIKey {
+
+	private static final long MASK = 0xFFFFFFFFL;
+
+	private final long tg;
+	private final int iid;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value
+	 */
+	public PackedTGIKey(long tid, long gid, long iid) {
+		if (!isValid(tid, gid, iid)) {
+			throw new IllegalArgumentException("No valid TGI: " + tid + ","
+					+ gid + "," + iid);
+		}
+		this.tg = pack(tid, gid);
+		this.iid = (int) iid;
+	}
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI without wildcards
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value
+	 */
+	public PackedTGIKey(TGIKey tgiKey) {
+		this(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID());
+	}
+
+	/**
+	 * Check, if all ids are unsigned 32 bit values.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @return TRUE, if valid; FALSE, if any id is NEGATIVE or too big
+	 */
+	public static boolean isValid(long tid, long gid, long iid) {
+		return ((tid | gid | iid) & ~MASK) == 0;
+	}
+
+	/**
+	 * Packs TID and GID in one long.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @return The TID in the high and the GID in the low 32 bits
+	 */
+	public static long pack(long tid, long gid) {
+		return (tid << 32) | (gid & MASK);
+	}
+
+	/**
+	 * Returns a well mixed hash for the packed TGI.<br>
+	 * Uses the finalizer of the 64 bit MurmurHash3, so each bit of the ids
+	 * changes about half of the bits of the hash.
+	 * 
+	 * @param tg
+	 *            The packed TID and GID
+	 * @param iid
+	 *            The IID
+	 * @return The hash
+	 */
+	public static int hash(long tg, int iid) {
+		long h = tg ^ ((iid & MASK) * 0x9E3779B97F4A7C15L);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash(tg, iid);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof PackedTGIKey) {
+			PackedTGIKey key = (PackedTGIKey) obj;
+			return tg == key.tg && iid == key.iid;
+		}
+		return false;
+	}
+
+	/**
+	 * Check, if this TGI matches the given TGI.<br>
+	 * Same as {@link TGIKey#equals(Object)}: A NEGATIVE id of the given TGI
+	 * matches every id.
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return TRUE, if matches; FALSE, otherwise
+	 */
+	public boolean matches(TGIKey tgiKey) {
+		return (tgiKey.getTID() < 0 || tgiKey.getTID() == getTID())
+				&& (tgiKey.getGID() < 0 || tgiKey.getGID() == getGID())
+				&& (tgiKey.getIID() < 0 || tgiKey.getIID() == getIID());
+	}
+
+	/**
+	 * Returns a string with TID, GID and IID separated with whitespace.<br>
+	 * e.g. 65428005 34006788 00001000
+	 * 
+	 * @return A string with TGI
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(DBPFUtil.toHex(getTID(), 8));
+		sb.append(" ");
+		sb.append(DBPFUtil.toHex(getGID(), 8));
+		sb.append(" ");
+		sb.append(DBPFUtil.toHex(getIID(), 8));
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a new mutable TGIKey with the same ids.<br>
+	 * 
+	 * @return The TGIKey
+	 */
+	public TGIKey toTGIKey() {
+		return new TGIKey(getTID(), getGID(), getIID());
+	}
+
+	/**
+	 * @return the packed TID and GID
+	 */
+	public long getTG() {
+		return tg;
+	}
+
+	/**
+	 * @return the tid
+	 */
+	public long getTID() {
+		return tg >>> 32;
+	}
+
+	/**
+	 * @return the gid
+	 */
+	public long getGID() {
+		return tg & MASK;
+	}
+
+	/**
+	 * @return the iid
+	 */
+	public long getIID() {
+		return iid & MASK;
+	}
+}
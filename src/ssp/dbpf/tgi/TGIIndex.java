@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.tgi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of values by their TGI.<br>
+ * 
+ * The index has a {@link TGIMap} for the exact TGI and secondary maps for the
+ * TID and for TID and GID. A search with a TGIKey uses the same wildcard
+ * semantic as {@link TGIKey#equals(Object)}: A NEGATIVE id matches every
+ * id.<br>
+ * <ul>
+ * <li>TID, GID and IID given: lookup of the exact TGI</li>
+ * <li>TID and GID given: lookup of TID and GID</li>
+ * <li>TID given: lookup of TID, filtered by IID if given</li>
+ * <li>TID not given: scan of all values</li>
+ * </ul>
+ * The values are returned in the order they were added. The ids are taken
+ * when a value is added, so a value has to be removed and added again, if its
+ * TGI changes. Values with ids, which are no unsigned 32 bit values, are only
+ * found by a scan of all values.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ * @param <T>
+ *            The type of the values
+ */
+public class TGIIndex<T> {
+
+	private static final long MAX_ID = 0xFFFFFFFFL;
+
+	private List<Node<T>> nodeList;
+	private TGIMap<List<Node<T>>> tgiMap;
+	private TGIMap<List<Node<T>>> tgMap;
+	private TGIMap<List<Node<T>>> tMap;
+	private int invalidCount;
+
+	/**
+	 * Constructor.<br>
+	 */
+	public TGIIndex() {
+		nodeList = new ArrayList<Node<T>>();
+		tgiMap = new TGIMap<List<Node<T>>>();
+		tgMap = new TGIMap<List<Node<T>>>();
+		tMap = new TGIMap<List<Node<T>>>();
+	}
+
+	@Override
+	public String toString() {
+		return "Values: " + nodeList.size() + ", TGIs: " + tgiMap.size()
+				+ ", TGs: " + tgMap.size() + ", Ts: " + tMap.size();
+	}
+
+	/**
+	 * Adds a value with the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param value
+	 *            The value
+	 */
+	public void add(TGIKey tgiKey, T value) {
+		Node<T> node = new Node<T>(tgiKey, value);
+		nodeList.add(node);
+		if (!PackedTGIKey.isValid(node.tid, node.gid, node.iid)) {
+			invalidCount++;
+			return;
+		}
+		addNode(tgiMap, node.tid, node.gid, node.iid, node);
+		addNode(tgMap, node.tid, node.gid, 0, node);
+		addNode(tMap, node.tid, 0, 0, node);
+	}
+
+	/**
+	 * Removes the value with the given TGI.<br>
+	 * The value is compared by identity.
+	 * 
+	 * @param tgiKey
+	 *            The TGI the value was added with
+	 * @param value
+	 *            The value
+	 * @return TRUE, if removed; FALSE, if not found
+	 */
+	public boolean remove(TGIKey tgiKey, T value) {
+		long tid = tgiKey.getTID();
+		long gid = tgiKey.getGID();
+		long iid = tgiKey.getIID();
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			for (Node<T> node : nodeList) {
+				if (node.value == value && node.tid == tid && node.gid == gid
+						&& node.iid == iid) {
+					nodeList.remove(node);
+					invalidCount--;
+					return true;
+				}
+			}
+			return false;
+		}
+		List<Node<T>> list = tgiMap.get(tid, gid, iid);
+		if (list == null) {
+			return false;
+		}
+		for (Node<T> node : list) {
+			if (node.value == value) {
+				removeNode(tgiMap, tid, gid, iid, node);
+				removeNode(tgMap, tid, gid, 0, node);
+				removeNode(tMap, tid, 0, 0, node);
+				nodeList.remove(node);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns all values, which match the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The values in order of adding, might be empty
+	 */
+	public List<T> get(TGIKey tgiKey) {
+		List<T> result = new ArrayList<T>();
+		for (Node<T> node : candidates(tgiKey)) {
+			if (node.matches(tgiKey)) {
+				result.add(node.value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first value, which matches the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The value or NULL, if not found
+	 */
+	public T getFirst(TGIKey tgiKey) {
+		for (Node<T> node : candidates(tgiKey)) {
+			if (node.matches(tgiKey)) {
+				return node.value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the count of values, which match the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The count
+	 */
+	public int count(TGIKey tgiKey) {
+		List<Node<T>> candidateList = candidates(tgiKey);
+		// all candidates match, if the used map covers all given ids
+		if (candidateList != nodeList
+				&& (tgiKey.getGID() >= 0 || tgiKey.getIID() < 0)) {
+			return candidateList.size();
+		}
+		int count = 0;
+		for (Node<T> node : candidateList) {
+			if (node.matches(tgiKey)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the count of values.<br>
+	 * 
+	 * @return The count
+	 */
+	public int size() {
+		return nodeList.size();
+	}
+
+	/**
+	 * Removes all values.<br>
+	 */
+	public void clear() {
+		nodeList.clear();
+		tgiMap.clear();
+		tgMap.clear();
+		tMap.clear();
+		invalidCount = 0;
+	}
+
+	/**
+	 * Returns the nodes, which have to be checked for the given TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI, NEGATIVE ids are wildcards
+	 * @return The nodes
+	 */
+	private List<Node<T>> candidates(TGIKey tgiKey) {
+		long tid = tgiKey.getTID();
+		long gid = tgiKey.getGID();
+		long iid = tgiKey.getIID();
+		List<Node<T>> list;
+		if (tid < 0 || invalidCount > 0 || tid > MAX_ID || gid > MAX_ID
+				|| iid > MAX_ID) {
+			return nodeList;
+		} else if (gid < 0) {
+			list = tMap.get(tid, 0, 0);
+		} else if (iid < 0) {
+			list = tgMap.get(tid, gid, 0);
+		} else {
+			list = tgiMap.get(tid, gid, iid);
+		}
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return list;
+	}
+
+	/**
+	 * Adds the node to the list of the key.<br>
+	 * 
+	 * @param map
+	 *            The map
+	 * @param tid
+	 *            The TID of the key
+	 * @param gid
+	 *            The GID of the key
+	 * @param iid
+	 *            The IID of the key
+	 * @param node
+	 *            The node
+	 */
+	private static <T> void addNode(TGIMap<List<Node<T>>> map, long tid,
+			long gid, long iid, Node<T> node) {
+		List<Node<T>> list = map.get(tid, gid, iid);
+		if (list == null) {
+			list = new ArrayList<Node<T>>(1);
+			map.put(tid, gid, iid, list);
+		}
+		list.add(node);
+	}
+
+	/**
+	 * Removes the node from the list of the key.<br>
+	 * 
+	 * @param map
+	 *            The map
+	 * @param tid
+	 *            The TID of the key
+	 * @param gid
+	 *            The GID of the key
+	 * @param iid
+	 *            The IID of the key
+	 * @param node
+	 *            The node
+	 */
+	private static <T> void removeNode(TGIMap<List<Node<T>>> map, long tid,
+			long gid, long iid, Node<T> node) {
+		List<Node<T>> list = map.get(tid, gid, iid);
+		if (list != null) {
+			list.remove(node);
+			if (list.isEmpty()) {
+				map.remove(tid, gid, iid);
+			}
+		}
+	}
+
+	/**
+	 * A value with the ids of its TGI.<br>
+	 */
+	private static class Node<T> {
+
+		private final long tid;
+		private final long gid;
+		private final long iid;
+		private final T value;
+
+		/**
+		 * Constructor.<br>
+		 * 
+		 * @param tgiKey
+		 *            The TGI
+		 * @param value
+		 *            The value
+		 */
+		private Node(TGIKey tgiKey, T value) {
+			this.tid = tgiKey.getTID();
+			this.gid = tgiKey.getGID();
+			this.iid = tgiKey.getIID();
+			this.value = value;
+		}
+
+		/**
+		 * Check, if the ids match the given TGI.<br>
+		 * 
+		 * @param tgiKey
+		 *            The TGI, NEGATIVE ids are wildcards
+		 * @return TRUE, if matches; FALSE, otherwise
+		 */
+		private boolean matches(TGIKey tgiKey) {
+			return (tgiKey.getTID() < 0 || tgiKey.getTID() == tid)
+					&& (tgiKey.getGID() < 0 || tgiKey.getGID() == gid)
+					&& (tgiKey.getIID() < 0 || tgiKey.getIID() == iid);
+		}
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.tgi;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from exact TGI to a NOT NEGATIVE int with open addressing.<br>
+ * 
+ * Works like {@link TGIMap}, but the values are stored in a primitive array
+ * too, so the map holds no objects at all. A free slot is marked by
+ * {@link #NOT_FOUND}, which is also returned, if a TGI is not in the map.<br>
+ * The map is not thread safe.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class TGIIntMap {
+
+	/**
+	 * The value for a TGI, which is not in the map
+	 */
+	public static final int NOT_FOUND = -1;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] tgs;
+	private int[] iids;
+	private int[] values;
+	private int size;
+	private int threshold;
+
+	/**
+	 * Constructor.<br>
+	 */
+	public TGIIntMap() {
+		this(MIN_CAPACITY / 2);
+	}
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param expectedSize
+	 *            The expected count of keys
+	 */
+	public TGIIntMap(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 3L / 2 + 1) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	@Override
+	public String toString() {
+		return "Size: " + size + ", Capacity: " + values.length;
+	}
+
+	/**
+	 * Returns the value for the TGI.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @return The value or {@link #NOT_FOUND}
+	 */
+	public int get(long tid, long gid, long iid) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			return NOT_FOUND;
+		}
+		int slot = find(PackedTGIKey.pack(tid, gid), (int) iid);
+		return slot < 0 ? NOT_FOUND : values[slot];
+	}
+
+	/**
+	 * Returns the value for the TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return The value or {@link #NOT_FOUND}
+	 */
+	public int get(TGIKey tgiKey) {
+		return get(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID());
+	}
+
+	/**
+	 * Check, if the TGI is in the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return TRUE, if found; FALSE, otherwise
+	 */
+	public boolean containsKey(TGIKey tgiKey) {
+		return get(tgiKey) != NOT_FOUND;
+	}
+
+	/**
+	 * Puts the value for the TGI to the map.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @param value
+	 *            The value, NOT NEGATIVE
+	 * @return The previous value or {@link #NOT_FOUND}
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value or value is
+	 *             NEGATIVE
+	 */
+	public int put(long tid, long gid, long iid, int value) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			throw new IllegalArgumentException("No valid TGI: " + tid + ","
+					+ gid + "," + iid);
+		}
+		return put(PackedTGIKey.pack(tid, gid), (int) iid, value);
+	}
+
+	/**
+	 * Puts the value for the TGI to the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param value
+	 *            The value, NOT NEGATIVE
+	 * @return The previous value or {@link #NOT_FOUND}
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value or value is
+	 *             NEGATIVE
+	 */
+	public int put(TGIKey tgiKey, int value) {
+		return put(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID(), value);
+	}
+
+	/**
+	 * Returns the count of keys.<br>
+	 * 
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check, if the map is empty.<br>
+	 * 
+	 * @return TRUE, if empty; FALSE, otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all keys.<br>
+	 */
+	public void clear() {
+		allocate(MIN_CAPACITY);
+	}
+
+	/**
+	 * Puts the value for the packed TGI to the map.<br>
+	 * 
+	 * @param tg
+	 *            The packed TID and GID
+	 * @param iid
+	 *            The IID
+	 * @param value
+	 *            The value
+	 * @return The previous value or {@link #NOT_FOUND}
+	 */
+	private int put(long tg, int iid, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException(
+					"NEGATIVE values are not allowed: " + value);
+		}
+		int mask = values.length - 1;
+		int slot = PackedTGIKey.hash(tg, iid) & mask;
+		while (values[slot] != NOT_FOUND) {
+			if (tgs[slot] == tg && iids[slot] == iid) {
+				int old = values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		tgs[slot] = tg;
+		iids[slot] = iid;
+		values[slot] = value;
+		if (++size > threshold) {
+			resize(values.length << 1);
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Returns the slot of the packed TGI.<br>
+	 * 
+	 * @param tg
+	 *            The packed TID and GID
+	 * @param iid
+	 *            The IID
+	 * @return The slot or -1, if not found
+	 */
+	private int find(long tg, int iid) {
+		int mask = values.length - 1;
+		int slot = PackedTGIKey.hash(tg, iid) & mask;
+		while (values[slot] != NOT_FOUND) {
+			if (tgs[slot] == tg && iids[slot] == iid) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Allocates empty arrays.<br>
+	 * 
+	 * @param capacity
+	 *            The capacity, a power of two
+	 */
+	private void allocate(int capacity) {
+		tgs = new long[capacity];
+		iids = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, NOT_FOUND);
+		size = 0;
+		threshold = capacity / 3 * 2;
+	}
+
+	/**
+	 * Copies all keys to new arrays with the given capacity.<br>
+	 * 
+	 * @param capacity
+	 *            The capacity, a power of two
+	 */
+	private void resize(int capacity) {
+		long[] oldTgs = tgs;
+		int[] oldIids = iids;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != NOT_FOUND) {
+				put(oldTgs[i], oldIids[i], oldValues[i]);
+			}
+		}
+	}
+}
@@ -162,12 +162,14 @@ public class TGIKey {
 		return false;
 	}
 
+	/**
+	 * Returns the same hash as {@link PackedTGIKey} for the same ids.<br>
+	 * Note: The wildcard semantic of {@link #equals(Object)} is not covered by
+	 * the hash, so only exact TGIs should be used as keys of hash maps.
+	 */
 	@Override
 	public int hashCode() {
-		long combined = this.tid ^ this.gid ^ this.iid;
-		if (combined > Integer.MAX_VALUE)
-			combined += 2 * Integer.MIN_VALUE;
-		return new Long(combined).intValue();
+		return PackedTGIKey.hash((tid << 32) ^ gid, (int) iid);
 	}
 
 	/**
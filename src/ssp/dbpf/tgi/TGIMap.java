@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.tgi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash map from exact TGI to value with open addressing.<br>
+ * 
+ * The keys are stored in primitive arrays, the TID and GID packed in a long
+ * and the IID in an int, see {@link PackedTGIKey}. Collisions are resolved by
+ * linear probing, removed keys by shifting the following keys back, so no
+ * objects are created for put, get or remove.<br>
+ * The ids are compared exactly, a TGI with NEGATIVE ids is never found. NULL
+ * values are not allowed. The map is not thread safe.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ * @param <V>
+ *            The type of the values
+ */
+public class TGIMap<V> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] tgs;
+	private int[] iids;
+	private Object[] values;
+	private int size;
+	private int threshold;
+
+	/**
+	 * Constructor.<br>
+	 */
+	public TGIMap() {
+		this(MIN_CAPACITY / 2);
+	}
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param expectedSize
+	 *            The expected count of keys
+	 */
+	public TGIMap(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 3L / 2 + 1) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	@Override
+	public String toString() {
+		return "Size: " + size + ", Capacity: " + values.length;
+	}
+
+	/**
+	 * Returns the value for the TGI.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @return The value or NULL, if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long tid, long gid, long iid) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			return null;
+		}
+		int slot = find(PackedTGIKey.pack(tid, gid), (int) iid);
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	/**
+	 * Returns the value for the TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return The value or NULL, if not found
+	 */
+	public V get(TGIKey tgiKey) {
+		return get(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID());
+	}
+
+	/**
+	 * Returns the value for the TGI.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return The value or NULL, if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(PackedTGIKey tgiKey) {
+		int slot = find(tgiKey.getTG(), (int) tgiKey.getIID());
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	/**
+	 * Check, if the TGI is in the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return TRUE, if found; FALSE, otherwise
+	 */
+	public boolean containsKey(TGIKey tgiKey) {
+		return get(tgiKey) != null;
+	}
+
+	/**
+	 * Puts the value for the TGI to the map.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @param value
+	 *            The value, not NULL
+	 * @return The previous value or NULL
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value or value is
+	 *             NULL
+	 */
+	public V put(long tid, long gid, long iid, V value) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			throw new IllegalArgumentException("No valid TGI: " + tid + ","
+					+ gid + "," + iid);
+		}
+		return put(PackedTGIKey.pack(tid, gid), (int) iid, value);
+	}
+
+	/**
+	 * Puts the value for the TGI to the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param value
+	 *            The value, not NULL
+	 * @return The previous value or NULL
+	 * @throws IllegalArgumentException
+	 *             Thrown, if an id is no unsigned 32 bit value or value is
+	 *             NULL
+	 */
+	public V put(TGIKey tgiKey, V value) {
+		return put(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID(), value);
+	}
+
+	/**
+	 * Puts the value for the TGI to the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param value
+	 *            The value, not NULL
+	 * @return The previous value or NULL
+	 * @throws IllegalArgumentException
+	 *             Thrown, if value is NULL
+	 */
+	public V put(PackedTGIKey tgiKey, V value) {
+		return put(tgiKey.getTG(), (int) tgiKey.getIID(), value);
+	}
+
+	/**
+	 * Removes the TGI from the map.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @return The removed value or NULL, if not found
+	 */
+	public V remove(TGIKey tgiKey) {
+		return remove(tgiKey.getTID(), tgiKey.getGID(), tgiKey.getIID());
+	}
+
+	/**
+	 * Removes the TGI from the map.<br>
+	 * 
+	 * @param tid
+	 *            The TID
+	 * @param gid
+	 *            The GID
+	 * @param iid
+	 *            The IID
+	 * @return The removed value or NULL, if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long tid, long gid, long iid) {
+		if (!PackedTGIKey.isValid(tid, gid, iid)) {
+			return null;
+		}
+		int slot = find(PackedTGIKey.pack(tid, gid), (int) iid);
+		if (slot < 0) {
+			return null;
+		}
+		V old = (V) values[slot];
+		removeSlot(slot);
+		return old;
+	}
+
+	/**
+	 * Returns the count of keys.<br>
+	 * 
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check, if the map is empty.<br>
+	 * 
+	 * @return TRUE, if empty; FALSE, otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all keys.<br>
+	 */
+	public void clear() {
+		allocate(MIN_CAPACITY);
+	}
+
+	/**
+	 * Returns all keys.<br>
+	 * The order is not defined.
+	 * 
+	 * @return The keys
+	 */
+	public List<PackedTGIKey> keys() {
+		List<PackedTGIKey> keyList = new ArrayList<PackedTGIKey>(size);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				keyList.add(new PackedTGIKey(tgs[i] >>> 32, tgs[i]
+						& 0xFFFFFFFFL, iids[i] & 0xFFFFFFFFL));
+			}
+		}
+		return keyList;
+	}
+
+	/**
+	 * Returns all values.<br>
+	 * The order is the same as for {@link #keys()}.
+	 * 
+	 * @return The values
+	 */
+	@SuppressWarnings("unchecked")
+	public List<V> values() {
+		List<V> valueList = new ArrayList<V>(size);
+		for (Object value : values) {
+			if (value != null) {
+				valueList.add((V) value);
+			}
+		}
+		return valueList;
+	}
+
+	/**
+	 * Puts the value for the packed TGI to the map.<br>
+	 * 
+	 * @param tg
+	 *            The packed TID and GID
+	 * @param iid
+	 *            The IID
+	 * @param value
+	 *            The value
+	 * @return The previous value or NULL
+	 */
+	@SuppressWarnings("unchecked")
+	private V put(long tg, int iid, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("NULL values are not allowed");
+		}
+		int mask = values.length - 1;
+		int slot = PackedTGIKey.hash(tg, iid) & mask;
+		while (values[slot] != null) {
+			if (tgs[slot] == tg && iids[slot] == iid) {
+				V old = (V) values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		tgs[slot] = tg;
+		iids[slot] = iid;
+		values[slot] = value;
+		if (++size > threshold) {
+			resize(values.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the slot of the packed TGI.<br>
+	 * 
+	 * @param tg
+	 *            The packed TID and GID
+	 * @param iid
+	 *            The IID
+	 * @return The slot or -1, if not found
+	 */
+	private int find(long tg, int iid) {
+		int mask = values.length - 1;
+		int slot = PackedTGIKey.hash(tg, iid) & mask;
+		while (values[slot] != null) {
+			if (tgs[slot] == tg && iids[slot] == iid) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the key of the slot and shifts the following keys of the probe
+	 * sequence back.<br>
+	 * 
+	 * @param slot
+	 *            The slot
+	 */
+	private void removeSlot(int slot) {
+		int mask = values.length - 1;
+		int free = slot;
+		int next = (free + 1) & mask;
+		while (values[next] != null) {
+			int home = PackedTGIKey.hash(tgs[next], iids[next]) & mask;
+			// move, if home is not cyclically in (free, next]
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				tgs[free] = tgs[next];
+				iids[free] = iids[next];
+				values[free] = values[next];
+				free = next;
+			}
+			next = (next + 1) & mask;
+		}
+		values[free] = null;
+		size--;
+	}
+
+	/**
+	 * Allocates empty arrays.<br>
+	 * 
+	 * @param capacity
+	 *            The capacity, a power of two
+	 */
+	private void allocate(int capacity) {
+		tgs = new long[capacity];
+		iids = new int[capacity];
+		values = new Object[capacity];
+		size = 0;
+		threshold = capacity / 3 * 2;
+	}
+
+	/**
+	 * Copies all keys to new arrays with the given capacity.<br>
+	 * 
+	 * @param capacity
+	 *            The capacity, a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int capacity) {
+		long[] oldTgs = tgs;
+		int[] oldIids = iids;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				put(oldTgs[i], oldIids[i], (V) oldValues[i]);
+			}
+		}
+	}
+}
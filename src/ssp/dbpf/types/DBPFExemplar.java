@@ -17,7 +17,11 @@
  */
 package ssp.dbpf.types;
 
+import java.util.Arrays;
+
+import ssp.dbpf.converter.PropertyConverter;
 import ssp.dbpf.converter.types.ExemplarConverter;
+import ssp.dbpf.event.DBPFException;
 import ssp.dbpf.properties.DBPFProperty;
 import ssp.dbpf.tgi.TGIKey;
 import ssp.dbpf.tgi.TGIKeys;
@@ -27,7 +31,14 @@ import ssp.dbpf.util.DBPFUtil;
  * Defines an exemplar of the DBPF.<br>
  * 
  * The exemplar stores basic information about the lot.<br>
- * The decompressedSize will be updated with setPropertyList.
+ * The decompressedSize will be updated with setPropertyList.<br>
+ * A lazy exemplar, see {@link #setPropertyData(short[], int[], int[])},
+ * decodes a property not before it is requested.<br>
+ * The properties are found by ID with a sorted index, which is kept up to
+ * date by {@link #addProperty(DBPFProperty)},
+ * {@link #removeProperty(long)} and
+ * {@link #updateProperties(DBPFProperty[], long[])}. If the ID of a contained
+ * property is changed, the propertyList has to be set again.
  * 
  * @author Stefan Wertich, mapsonswen@web.de
  * @version 2.0.0, 13.08.2012
@@ -41,6 +52,17 @@ public class DBPFExemplar extends AbstractDBPFType {
 
 	private DBPFProperty[] propertyList;
 
+	// the binary data of the not decoded properties, NULL if not lazy
+	private short[] propertyData;
+	private int[] propertyIDs;
+	private int[] propertyOffsets;
+	private int[] propertyLengths;
+
+	// the ID in the high and the position in the low 32 bits, sorted;
+	// NULL if not built yet or if an ID exceeds 32 bits
+	private long[] propertyIndex;
+	private boolean indexBuilt;
+
 	/**
 	 * Constructor.<br>
 	 * 
@@ -74,6 +96,7 @@ public class DBPFExemplar extends AbstractDBPFType {
 		sb.append("Cohort TGI: ");
 		sb.append(tgiCohort.toString());
 		sb.append(", ");
+		DBPFProperty[] propertyList = getPropertyList();
 		sb.append("Property-Size: " + propertyList.length);
 		sb.append("\n");
 		if (propertyList.length > 0) {
@@ -88,9 +111,18 @@ public class DBPFExemplar extends AbstractDBPFType {
 
 
 	/**
+	 * Returns the properties.<br>
+	 * A lazy exemplar decodes all not decoded properties before.
+	 * 
 	 * @return the propertyList
 	 */
 	public DBPFProperty[] getPropertyList() {
+		if (propertyData != null) {
+			for (int i = 0; i < propertyList.length; i++) {
+				getProperty(i);
+			}
+			releasePropertyData();
+		}
 		return propertyList;
 	}
 
@@ -99,28 +131,422 @@ public class DBPFExemplar extends AbstractDBPFType {
 	 *            the propertyList to set
 	 */
 	public void setPropertyList(DBPFProperty[] propertyList) {
+		releasePropertyData();
 		this.propertyList = propertyList;
+		invalidateIndex();
+		setDecompressedSize(ExemplarConverter.calcDataLength(this));
+	}
+
+	/**
+	 * Sets the binary data of the properties, which are decoded not before
+	 * they are requested.<br>
+	 * 
+	 * @param dData
+	 *            The data with the properties in binary format
+	 * @param offsets
+	 *            The offset of each property in the data
+	 * @param lengths
+	 *            The length of each property in the data
+	 */
+	public void setPropertyData(short[] dData, int[] offsets, int[] lengths) {
+		this.propertyData = dData;
+		this.propertyOffsets = offsets;
+		this.propertyLengths = lengths;
+		this.propertyIDs = new int[offsets.length];
+		for (int i = 0; i < offsets.length; i++) {
+			propertyIDs[i] = (int) DBPFUtil.getUint32(dData, offsets[i], 4);
+		}
+		this.propertyList = new DBPFProperty[offsets.length];
+		invalidateIndex();
 		setDecompressedSize(ExemplarConverter.calcDataLength(this));
 	}
 
+	/**
+	 * Check, if properties are not decoded yet.<br>
+	 * 
+	 * @return TRUE, if lazy; FALSE, if all properties are decoded
+	 */
+	public boolean isLazy() {
+		return propertyData != null;
+	}
+
+	/**
+	 * Returns the count of properties.<br>
+	 * 
+	 * @return The count
+	 */
+	public int getPropertyCount() {
+		return propertyList.length;
+	}
+
+	/**
+	 * Returns the property at the given index.<br>
+	 * A lazy exemplar decodes the property, if not already decoded.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The property
+	 * @throws IllegalStateException
+	 *             Thrown, if the property cannot be decoded
+	 */
+	public DBPFProperty getProperty(int index) {
+		DBPFProperty prop = propertyList[index];
+		if (prop == null) {
+			try {
+				prop = PropertyConverter.createProperty(propertyData,
+						propertyOffsets[index]);
+			} catch (DBPFException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			propertyList[index] = prop;
+		}
+		return prop;
+	}
+
+	/**
+	 * Returns the property at the given index, if decoded.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The property or NULL, if not decoded yet
+	 */
+	public DBPFProperty getDecodedProperty(int index) {
+		return propertyList[index];
+	}
+
+	/**
+	 * Returns the length of the binary data of the not decoded property.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The length
+	 */
+	public int getRawPropertyLength(int index) {
+		return propertyLengths[index];
+	}
+
+	/**
+	 * Copies the binary data of the not decoded property as it was read.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @param dest
+	 *            The destination
+	 * @param pos
+	 *            The position in the destination
+	 * @return The length of the copied data
+	 */
+	public int copyRawProperty(int index, short[] dest, int pos) {
+		System.arraycopy(propertyData, propertyOffsets[index], dest, pos,
+				propertyLengths[index]);
+		return propertyLengths[index];
+	}
+
 	/**
 	 * Returns the property for the given propertyID.<br>
+	 * If the ID exists more than once, the first property is returned.<br>
+	 * A lazy exemplar decodes only the found property.
 	 * 
 	 * @param propertyID
 	 *            The propertyID/nameValue
 	 * @return The property or NULL, if not found
 	 */
 	public DBPFProperty getPropertyByID(long propertyID) {
-		DBPFProperty prop;
-		for (int i = 0; i < propertyList.length; i++) {
-			prop = propertyList[i];
-			if (prop.getID() == propertyID) {
-				return prop;
-			}
+		int pos = indexOf(propertyID);
+		if (pos != -1) {
+			return getProperty(pos);
 		}
 		return null;
 	}
 
+	/**
+	 * Returns the index of the property for the given propertyID.<br>
+	 * 
+	 * @param propertyID
+	 *            The propertyID/nameValue
+	 * @return The index of the first property with the ID or -1, if not found
+	 */
+	public int indexOf(long propertyID) {
+		if (!indexBuilt) {
+			propertyIndex = createIndex();
+			indexBuilt = true;
+		}
+		if (propertyIndex == null) {
+			for (int i = 0; i < propertyList.length; i++) {
+				if (getID(i) == propertyID) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		if ((propertyID & 0xFFFFFFFFL) != propertyID) {
+			return -1;
+		}
+		// the key with position 0 is lower or equal than the keys of the ID
+		int pos = Arrays.binarySearch(propertyIndex, propertyID << 32);
+		if (pos < 0) {
+			pos = -pos - 1;
+		}
+		if (pos < propertyIndex.length
+				&& (propertyIndex[pos] >>> 32) == propertyID) {
+			return (int) propertyIndex[pos];
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds a property to the end of the properties.<br>
+	 * If a property with the same ID already exists, it will not add again!
+	 * 
+	 * @param property
+	 *            The property to add
+	 * @return TRUE, if added; FALSE, if already exists and not added
+	 */
+	public boolean addProperty(DBPFProperty property) {
+		if (indexOf(property.getID()) != -1) {
+			return false;
+		}
+		int count = propertyList.length;
+		int[] source = new int[count + 1];
+		for (int i = 0; i < count; i++) {
+			source[i] = i;
+		}
+		source[count] = -1;
+		DBPFProperty[] newList = new DBPFProperty[count + 1];
+		System.arraycopy(propertyList, 0, newList, 0, count);
+		newList[count] = property;
+		rebuild(newList, source);
+		if (propertyIndex != null) {
+			if ((property.getID() & 0xFFFFFFFFL) == property.getID()) {
+				long key = (property.getID() << 32) | count;
+				int pos = -Arrays.binarySearch(propertyIndex, key) - 1;
+				long[] newIndex = new long[propertyIndex.length + 1];
+				System.arraycopy(propertyIndex, 0, newIndex, 0, pos);
+				newIndex[pos] = key;
+				System.arraycopy(propertyIndex, pos, newIndex, pos + 1,
+						propertyIndex.length - pos);
+				propertyIndex = newIndex;
+			} else {
+				propertyIndex = null;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the first property with the given ID.<br>
+	 * If the property not exists, it will not remove anything!
+	 * 
+	 * @param propertyID
+	 *            The ID of the property to remove
+	 * @return TRUE, if removed; FALSE, if not exists
+	 */
+	public boolean removeProperty(long propertyID) {
+		int found = indexOf(propertyID);
+		if (found == -1) {
+			return false;
+		}
+		int count = propertyList.length;
+		int[] source = new int[count - 1];
+		DBPFProperty[] newList = new DBPFProperty[count - 1];
+		for (int i = 0, nr = 0; i < count; i++) {
+			if (i != found) {
+				source[nr] = i;
+				newList[nr] = propertyList[i];
+				nr++;
+			}
+		}
+		rebuild(newList, source);
+		if (propertyIndex != null) {
+			// drop the key and move the following positions
+			long[] newIndex = new long[propertyIndex.length - 1];
+			int nr = 0;
+			for (long key : propertyIndex) {
+				int pos = (int) key;
+				if (pos != found) {
+					newIndex[nr++] = pos > found ? key - 1 : key;
+				}
+			}
+			propertyIndex = newIndex;
+		}
+		return true;
+	}
+
+	/**
+	 * Updates and removes many properties with one rebuild of the
+	 * properties.<br>
+	 * A property replaces the first property with the same ID or, if not
+	 * exists, is added to the end. Afterwards the first property for each of
+	 * the removeIDs is removed.
+	 * 
+	 * @param properties
+	 *            The properties to update or add, might be NULL
+	 * @param removeIDs
+	 *            The IDs of the properties to remove, might be NULL
+	 * @return The count of updated, added and removed properties
+	 */
+	public int updateProperties(DBPFProperty[] properties, long[] removeIDs) {
+		int count = propertyList.length;
+		int changes = 0;
+		DBPFProperty[] newList = new DBPFProperty[count
+				+ (properties != null ? properties.length : 0)];
+		int[] source = new int[newList.length];
+		for (int i = 0; i < count; i++) {
+			newList[i] = propertyList[i];
+			source[i] = i;
+		}
+		int size = count;
+		if (properties != null) {
+			for (DBPFProperty prop : properties) {
+				int pos = indexOf(prop.getID());
+				if (pos == -1) {
+					// search the already added properties
+					for (int i = count; i < size; i++) {
+						if (newList[i].getID() == prop.getID()) {
+							pos = i;
+							break;
+						}
+					}
+				}
+				if (pos == -1) {
+					source[size] = -1;
+					newList[size++] = prop;
+				} else {
+					newList[pos] = prop;
+				}
+				changes++;
+			}
+		}
+		boolean[] removed = new boolean[size];
+		if (removeIDs != null) {
+			for (long id : removeIDs) {
+				for (int i = 0; i < size; i++) {
+					if (!removed[i] && getID(newList, source, i) == id) {
+						removed[i] = true;
+						changes++;
+						break;
+					}
+				}
+			}
+		}
+		if (changes == 0) {
+			return 0;
+		}
+		int nr = 0;
+		for (int i = 0; i < size; i++) {
+			if (!removed[i]) {
+				newList[nr] = newList[i];
+				source[nr] = source[i];
+				nr++;
+			}
+		}
+		DBPFProperty[] finalList = new DBPFProperty[nr];
+		System.arraycopy(newList, 0, finalList, 0, nr);
+		int[] finalSource = new int[nr];
+		System.arraycopy(source, 0, finalSource, 0, nr);
+		rebuild(finalList, finalSource);
+		invalidateIndex();
+		return changes;
+	}
+
+	/**
+	 * Sets the new properties and keeps the binary data of the not decoded
+	 * properties.<br>
+	 * 
+	 * @param newList
+	 *            The new properties, NULL for not decoded properties
+	 * @param source
+	 *            The former index of each property or -1, if new
+	 */
+	private void rebuild(DBPFProperty[] newList, int[] source) {
+		if (propertyData != null) {
+			int[] ids = new int[newList.length];
+			int[] offsets = new int[newList.length];
+			int[] lengths = new int[newList.length];
+			for (int i = 0; i < newList.length; i++) {
+				if (source[i] != -1) {
+					ids[i] = propertyIDs[source[i]];
+					offsets[i] = propertyOffsets[source[i]];
+					lengths[i] = propertyLengths[source[i]];
+				}
+			}
+			propertyIDs = ids;
+			propertyOffsets = offsets;
+			propertyLengths = lengths;
+		}
+		propertyList = newList;
+		setDecompressedSize(ExemplarConverter.calcDataLength(this));
+	}
+
+	/**
+	 * Returns the ID of the property at the given index without decoding
+	 * it.<br>
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The ID
+	 */
+	private long getID(int index) {
+		return getID(propertyList, null, index);
+	}
+
+	/**
+	 * Returns the ID of the property in the given properties without decoding
+	 * it.<br>
+	 * 
+	 * @param list
+	 *            The properties
+	 * @param source
+	 *            The former index of each property or -1, if new; NULL if the
+	 *            properties are the current ones
+	 * @param index
+	 *            The index
+	 * @return The ID
+	 */
+	private long getID(DBPFProperty[] list, int[] source, int index) {
+		if (list[index] != null) {
+			return list[index].getID();
+		}
+		int pos = source != null ? source[index] : index;
+		return propertyIDs[pos] & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Creates the sorted index of the properties.<br>
+	 * 
+	 * @return The index or NULL, if an ID exceeds 32 bits
+	 */
+	private long[] createIndex() {
+		long[] index = new long[propertyList.length];
+		for (int i = 0; i < index.length; i++) {
+			long id = getID(i);
+			if ((id & 0xFFFFFFFFL) != id) {
+				return null;
+			}
+			index[i] = (id << 32) | i;
+		}
+		Arrays.sort(index);
+		return index;
+	}
+
+	/**
+	 * Invalidates the index, it will be created on the next search.<br>
+	 */
+	private void invalidateIndex() {
+		propertyIndex = null;
+		indexBuilt = false;
+	}
+
+	/**
+	 * Releases the binary data of the properties.<br>
+	 */
+	private void releasePropertyData() {
+		propertyData = null;
+		propertyIDs = null;
+		propertyOffsets = null;
+		propertyLengths = null;
+	}
+
 	@Override
 	public int getType() {
 		return TGIKeys.EXEMPLAR.getFormatID();
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 by Stefan Wertich.  All Rights Reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * This code is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This code is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this code.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ssp.dbpf.types;
+
+import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.io.DBPFReader;
+import ssp.dbpf.tgi.TGIKey;
+
+/**
+ * Defines a handle to an entry of a DBPF file, which is decoded on first
+ * access.<br>
+ * 
+ * The handle only holds the entry and its TGI. The compressed flag and the
+ * decompressed size are taken from the entry till the type is loaded. The type
+ * is read, decompressed and decoded with {@link #load()} and can be released
+ * with {@link #release()} to free the memory. Changes of a released type are
+ * lost.
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class DBPFLazyType extends AbstractDBPFType {
+
+	private DBPFEntry entry;
+	private DBPFType type;
+
+	/**
+	 * Constructor.<br>
+	 * 
+	 * @param entry
+	 *            The entry
+	 */
+	public DBPFLazyType(DBPFEntry entry) {
+		this.entry = entry;
+		this.tgiKey = entry.getTGIKey();
+		this.compressed = entry.isCompressed();
+		this.decompressedSize = entry.getDecompressedSize();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(super.toString());
+		sb.append("\n");
+		sb.append("Loaded: " + isLoaded());
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the type and loads it, if not already loaded.<br>
+	 * 
+	 * @return The type
+	 * @throws DBPFException
+	 *             Thrown, if the entry cannot be read
+	 */
+	public synchronized DBPFType load() throws DBPFException {
+		if (type == null) {
+			type = DBPFConverter.createType(entry);
+			type.setTGIKey(tgiKey);
+			if (compressed != entry.isCompressed()) {
+				type.setCompressed(compressed);
+			}
+			compressed = type.isCompressed();
+			decompressedSize = type.getDecompressedSize();
+		}
+		return type;
+	}
+
+	/**
+	 * Check, if the type is loaded.<br>
+	 * 
+	 * @return TRUE, if loaded; FALSE, otherwise
+	 */
+	public synchronized boolean isLoaded() {
+		return type != null;
+	}
+
+	/**
+	 * Releases the loaded type.<br>
+	 * The next {@link #load()} will read the entry again.
+	 */
+	public synchronized void release() {
+		type = null;
+	}
+
+	/**
+	 * Returns the data of the entry as stored in the file.<br>
+	 * The data might be compressed!
+	 * 
+	 * @return The rawData
+	 * @throws DBPFException
+	 *             Thrown, if the entry cannot be read
+	 */
+	public byte[] readRawBytes() throws DBPFException {
+		return DBPFReader.readBytes(entry);
+	}
+
+	/**
+	 * Check, if the data of the entry can be used unchanged.<br>
+	 * This is TRUE, if the type is not loaded and the compressed flag is the
+	 * same as for the entry.
+	 * 
+	 * @return TRUE, if unchanged; FALSE, otherwise
+	 */
+	public synchronized boolean isUnchanged() {
+		return type == null && compressed == entry.isCompressed();
+	}
+
+	/**
+	 * @return the entry
+	 */
+	public DBPFEntry getEntry() {
+		return entry;
+	}
+
+	/**
+	 * Returns the specific type of the loaded type.<br>
+	 * If not loaded, the type is derived from the TGI of the entry without
+	 * loading it, see {@link DBPFConverter#getFormatID(TGIKey)}.<br>
+	 * This handle is no instance of the specific type, e.g. no DBPFExemplar
+	 * for the EXEMPLAR type, so unwrap it with {@link #load()} before casting.
+	 * 
+	 * @return The type
+	 */
+	@Override
+	public synchronized int getType() {
+		if (type != null) {
+			return type.getType();
+		}
+		return DBPFConverter.getFormatID(entry.getTGIKey());
+	}
+
+	@Override
+	public synchronized void setTGIKey(TGIKey tgiKey) {
+		super.setTGIKey(tgiKey);
+		if (type != null) {
+			type.setTGIKey(tgiKey);
+		}
+	}
+
+	@Override
+	public synchronized boolean isCompressed() {
+		if (type != null) {
+			return type.isCompressed();
+		}
+		return compressed;
+	}
+
+	@Override
+	public synchronized void setCompressed(boolean compressed) {
+		super.setCompressed(compressed);
+		if (type != null) {
+			type.setCompressed(compressed);
+		}
+	}
+
+	@Override
+	public synchronized long getDecompressedSize() {
+		if (type != null) {
+			return type.getDecompressedSize();
+		}
+		return decompressedSize;
+	}
+}
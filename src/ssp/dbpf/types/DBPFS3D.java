@@ -18,6 +18,7 @@
 package ssp.dbpf.types;
 
 import ssp.dbpf.tgi.TGIKeys;
+import ssp.dbpf.util.DBPFUtil;
 
 /**
  * Defines a S3D of DBPF.<br>
@@ -32,7 +33,14 @@ import ssp.dbpf.tgi.TGIKeys;
  */
 public class DBPFS3D extends AbstractDBPFType {
 
-	private short[] rawData;
+	private byte[] rawData;
+
+	/**
+	 * Constructor.<br>
+	 */
+	public DBPFS3D() {
+		rawData = new byte[0];
+	}
 
 	@Override
 	public String toString() {
@@ -50,21 +58,46 @@ public class DBPFS3D extends AbstractDBPFType {
 	 * @param data
 	 *            The data
 	 */
-	public void setData(short[] data) {
+	public void setBytes(byte[] data) {
 		this.rawData = data;
 		setDecompressedSize(rawData.length);
 	}
 
+	/**
+	 * Sets the data of the raw type.<br>
+	 * The data is converted to bytes, see {@link #setBytes(byte[])}.
+	 * 
+	 * @param data
+	 *            The data
+	 */
+	public void setData(short[] data) {
+		setBytes(DBPFUtil.toBytes(data));
+	}
+
 	/**
 	 * Returns the data of the raw type.<br>
 	 * This data is equivalent to the rawData.
 	 * 
 	 * @return The data
 	 */
-	public short[] getData() {
+	public byte[] getBytes() {
 		return rawData;
 	}
 
+	/**
+	 * Returns a copy of the data of the raw type as short array.<br>
+	 * Changes of the returned array will not change this type, use
+	 * {@link #setData(short[])} to store them.
+	 * 
+	 * @return The data
+	 * @deprecated Returns a new copy on each call since the data is stored as
+	 *             bytes, use {@link #getBytes()}
+	 */
+	@Deprecated
+	public short[] getData() {
+		return DBPFUtil.toShorts(rawData);
+	}
+
 	@Override
 	public int getType() {
 		return TGIKeys.S3D.getFormatID();
@@ -247,19 +247,11 @@ public class DBPFUtil {
 	 *            The length of the array
 	 */
 	public static void toArray(long value, short[] dest, int offset, int length) {
-		// create the hex string from the value
-		String s = Long.toHexString(value);
-		// fill with necessary zeros to fit into array
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < 2 * length - s.length(); i++) {
-			sb.append('0');
-		}
-		s = sb.toString() + s;
-		// fill the array from lowest to highest
-		int idx;
+		// fill the array from lowest to highest, negative values in two's
+		// complement and bytes above the long with zeros
 		for (int i = 0; i < length; i++) {
-			idx = s.length() - 2 * i;
-			dest[offset + i] = Short.parseShort(s.substring(idx - 2, idx), 16);
+			dest[offset + i] = (i < 8) ? (short) ((value >>> (8 * i)) & 0xFF)
+					: 0;
 		}
 	}
 
@@ -293,8 +285,8 @@ public class DBPFUtil {
 	 * This method is normally used for Binary format of an exemplar.
 	 * 
 	 * The array is sorted Low-To-High-Order. The value could be signed
-	 * interpreted or not.
-	 * 
+	 * interpreted or not, a signed value is negative, if the last short starts
+	 * with 0xF.
 	 * 
 	 * @param data
 	 *            The array
@@ -309,23 +301,12 @@ public class DBPFUtil {
 	public static long toValue(short[] data, int start, int length,
 			boolean signed) {
 		long result = 0L;
-
+		for (int i = length - 1; i >= 0; i--) {
+			result = (result << 8) | (data[start + i] & 0xFF);
+		}
 		// value is negative, if last short is 0xF
-		if (signed && (data[start + length - 1] & 0xF0) == 0xF0) {
-
-			// create an hex string from the shorts
-			StringBuilder sb = new StringBuilder();
-			for (int i = 0; i < length; i++) {
-				sb.append(toHex(data[start + length - 1 - i], 2));
-			}
-			String hexString = sb.toString();
-
-			result = getResult(hexString);
-		} else {
-			for (int i = 0; i < length; i++) {
-				short readed = data[start + i];
-				result += (readed * Math.pow(256, i));
-			}
+		if (signed && length < 8 && (data[start + length - 1] & 0xF0) == 0xF0) {
+			result |= -1L << (8 * length);
 		}
 		return result;
 	}
@@ -352,49 +333,19 @@ public class DBPFUtil {
 		}
 		// value is negative, if last short is 0xF
 		if (signed && hexString.startsWith("f")) {
-			result = getResult(hexString);
-		} else {
-			result = Long.parseLong(hexString, 16);
-		}
-		return result;
-	}
-
-	/**
-	 * Get the result from the given HexString.<br>
-	 * This method is used by {@link #toValue(String, boolean)} and
-	 * {@link #toValue(short[], int, int, boolean)}.
-	 * 
-	 * @param hexString
-	 *            The hexString
-	 * @return The result
-	 */
-	private static long getResult(String hexString) {
-		long result = 0L;
-		// get signifikant index
-		int slength = hexString.length();
-		int i = 0;
-		while (i < slength) {
-			if (hexString.charAt(i) == 'f') {
-				i++;
-			} else {
-				break;
+			for (int i = 0; i < hexString.length(); i++) {
+				int digit = Character.digit(hexString.charAt(i), 16);
+				if (digit < 0) {
+					throw new NumberFormatException("For input string: \""
+							+ hexString + "\"");
+				}
+				result = (result << 4) | digit;
+			}
+			if (hexString.length() < 16) {
+				result |= -1L << (4 * hexString.length());
 			}
-		}
-
-		if (i == slength) {
-			// string consists of 0xFFFFFFFF
-			result = -1;
 		} else {
-			// get signifikant bits
-			String value = "0" + hexString.substring(i);
-			long val = Long.parseLong(value, 16);
-
-			// create specific maximum from length and signifikant bits
-			// length
-			final long MAX = (long) Math.pow(16, (slength - i));
-
-			// get final result
-			result = -(MAX - val);
+			result = Long.parseLong(hexString, 16);
 		}
 		return result;
 	}
@@ -717,4 +668,253 @@ public class DBPFUtil {
 		return readData;
 	}
 
+	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// BYTE ARRAY: convert, read, write
+	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+
+	/**
+	 * Converts a short array with one unsigned byte per element to a byte
+	 * array.<br>
+	 * 
+	 * @param data
+	 *            The short array
+	 * @return The byte array
+	 */
+	public static byte[] toBytes(short[] data) {
+		byte[] ret = new byte[data.length];
+		for (int i = 0; i < data.length; i++) {
+			ret[i] = (byte) data[i];
+		}
+		return ret;
+	}
+
+	/**
+	 * Converts a byte array to a short array with one unsigned byte per
+	 * element.<br>
+	 * 
+	 * @param data
+	 *            The byte array
+	 * @return The short array
+	 */
+	public static short[] toShorts(byte[] data) {
+		short[] ret = new short[data.length];
+		for (int i = 0; i < data.length; i++) {
+			ret[i] = (short) (data[i] & 0xFF);
+		}
+		return ret;
+	}
+
+	/**
+	 * Converts a byte array to a long value.<br>
+	 * 
+	 * The array is sorted Low-To-High-Order. If signed, the value is negative
+	 * like in {@link #toValue(short[], int, int, boolean)}, if the last byte
+	 * starts with 0xF.
+	 * 
+	 * @param data
+	 *            The array
+	 * @param start
+	 *            The start in the array
+	 * @param length
+	 *            The length
+	 * @param signed
+	 *            TRUE, if value is signed; FALSE, otherwise
+	 * @return The long value
+	 */
+	public static long toValue(byte[] data, int start, int length,
+			boolean signed) {
+		long result = 0L;
+		for (int i = length - 1; i >= 0; i--) {
+			result = (result << 8) | (data[start + i] & 0xFF);
+		}
+		if (signed && length < 8 && (data[start + length - 1] & 0xF0) == 0xF0) {
+			result |= -1L << (8 * length);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads an UINT32 till length reached.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 * 
+	 * @return A long value to store UINT32
+	 */
+	public static long getUint32(byte[] data, int start, int length) {
+		return toValue(data, start, length, false);
+	}
+
+	/**
+	 * Reads an SINT32 till length reached.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 * 
+	 * @return A long value to store SINT32
+	 */
+	public static long getSint32(byte[] data, int start, int length) {
+		return toValue(data, start, length, true);
+	}
+
+	/**
+	 * Reads an FLOAT32 till length reached.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 * 
+	 * @return The float value
+	 */
+	public static float getFloat32(byte[] data, int start, int length) {
+		return toFloat(getUint32(data, start, length));
+	}
+
+	/**
+	 * Writes an UINT32 till length reached.<br>
+	 * The value is written in Low-To-High-Order, negative values in two's
+	 * complement.
+	 * 
+	 * @param value
+	 *            The value
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 */
+	public static void setUint32(long value, byte[] data, int start,
+			int length) {
+		for (int i = 0; i < length; i++) {
+			data[start + i] = (i < 8) ? (byte) (value >>> (8 * i)) : 0;
+		}
+	}
+
+	/**
+	 * Writes an FLOAT32 till length reached.<br>
+	 * 
+	 * @param value
+	 *            The float value
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 */
+	public static void setFloat32(float value, byte[] data, int start,
+			int length) {
+		setUint32(toHex(value), data, start, length);
+	}
+
+	/**
+	 * Reads chars till length reached.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 * @return A string
+	 */
+	public static String getChars(byte[] data, int start, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) (data[start + i] & 0xFF);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Writes chars till length of string reached.<br>
+	 * 
+	 * @param s
+	 *            The string
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 */
+	public static void setChars(String s, byte[] data, int start) {
+		for (int i = 0; i < s.length(); i++) {
+			data[start + i] = (byte) s.charAt(i);
+		}
+	}
+
+	/**
+	 * Reads UNICODE till length reached.<br>
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 * @param length
+	 *            The length
+	 * @return A string
+	 */
+	public static String getUnicode(byte[] data, int start, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) ((data[start + 2 * i] & 0xFF) | ((data[start + 2
+					* i + 1] & 0xFF) << 8));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Writes UNICODE till length of string reached.<br>
+	 * 
+	 * @param s
+	 *            The string
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start offset
+	 */
+	public static void setUnicode(String s, byte[] data, int start) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			data[start + 2 * i] = (byte) c;
+			data[start + 2 * i + 1] = (byte) (c >> 8);
+		}
+	}
+
+	/**
+	 * Reads bytes as strings till end reached.<br>
+	 * 
+	 * The strings terminates with 0x0D and/or 0x0A. If length of string is
+	 * zero, it will not be added.
+	 * 
+	 * @param data
+	 *            The data
+	 * @param start
+	 *            The start index
+	 * @return The list with strings
+	 */
+	public static List<String> getLines(byte[] data, int start) {
+		ArrayList<String> readData = new ArrayList<String>();
+		int lineStart = start;
+		for (int i = start; i <= data.length; i++) {
+			if (i == data.length || data[i] == 0x0D || data[i] == 0x0A) {
+				if (i > lineStart) {
+					readData.add(getChars(data, lineStart, i - lineStart));
+				}
+				lineStart = i + 1;
+			}
+		}
+		return readData;
+	}
 }
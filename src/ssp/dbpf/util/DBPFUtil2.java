@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
+import ssp.dbpf.DBPFCollection;
+import ssp.dbpf.DBPFContainer;
 import ssp.dbpf.entries.DBPFEntry;
 import ssp.dbpf.properties.DBPFFloatProperty;
 import ssp.dbpf.properties.DBPFLongProperty;
@@ -66,6 +68,8 @@ public class DBPFUtil2 {
 
 	/**
 	 * Gets the count of the given TGI in the entryList.<br>
+	 * The entryList is searched linearly, see
+	 * {@link #countTGI(DBPFContainer, TGIKey)}.
 	 * 
 	 * @param entryList
 	 *            The entryList
@@ -83,11 +87,27 @@ public class DBPFUtil2 {
 		return count;
 	}
 
+	/**
+	 * Gets the count of the given TGI in the container.<br>
+	 * Uses the TGI index of the container.
+	 * 
+	 * @param container
+	 *            The container
+	 * @param tgiKey
+	 *            The TGIKey
+	 * @return The count
+	 */
+	public static int countTGI(DBPFContainer container, TGIKey tgiKey) {
+		return container.countTGI(tgiKey);
+	}
+
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Type
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	/**
 	 * Search a typeList for a type with the given TGI.<br>
+	 * The typeList is searched linearly, see
+	 * {@link #searchType(DBPFCollection, TGIKey)}.
 	 * 
 	 * @param typeList
 	 *            The typeList
@@ -108,12 +128,32 @@ public class DBPFUtil2 {
 		return foundEntries.toArray(ret);
 	}
 
+	/**
+	 * Search a collection for a type with the given TGI.<br>
+	 * Uses the TGI index of the collection.
+	 * 
+	 * @param collection
+	 *            The collection
+	 * @param tgiKey
+	 *            The TGIKey
+	 * 
+	 * @return The founded types; if nothing found: length is zero
+	 */
+	public static DBPFType[] searchType(DBPFCollection collection,
+			TGIKey tgiKey) {
+		List<DBPFType> foundEntries = collection.searchTypes(tgiKey);
+		DBPFType[] ret = new DBPFType[foundEntries.size()];
+		return foundEntries.toArray(ret);
+	}
+
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Entry
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 
 	/**
 	 * Search an entryList for an entry with the given TGI.<br>
+	 * The entryList is searched linearly, see
+	 * {@link #searchEntry(DBPFContainer, TGIKey)}.
 	 * 
 	 * @param entryList
 	 *            The entryList
@@ -134,6 +174,23 @@ public class DBPFUtil2 {
 		return foundEntries.toArray(ret);
 	}
 
+	/**
+	 * Search a container for an entry with the given TGI.<br>
+	 * Uses the TGI index of the container.
+	 * 
+	 * @param container
+	 *            The container
+	 * @param tgiKey
+	 *            The TGIKey
+	 * @return The founded entries, might be nothing then size is zero
+	 */
+	public static DBPFEntry[] searchEntry(DBPFContainer container,
+			TGIKey tgiKey) {
+		List<DBPFEntry> foundEntries = container.searchEntries(tgiKey);
+		DBPFEntry[] ret = new DBPFEntry[foundEntries.size()];
+		return foundEntries.toArray(ret);
+	}
+
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Property
 	// +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
@@ -366,18 +423,7 @@ public class DBPFUtil2 {
 	 */
 	public static boolean addProperty(DBPFExemplar exemplar,
 			DBPFProperty property) {
-		// search, if prop already exists
-		DBPFProperty propFound = exemplar.getPropertyByID(property.getID());
-		if (propFound != null) {
-			return false;
-		}
-		// create new property list from existing with one more property
-		DBPFProperty[] propListOld = exemplar.getPropertyList();
-		DBPFProperty[] propListNew = new DBPFProperty[propListOld.length + 1];
-		System.arraycopy(propListOld, 0, propListNew, 0, propListOld.length);
-		propListNew[propListOld.length] = property;
-		exemplar.setPropertyList(propListNew);
-		return true;
+		return exemplar.addProperty(property);
 	}
 
 	/**
@@ -391,23 +437,26 @@ public class DBPFUtil2 {
 	 * @return TRUE, if removed; FALSE, if not exists
 	 */
 	public static boolean removeProperty(DBPFExemplar exemplar, long id) {
-		// search, if prop exists
-		DBPFProperty propFound = exemplar.getPropertyByID(id);
-		if (propFound == null) {
-			return false;
-		}
-		// create new property list from existing with one lesser property
-		DBPFProperty[] propListOld = exemplar.getPropertyList();
-		DBPFProperty[] propListNew = new DBPFProperty[propListOld.length - 1];
-		int nr = 0;
-		for (int i = 0; i < propListOld.length; i++) {
-			if (propListOld[i] != propFound) {
-				propListNew[nr] = propListOld[i];
-				nr++;
-			}
-		}
-		exemplar.setPropertyList(propListNew);
-		return true;
+		return exemplar.removeProperty(id);
+	}
+
+	/**
+	 * Updates, adds and removes many properties of the exemplar with one
+	 * rebuild of the properties.<br>
+	 * A property replaces the existing property with the same ID, see
+	 * {@link DBPFExemplar#updateProperties(DBPFProperty[], long[])}.
+	 * 
+	 * @param exemplar
+	 *            The exemplar
+	 * @param properties
+	 *            The properties to update or add, might be NULL
+	 * @param removeIDs
+	 *            The IDs of the properties to remove, might be NULL
+	 * @return The count of updated, added and removed properties
+	 */
+	public static int updateProperties(DBPFExemplar exemplar,
+			DBPFProperty[] properties, long[] removeIDs) {
+		return exemplar.updateProperties(properties, removeIDs);
 	}
 
 	/**
@@ -426,11 +475,7 @@ public class DBPFUtil2 {
 		DBPFProperty propFound = exemplar.getPropertyByID(property.getID());
 		if (propFound == null) {
 			// prop does not exists, add it
-			DBPFProperty[] propListOld = exemplar.getPropertyList();
-			DBPFProperty[] propListNew = new DBPFProperty[propListOld.length + 1];
-			System.arraycopy(propListOld, 0, propListNew, 0, propListOld.length);
-			propListNew[propListOld.length] = property;
-			exemplar.setPropertyList(propListNew);
+			exemplar.addProperty(property);
 		} else {
 			// Update the property with new data
 			propFound.setType(property.getType());
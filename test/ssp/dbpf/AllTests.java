@@ -19,9 +19,13 @@ public class AllTests extends TestSuite {
 		mySuite.addTestSuite(ssp.dbpf.JUnitExemplars.class);
 		mySuite.addTestSuite(ssp.dbpf.JUnitFSH.class);
 		mySuite.addTestSuite(ssp.dbpf.JUnitImages.class);
+		mySuite.addTestSuite(ssp.dbpf.JUnitIO.class);
 		mySuite.addTestSuite(ssp.dbpf.JUnitLots.class);
 		mySuite.addTestSuite(ssp.dbpf.JUnitMisc.class);
+		mySuite.addTestSuite(ssp.dbpf.JUnitPackager.class);
 		mySuite.addTestSuite(ssp.dbpf.JUnitProperties.class);
+		mySuite.addTestSuite(ssp.dbpf.JUnitTGI.class);
+		mySuite.addTestSuite(ssp.dbpf.JUnitUtil.class);
 		return mySuite;
 	}
 }
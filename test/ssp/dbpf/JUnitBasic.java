@@ -1,10 +1,39 @@
 package ssp.dbpf;
 
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
 import junit.framework.TestCase;
 
 import org.junit.Test;
 
+import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.converter.PropertyConverter;
+import ssp.dbpf.converter.types.CohortConverter;
+import ssp.dbpf.converter.types.DirectoryConverter;
+import ssp.dbpf.converter.types.ExemplarConverter;
+import ssp.dbpf.converter.types.FSHConverter;
+import ssp.dbpf.converter.types.LTextConverter;
+import ssp.dbpf.converter.types.LUAConverter;
+import ssp.dbpf.converter.types.PNGConverter;
+import ssp.dbpf.converter.types.RULConverter;
+import ssp.dbpf.converter.types.S3DConverter;
+import ssp.dbpf.converter.types.WAVConverter;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.properties.DBPFLongProperty;
 import ssp.dbpf.properties.DBPFProperties;
+import ssp.dbpf.properties.DBPFProperty;
+import ssp.dbpf.properties.DBPFPropertyTypes;
+import ssp.dbpf.properties.DBPFStringProperty;
+import ssp.dbpf.types.DBPFCohort;
+import ssp.dbpf.types.DBPFExemplar;
+import ssp.dbpf.types.DBPFLText;
+import ssp.dbpf.types.DBPFLUA;
+import ssp.dbpf.types.DBPFPNG;
+import ssp.dbpf.types.DBPFRUL;
+import ssp.dbpf.types.DBPFRaw;
+import ssp.dbpf.util.DBPFConstant;
 import ssp.dbpf.util.DBPFUtil;
 
 /**
@@ -44,6 +73,214 @@ public class JUnitBasic extends TestCase {
 		check(-DBPFProperties.BULLDOZE_COST.getId(), "f6650533");
 	}
 
+	@Test
+	public void testLongPropertyStorage() throws DBPFException {
+		TestUtil.printLine("TEST: Long property storage");
+		TestUtil.printLine();
+		Random random = new Random(25);
+		DBPFPropertyTypes[] types = { DBPFPropertyTypes.UINT8,
+				DBPFPropertyTypes.UINT16, DBPFPropertyTypes.UINT32,
+				DBPFPropertyTypes.SINT32, DBPFPropertyTypes.SINT64,
+				DBPFPropertyTypes.BOOL };
+		for (int n = 0; n < 1000; n++) {
+			DBPFPropertyTypes type = types[n % types.length];
+			int count = random.nextInt(20);
+			short[] data = new short[13 + count * type.length];
+			DBPFUtil.setUint32(0x1234L, data, 0, 4);
+			DBPFUtil.setUint32(type.id, data, 4, 2);
+			DBPFUtil.setUint32(0x80, data, 6, 1);
+			DBPFUtil.setUint32(count, data, 9, 4);
+			for (int i = 13; i < data.length; i++) {
+				data[i] = (short) random.nextInt(256);
+				// leading F for negative values
+				if (n % 4 == 0 && (i - 12) % type.length == 0) {
+					data[i] |= 0xF0;
+				}
+			}
+			DBPFLongProperty prop = (DBPFLongProperty) PropertyConverter
+					.createProperty(data, 0);
+			assertEquals(count, prop.getCount());
+			for (int i = 0; i < count; i++) {
+				assertEquals(toStored(type, DBPFUtil.getValue(type, data, 13
+						+ i * type.length, type.length)), prop.getLong(i));
+			}
+			assertTrue(Arrays.equals(data, prop.toRaw()));
+			assertEquals(0, prop.getLong(count));
+			assertFalse(prop.setLong(1, count));
+
+			// converts the values to the new type
+			DBPFPropertyTypes newType = types[random.nextInt(types.length)];
+			long[] values = new long[count];
+			for (int i = 0; i < count; i++) {
+				values[i] = prop.getLong(i);
+			}
+			prop.setType(newType);
+			prop.setCount(count + 1);
+			assertEquals(count + 1, prop.getCount());
+			for (int i = 0; i < count; i++) {
+				short[] value = new short[newType.length];
+				DBPFUtil.setValue(newType, values[i], value, 0, value.length);
+				assertEquals(toStored(newType, DBPFUtil.getValue(newType,
+						value, 0, value.length)), prop.getLong(i));
+			}
+			assertEquals(0, prop.getLong(count));
+		}
+		DBPFLongProperty prop = new DBPFLongProperty(0x1L,
+				DBPFPropertyTypes.UINT8, new long[] { 0x1FF, -1 });
+		assertEquals(0xFF, prop.getLong(0));
+		assertEquals(0xFF, prop.getLong(1));
+		prop = new DBPFLongProperty(0x1L, DBPFPropertyTypes.SINT32,
+				new long[] { -5, 0x90000000L });
+		assertEquals(-5, prop.getLong(0));
+		assertEquals(-0x70000000L, prop.getLong(1));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testSint32RoundTrip() throws DBPFException {
+		TestUtil.printLine("TEST: Sint32 round trip");
+		TestUtil.printLine();
+		long[] values = { Integer.MIN_VALUE, -0x70000000L, -0x10000001L,
+				-0x10000000L, -5, 0, Integer.MAX_VALUE };
+		DBPFLongProperty prop = new DBPFLongProperty(0x1L,
+				DBPFPropertyTypes.SINT32, values);
+		DBPFLongProperty set = new DBPFLongProperty(0x1L,
+				DBPFPropertyTypes.SINT32, new long[values.length]);
+		for (int i = 0; i < values.length; i++) {
+			assertTrue(set.setLong(values[i], i));
+		}
+		DBPFLongProperty binary = (DBPFLongProperty) PropertyConverter
+				.createProperty(prop.toRaw(), 0);
+		String text = prop.toText();
+		DBPFLongProperty parsed = (DBPFLongProperty) PropertyConverter
+				.createProperty(text);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], prop.getLong(i));
+			assertEquals(values[i], set.getLong(i));
+			assertEquals(values[i], binary.getLong(i));
+			assertEquals(values[i], parsed.getLong(i));
+		}
+		assertEquals(text, parsed.toText());
+		assertTrue(Arrays.equals(prop.toRaw(), binary.toRaw()));
+		TestUtil.printLine();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testConverterBytes() throws DBPFException {
+		TestUtil.printLine("TEST: Converter bytes");
+		TestUtil.printLine();
+		byte[] data = new byte[300];
+		new Random(3).nextBytes(data);
+		short[] shorts = DBPFUtil.toShorts(data);
+
+		// types, which store the data as it is
+		assertTrue(Arrays.equals(data, FSHConverter.createBytes(FSHConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(shorts, FSHConverter.createData(FSHConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(data, S3DConverter.createBytes(S3DConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(shorts, S3DConverter.createData(S3DConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(data, WAVConverter.createBytes(WAVConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(shorts, WAVConverter.createData(WAVConverter
+				.createType(data))));
+		assertTrue(Arrays.equals(data, DirectoryConverter
+				.createBytes(DirectoryConverter.createType(data))));
+		assertTrue(Arrays.equals(shorts, DirectoryConverter
+				.createData(DirectoryConverter.createType(data))));
+		DBPFRaw raw = new DBPFRaw();
+		raw.setBytes(data);
+		assertTrue(Arrays.equals(data, DBPFConverter.createBytes(raw)));
+		// the short array is a copy
+		short[] copy = raw.getData();
+		assertTrue(Arrays.equals(shorts, copy));
+		copy[0] = (short) ((copy[0] + 1) & 0xFF);
+		assertEquals(shorts[0], raw.getBytes()[0] & 0xFF);
+
+		// text types
+		DBPFLUA lua = new DBPFLUA();
+		lua.setString("-- lua\nprint(\"x\")\n");
+		byte[] luaBytes = LUAConverter.createBytes(lua);
+		assertTrue(Arrays.equals(DBPFUtil.toBytes(LUAConverter
+				.createData(lua)), luaBytes));
+		assertEquals(lua.getString(), LUAConverter.createType(luaBytes)
+				.getString());
+		DBPFRUL rul = new DBPFRUL();
+		rul.setString("[Ordering]\nRotationRing=0x1\n");
+		byte[] rulBytes = RULConverter.createBytes(rul);
+		assertTrue(Arrays.equals(DBPFUtil.toBytes(RULConverter
+				.createData(rul)), rulBytes));
+		assertEquals(rul.getString(), RULConverter.createType(rulBytes)
+				.getString());
+		DBPFLText ltext = new DBPFLText();
+		ltext.setString("Stra\u00DFe");
+		assertTrue(Arrays.equals(DBPFUtil.toBytes(LTextConverter
+				.createData(ltext)), LTextConverter.createBytes(ltext)));
+		// the bytes keep the high byte of each char, the shorts do not
+		ltext.setString("Stra\u00DFe \u20AC");
+		assertEquals(ltext.getString(), LTextConverter.createType(
+				LTextConverter.createBytes(ltext)).getString());
+
+		// properties in both formats
+		DBPFExemplar exemplar = new DBPFExemplar();
+		exemplar.setPropertyList(new DBPFProperty[] {
+				new DBPFLongProperty(0x10L, DBPFPropertyTypes.SINT32,
+						new long[] { -5, 7 }),
+				new DBPFStringProperty(0x20L, DBPFPropertyTypes.STRING,
+						"Name") });
+		DBPFCohort cohort = new DBPFCohort(exemplar);
+		short[] formats = { DBPFConstant.FORMAT_BINARY,
+				DBPFConstant.FORMAT_TEXT };
+		for (short format : formats) {
+			byte[] exemplarBytes = ExemplarConverter.createBytes(exemplar,
+					format);
+			assertTrue(Arrays.equals(DBPFUtil.toBytes(ExemplarConverter
+					.createData(exemplar, format)), exemplarBytes));
+			assertTrue(Arrays.equals(exemplarBytes, ExemplarConverter
+					.createBytes(ExemplarConverter.createType(exemplarBytes),
+							format)));
+			byte[] cohortBytes = CohortConverter.createBytes(cohort, format);
+			assertTrue(Arrays.equals(DBPFUtil.toBytes(CohortConverter
+					.createData(cohort, format)), cohortBytes));
+			assertTrue(Arrays.equals(cohortBytes, CohortConverter.createBytes(
+					CohortConverter.createType(cohortBytes), format)));
+		}
+
+		// the image is encoded again, so compare the pixels
+		BufferedImage image = new BufferedImage(4, 3,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int i = 0; i < 12; i++) {
+			image.setRGB(i % 4, i / 4, 0x80000000 | (i * 0x151515));
+		}
+		DBPFPNG png = new DBPFPNG();
+		png.setImage(image);
+		byte[] pngBytes = PNGConverter.createBytes(png);
+		assertTrue(Arrays.equals(DBPFUtil.toBytes(PNGConverter
+				.createData(png)), pngBytes));
+		BufferedImage decoded = PNGConverter.createType(pngBytes).getImage();
+		for (int i = 0; i < 12; i++) {
+			assertEquals(image.getRGB(i % 4, i / 4), decoded.getRGB(i % 4,
+					i / 4));
+		}
+		TestUtil.printLine();
+	}
+
+	/**
+	 * Returns the value as stored by a long property of the type.<br>
+	 * 
+	 * @param type
+	 *            The type
+	 * @param value
+	 *            The decoded value
+	 * @return The value, sign extended for SINT32
+	 */
+	private static long toStored(DBPFPropertyTypes type, long value) {
+		return type == DBPFPropertyTypes.SINT32 ? (int) value : value;
+	}
+
 	/**
 	 * Checks a value.<br>
 	 * 
@@ -1,19 +1,33 @@
 package ssp.dbpf;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Vector;
 
 import junit.framework.TestCase;
 
 import org.junit.Test;
 
+import ssp.dbpf.converter.BinaryDataConverter;
+import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.converter.PropertyConverter;
 import ssp.dbpf.converter.types.ExemplarConverter;
+import ssp.dbpf.entries.DBPFEntry;
 import ssp.dbpf.event.DBPFException;
 import ssp.dbpf.io.DBPFReader;
 import ssp.dbpf.io.DBPFWriter;
+import ssp.dbpf.properties.DBPFLongProperty;
 import ssp.dbpf.properties.DBPFProperty;
+import ssp.dbpf.properties.DBPFPropertyTypes;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIKeys;
 import ssp.dbpf.types.DBPFExemplar;
+import ssp.dbpf.types.DBPFType;
 import ssp.dbpf.util.DBPFConstant;
+import ssp.dbpf.util.DBPFUtil;
 import ssp.xtools.io.XFileFilter;
 import ssp.xtools.util.FileOp;
 
@@ -54,6 +68,108 @@ public class JUnitExemplars extends TestCase {
 		assertEquals(filelist.size(), dstFolder.listFiles().length);
 	}
 
+	@Test
+	public void testLazyExemplar() throws DBPFException, IOException {
+		TestUtil.printLine("TEST: Lazy exemplar");
+		TestUtil.printLine();
+		File file = File.createTempFile("LazyExemplar", ".dat");
+		file.deleteOnExit();
+		String[] props = { "0x00000010:{\"Exemplar Type\"}=Uint32:0:{0x00000021}",
+				"0x00000020:{\"Float\"}=Float32:2:{1.5,2.25}",
+				"0x00000020:{\"Name\"}=String:1:{\"Hello\"}",
+				"0x00000040:{\"Bool\"}=Bool:3:{True,False,True}",
+				"0x00000050:{\"Long\"}=Sint64:1:{-5}" };
+		DBPFProperty[] propertyList = new DBPFProperty[props.length];
+		for (int i = 0; i < props.length; i++) {
+			propertyList[i] = PropertyConverter.createProperty(props[i]);
+		}
+		DBPFExemplar exemplar = new DBPFExemplar();
+		exemplar.setTGIKey(new TGIKey(TGIKeys.EXEMPLAR.getTGIKey().getTID(),
+				0x1L, 0x2L));
+		exemplar.setPropertyList(propertyList);
+		exemplar.setFormat(DBPFConstant.FORMAT_BINARY);
+		exemplar.setCompressed(true);
+		List<DBPFType> typeList = new ArrayList<DBPFType>();
+		typeList.add(exemplar);
+		DBPFWriter.write(file, typeList);
+		short[] expected = BinaryDataConverter.createData(exemplar);
+
+		DBPFContainer container = DBPFReader.read(file);
+		DBPFEntry entry = container.getEntry(exemplar.getTGIKey());
+		DBPFExemplar lazy = DBPFConverter.createExemplar(entry, true);
+		assertTrue(lazy.isLazy());
+		assertEquals(props.length, lazy.getPropertyCount());
+		assertEquals(exemplar.getDecompressedSize(), lazy
+				.getDecompressedSize());
+
+		// only the found property is decoded
+		DBPFProperty prop = lazy.getPropertyByID(0x40L);
+		assertEquals(propertyList[3].toString(), prop.toString());
+		assertEquals(prop, lazy.getDecodedProperty(3));
+		for (int i = 0; i < props.length; i++) {
+			if (i != 3) {
+				assertNull(lazy.getDecodedProperty(i));
+			}
+		}
+		assertEquals(propertyList[1].toString(), lazy.getPropertyByID(0x20L)
+				.toString());
+		assertNull(lazy.getPropertyByID(0x60L));
+		assertNull(lazy.getPropertyByID(0x100000040L));
+		assertTrue(Arrays.equals(expected, BinaryDataConverter
+				.createData(lazy)));
+
+		// all properties are decoded
+		DBPFProperty[] decoded = lazy.getPropertyList();
+		assertFalse(lazy.isLazy());
+		assertEquals(props.length, decoded.length);
+		for (int i = 0; i < props.length; i++) {
+			assertEquals(propertyList[i].toString(), decoded[i].toString());
+		}
+		assertTrue(Arrays.equals(expected, BinaryDataConverter
+				.createData(lazy)));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testLazyExemplarCorrupt() throws DBPFException {
+		TestUtil.printLine("TEST: Lazy exemplar corrupt");
+		TestUtil.printLine();
+		DBPFProperty[] propertyList = new DBPFProperty[3];
+		for (int i = 0; i < propertyList.length; i++) {
+			propertyList[i] = new DBPFLongProperty(0x10L + i,
+					DBPFPropertyTypes.UINT32, new long[] { i });
+		}
+		DBPFExemplar exemplar = new DBPFExemplar();
+		exemplar.setPropertyList(propertyList);
+		exemplar.setFormat(DBPFConstant.FORMAT_BINARY);
+		short[] data = BinaryDataConverter.createData(exemplar);
+		DBPFExemplar lazy = BinaryDataConverter.createExemplar(data, true);
+
+		// the type ID of the second property is corrupted after the scan, so
+		// the error occurs not before the property is decoded
+		int offset = 0x18 + propertyList[0].getBinaryLength();
+		DBPFUtil.setUint32(0x0400L, data, offset + 4, 2);
+		assertEquals(3, lazy.getPropertyCount());
+		assertEquals(propertyList[0].toString(), lazy.getPropertyByID(0x10L)
+				.toString());
+		try {
+			lazy.getPropertyByID(0x11L);
+			fail("Corrupt property decoded");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof DBPFException);
+		}
+		assertNull(lazy.getDecodedProperty(1));
+		assertEquals(propertyList[2].toString(), lazy.getProperty(2)
+				.toString());
+		try {
+			lazy.getPropertyList();
+			fail("Corrupt property decoded");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof DBPFException);
+		}
+		TestUtil.printLine();
+	}
+
 	/**
 	 * Checks the file.<br>
 	 * 
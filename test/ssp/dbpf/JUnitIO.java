@@ -0,0 +1,989 @@
+package ssp.dbpf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import ssp.dbpf.converter.CompressionLevel;
+import ssp.dbpf.converter.DBPFConverter;
+import ssp.dbpf.converter.DBPFPackager;
+import ssp.dbpf.converter.QFSInputStream;
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.io.DBPFIndexCache;
+import ssp.dbpf.io.DBPFReader;
+import ssp.dbpf.io.DBPFScanner;
+import ssp.dbpf.io.DBPFStreamWriter;
+import ssp.dbpf.io.DBPFUpdater;
+import ssp.dbpf.io.DBPFWriter;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIKeys;
+import ssp.dbpf.types.DBPFLUA;
+import ssp.dbpf.types.DBPFLazyType;
+import ssp.dbpf.types.DBPFRaw;
+import ssp.dbpf.types.DBPFType;
+import ssp.dbpf.util.DBPFConstant;
+import ssp.dbpf.util.DBPFUtil;
+
+/**
+ * Tests the DBPF reading and writing with generated files.<br>
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class JUnitIO extends TestCase {
+
+	private File dstFolder = new File("testfiles" + File.separator + "io"
+			+ File.separator + "out");
+
+	@Override
+	protected void setUp() throws Exception {
+		if (!dstFolder.exists()) {
+			assertEquals(true, dstFolder.mkdirs());
+		}
+	}
+
+	@Test
+	public void testReadIndex() throws DBPFException {
+		TestUtil.printLine("TEST: Read index");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "ReadIndex.dat");
+		List<DBPFType> typeList = createTypes(500);
+		DBPFWriter.write(file, typeList);
+
+		DBPFContainer container = DBPFReader.read(file);
+		assertNotNull(container);
+		TestUtil.printLine("Entries: " + container.getIndexEntryCount());
+		assertEquals(1, container.getMajorVersion());
+		assertEquals(typeList.size(), container.getIndexEntryCount());
+		assertEquals(typeList.size(), container.getEntryList().size());
+		for (int i = 0; i < typeList.size(); i++) {
+			DBPFEntry entry = container.getEntryList().get(i);
+			assertEquals(typeList.get(i).getTGIKey().toString(), entry
+					.getTGIKey().toString());
+			DBPFRaw raw = (DBPFRaw) DBPFConverter.createType(entry, true);
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					raw.getData()));
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testCompactIndex() throws DBPFException {
+		TestUtil.printLine("TEST: Compact index");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "CompactIndex.dat");
+		List<DBPFType> typeList = createTypes(300);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		lua.setString("-- lua lua lua lua lua lua lua lua lua lua");
+		typeList.add(lua);
+		DBPFWriter.write(file, typeList);
+
+		DBPFContainer container = DBPFReader.read(file);
+		DBPFContainer compact = DBPFReader.read(file, false, true);
+		assertTrue(compact.getEntryList() instanceof DBPFEntryTable);
+		assertEquals(container.getEntryList().size(), compact.getEntryList()
+				.size());
+		for (int i = 0; i < container.getEntryList().size(); i++) {
+			DBPFEntry entry = container.getEntryList().get(i);
+			DBPFEntry view = compact.getEntryList().get(i);
+			assertEquals(entry.toString(), view.toString());
+			assertEquals(entry, view);
+			assertEquals(entry.isCompressed(), view.isCompressed());
+			assertEquals(entry.getDecompressedSize(), view.getDecompressedSize());
+			assertEquals(file, view.getFilename());
+			assertSame(compact, view.getContainer());
+		}
+		DBPFEntry found = compact.getEntry(lua.getTGIKey());
+		assertTrue(found.isCompressed());
+		compact.open();
+		try {
+			assertTrue(Arrays.equals(DBPFReader.readBytes(container
+					.getEntry(lua.getTGIKey())), compact.readBytes(found)));
+		} finally {
+			compact.close();
+		}
+
+		// views write through, added entries are copied
+		DBPFEntryTable table = (DBPFEntryTable) compact.getEntryList();
+		table.get(0).setOffset(0x1234L);
+		assertEquals(0x1234L, table.getOffset(0));
+		// the shared filename and container are not changed by a view,
+		// setting the same values is allowed
+		table.get(0).setFilename(new File(file.getPath()));
+		table.get(0).setContainer(compact);
+		try {
+			table.get(0).setFilename(new File("other.dat"));
+			fail("Filename of a view set");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			table.get(0).setContainer(container);
+			fail("Container of a view set");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(file, table.get(1).getFilename());
+		assertSame(compact, table.get(1).getContainer());
+		DBPFEntry entry = new DBPFEntry(new TGIKey(1, 2, 3));
+		entry.setSize(10);
+		compact.addEntry(entry);
+		assertNull(entry.getContainer());
+		assertEquals(2L, table.getGID(table.size() - 1));
+		assertEquals(table.size() - 1, table.indexOf(1, 2, 3));
+		assertEquals(entry, compact.getEntry(new TGIKey(1, 2, 3)));
+		assertEquals(entry.toString(), table.remove(table.size() - 1)
+				.toString());
+		assertEquals(-1, table.indexOf(1, 2, 3));
+		try {
+			table.add(-1, 0, 0, 0, 0);
+			fail("Negative TID accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testOpenStream() throws DBPFException, IOException {
+		TestUtil.printLine("TEST: Open stream");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "OpenStream.dat");
+		List<DBPFType> typeList = createTypes(10);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append("-- line " + i + "\n");
+		}
+		lua.setString(sb.toString());
+		typeList.add(lua);
+		DBPFWriter.write(file, typeList);
+
+		DBPFContainer container = DBPFReader.read(file);
+		DBPFEntry entry = container.getEntry(lua.getTGIKey());
+		assertTrue(entry.isCompressed());
+		byte[] dData = DBPFPackager.decompress(DBPFReader.readBytes(entry));
+
+		// only the first bytes
+		QFSInputStream in = DBPFReader.openStream(entry);
+		assertTrue(in.isCompressed());
+		assertEquals(entry.getDecompressedSize(), in.getDecompressedSize());
+		byte[] header = new byte[16];
+		assertEquals(header.length, in.read(header));
+		in.close();
+		assertTrue(Arrays.equals(Arrays.copyOf(dData, header.length), header));
+
+		// uncompressed entry through the open container
+		container.open();
+		try {
+			entry = container.getEntryList().get(0);
+			in = DBPFReader.openStream(entry);
+			assertFalse(in.isCompressed());
+			byte[] data = new byte[(int) entry.getSize()];
+			assertEquals(data.length, in.read(data));
+			assertEquals(-1, in.read());
+			assertTrue(Arrays.equals(DBPFReader.readBytes(entry), data));
+		} finally {
+			container.close();
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testUpdatePassthrough() throws DBPFException {
+		TestUtil.printLine("TEST: Update passthrough");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "UpdatePassthrough.dat");
+		List<DBPFType> typeList = createTypes(20);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			sb.append("-- line " + i + "\n");
+		}
+		lua.setString(sb.toString());
+		typeList.add(lua);
+		DBPFWriter.write(file, typeList);
+
+		DBPFContainer container = DBPFReader.read(file);
+		byte[] luaBytes = DBPFReader.readBytes(container.getEntry(lua
+				.getTGIKey()));
+
+		// update a single type
+		DBPFRaw raw = new DBPFRaw();
+		raw.setTGIKey(typeList.get(3).getTGIKey());
+		raw.setData(new short[] { 4, 5, 6 });
+		List<DBPFType> updateList = new ArrayList<DBPFType>();
+		updateList.add(raw);
+		assertTrue(DBPFUpdater.updateDBPF(file, updateList));
+		assertFalse(new File(dstFolder, file.getName() + ".tmp").exists());
+
+		DBPFContainer updated = DBPFReader.read(file);
+		assertEquals(container.getEntryList().size(), updated
+				.getEntryList().size());
+		for (int i = 0; i < 20; i++) {
+			short[] data = DBPFReader.readData(updated.getEntryList().get(i));
+			if (i == 3) {
+				assertTrue(Arrays.equals(raw.getData(), data));
+			} else {
+				assertTrue(Arrays.equals(
+						((DBPFRaw) typeList.get(i)).getData(), data));
+			}
+		}
+		// the compressed type is copied byte by byte
+		DBPFEntry entry = updated.getEntry(lua.getTGIKey());
+		assertTrue(entry.isCompressed());
+		assertTrue(Arrays.equals(luaBytes, DBPFReader.readBytes(entry)));
+		DBPFType type = DBPFConverter.createType(entry);
+		assertTrue(type instanceof DBPFLUA);
+		assertEquals(sb.toString(), ((DBPFLUA) type).getString());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testWriteIncremental() throws DBPFException {
+		TestUtil.printLine("TEST: Write incremental");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "WriteIncremental.dat");
+		List<DBPFType> typeList = createTypes(100);
+		DBPFWriter.write(file, typeList);
+		long length = file.length();
+		assertEquals(0.0, DBPFWriter.getUnusedRatio(file));
+
+		// change one type, the others stay in place
+		DBPFCollection collection = DBPFReader.readCollection(file, true);
+		List<DBPFType> writeList = collection.getTypeList();
+		DBPFRaw raw = new DBPFRaw();
+		raw.setTGIKey(typeList.get(5).getTGIKey());
+		raw.setData(new short[] { 4, 5, 6 });
+		writeList.set(5, raw);
+		DBPFWriter.writeIncremental(file, writeList, CompressionLevel.DEFAULT);
+		collection.close();
+		assertEquals(length + 3 + 20 * 100, file.length());
+		assertTrue(DBPFWriter.getUnusedRatio(file) > 0.0);
+
+		DBPFContainer container = DBPFReader.read(file);
+		assertEquals(100, container.getEntryList().size());
+		for (int i = 0; i < 100; i++) {
+			DBPFEntry entry = container.getEntryList().get(i);
+			short[] data = DBPFReader.readData(entry);
+			if (i == 5) {
+				assertEquals(length, entry.getOffset());
+				assertTrue(Arrays.equals(raw.getData(), data));
+			} else {
+				assertTrue(Arrays.equals(
+						((DBPFRaw) typeList.get(i)).getData(), data));
+			}
+		}
+
+		// compact only above the threshold
+		assertFalse(DBPFWriter.compact(file, 0.9));
+		assertTrue(DBPFWriter.compact(file, 0.01));
+		assertEquals(0.0, DBPFWriter.getUnusedRatio(file));
+		container = DBPFReader.read(file);
+		assertEquals(100, container.getEntryList().size());
+		assertTrue(Arrays.equals(raw.getData(), DBPFReader
+				.readData(container.getEntryList().get(5))));
+		assertTrue(Arrays.equals(((DBPFRaw) typeList.get(99)).getData(),
+				DBPFReader.readData(container.getEntryList().get(99))));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testOpenContainer() throws DBPFException {
+		TestUtil.printLine("TEST: Open container");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "OpenContainer.dat");
+		List<DBPFType> typeList = createTypes(100);
+		DBPFWriter.write(file, typeList);
+
+		DBPFContainer container = DBPFReader.read(file, true);
+		try {
+			assertTrue(container.isOpen());
+			for (int i = 0; i < typeList.size(); i++) {
+				DBPFEntry entry = container.getEntryList().get(i);
+				assertSame(container, entry.getContainer());
+				assertTrue(Arrays.equals(
+						((DBPFRaw) typeList.get(i)).getData(),
+						container.readData(entry)));
+			}
+		} finally {
+			container.close();
+		}
+		assertFalse(container.isOpen());
+
+		// closed container falls back to open the file for each entry
+		DBPFEntry entry = container.getEntryList().get(1);
+		assertTrue(Arrays.equals(((DBPFRaw) typeList.get(1)).getData(),
+				DBPFReader.readData(entry)));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testLazyCollection() throws DBPFException {
+		TestUtil.printLine("TEST: Lazy collection");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "LazyCollection.dat");
+		List<DBPFType> typeList = createTypes(200);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("-- line " + i + "\r\n");
+		}
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		lua.setString(sb.toString());
+		typeList.add(lua);
+		DBPFWriter.write(file, typeList);
+
+		DBPFCollection collection = DBPFReader.readCollection(file, true);
+		DBPFLazyType lazyLua = null;
+		try {
+			// the writer added the directory to the list
+			assertEquals(202, typeList.size());
+			assertEquals(typeList.size(), collection.getTypeList().size());
+			for (DBPFType type : collection.getTypeList()) {
+				assertTrue(type instanceof DBPFLazyType);
+				assertFalse(((DBPFLazyType) type).isLoaded());
+				if (type.getTGIKey().equals(lua.getTGIKey())) {
+					lazyLua = (DBPFLazyType) type;
+				}
+			}
+			assertNotNull(lazyLua);
+			// compressed flag and size from the directory
+			assertTrue(lazyLua.isCompressed());
+			assertEquals(sb.length(), lazyLua.getDecompressedSize());
+			// the type is derived from the TGI without loading
+			assertEquals(TGIKeys.LUA.getFormatID(), lazyLua.getType());
+			assertEquals(TGIKeys.RAW.getFormatID(), collection.getTypeList()
+					.get(0).getType());
+			assertEquals(TGIKeys.DIRECTORY.getFormatID(), collection
+					.getTypeList().get(201).getType());
+			assertFalse(lazyLua.isLoaded());
+			DBPFType loaded = lazyLua.load();
+			assertTrue(lazyLua.isLoaded());
+			assertTrue(loaded instanceof DBPFLUA);
+			assertEquals(sb.toString(), ((DBPFLUA) loaded).getString());
+			lazyLua.release();
+			assertFalse(lazyLua.isLoaded());
+
+			// write back to the same file
+			DBPFWriter.write(file, collection.getTypeList());
+		} finally {
+			collection.close();
+		}
+
+		collection = DBPFReader.readCollection(file);
+		assertEquals(typeList.size(), collection.getTypeList().size());
+		for (int i = 0; i < 200; i++) {
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					((DBPFRaw) collection.getTypeList().get(i)).getData()));
+		}
+		DBPFType type = collection.getTypeList().get(200);
+		assertTrue(type instanceof DBPFLUA);
+		assertTrue(type.isCompressed());
+		assertEquals(sb.toString(), ((DBPFLUA) type).getString());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testParallelCollection() throws DBPFException {
+		TestUtil.printLine("TEST: Parallel collection");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "ParallelCollection.dat");
+		List<DBPFType> typeList = createTypes(1000);
+		DBPFWriter.write(file, typeList);
+
+		DBPFCollection collection = DBPFReader.readCollection(file, 4);
+		assertEquals(typeList.size(), collection.getTypeList().size());
+		for (int i = 0; i < typeList.size(); i++) {
+			DBPFType type = collection.getTypeList().get(i);
+			assertEquals(typeList.get(i).getTGIKey().toString(), type
+					.getTGIKey().toString());
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					((DBPFRaw) type).getData()));
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testParallelWrite() throws DBPFException {
+		TestUtil.printLine("TEST: Parallel write");
+		TestUtil.printLine();
+		File fileSeq = new File(dstFolder, "WriteSequential.dat");
+		File filePar = new File(dstFolder, "WriteParallel.dat");
+		List<DBPFType> typeList = createTypes(300);
+		for (int i = 0; i < typeList.size(); i += 3) {
+			typeList.get(i).setCompressed(true);
+		}
+		DBPFWriter.write(fileSeq, typeList, CompressionLevel.DEFAULT);
+		DBPFWriter.write(filePar, typeList, CompressionLevel.DEFAULT, 4);
+
+		// same file, except the dates of the header
+		byte[] dataSeq = DBPFReader.readRawBytes(fileSeq);
+		byte[] dataPar = DBPFReader.readRawBytes(filePar);
+		assertEquals(dataSeq.length, dataPar.length);
+		Arrays.fill(dataSeq, 24, 32, (byte) 0);
+		Arrays.fill(dataPar, 24, 32, (byte) 0);
+		assertTrue(Arrays.equals(dataSeq, dataPar));
+
+		// the writer added the directory to the list
+		DBPFCollection collection = DBPFReader.readCollection(filePar);
+		assertEquals(301, collection.getTypeList().size());
+		for (int i = 0; i < 300; i++) {
+			DBPFType type = collection.getTypeList().get(i);
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					((DBPFRaw) type).getData()));
+		}
+		try {
+			DBPFWriter.write(filePar, typeList, CompressionLevel.DEFAULT, 0);
+			fail("Parallelism 0 accepted");
+		} catch (DBPFException e) {
+			// expected
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testParallelWriteFailure() throws DBPFException {
+		TestUtil.printLine("TEST: Parallel write failure");
+		TestUtil.printLine();
+		File source = new File(dstFolder, "WriteFailureSource.dat");
+		File file = new File(dstFolder, "WriteFailure.dat");
+		List<DBPFType> typeList = createTypes(300);
+		DBPFWriter.write(source, typeList);
+
+		DBPFCollection collection = DBPFReader.readCollection(source, true);
+		try {
+			for (int n = 0; n < 5; n++) {
+				// the lazy types are read through the channel of the
+				// collection
+				List<DBPFType> writeList = new ArrayList<DBPFType>(
+						collection.getTypeList());
+				for (int i = 0; i < writeList.size(); i += 2) {
+					writeList.get(i).setCompressed(true);
+				}
+				DBPFRaw broken = new DBPFRaw() {
+					@Override
+					public byte[] getBytes() {
+						throw new IllegalStateException("Broken type");
+					}
+				};
+				broken.setTGIKey(new TGIKey(0x1L, 0x2L, 0x3L));
+				writeList.add(10 + n * 20, broken);
+				try {
+					DBPFWriter.write(file, writeList,
+							CompressionLevel.DEFAULT, 4);
+					fail("Broken type written");
+				} catch (DBPFException e) {
+					// expected
+				}
+			}
+			for (int i = 0; i < 300; i++) {
+				DBPFLazyType lazy = (DBPFLazyType) collection.getTypeList()
+						.get(i);
+				assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i))
+						.getData(), ((DBPFRaw) lazy.load()).getData()));
+				lazy.release();
+			}
+		} finally {
+			collection.close();
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testStreamWriter() throws DBPFException {
+		TestUtil.printLine("TEST: Stream writer");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "StreamWriter.dat");
+		List<DBPFType> typeList = createTypes(200);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append("-- line " + i + "\n");
+		}
+		lua.setString(sb.toString());
+		typeList.add(lua);
+
+		DBPFStreamWriter writer = new DBPFStreamWriter(file);
+		for (DBPFType type : typeList) {
+			writer.add(type);
+		}
+		byte[] big = new byte[0x30000];
+		for (int i = 0; i < big.length; i++) {
+			big[i] = (byte) (i * 31);
+		}
+		TGIKey bigKey = new TGIKey(0x12345678L, 0x1L, 0x2L);
+		writer.addRaw(bigKey, big, false, big.length);
+		assertEquals(202, writer.size());
+		writer.close();
+		assertFalse(writer.isOpen());
+		assertFalse(new File(dstFolder, file.getName() + ".tmp").exists());
+
+		// the writer added the directory of the compressed LUA
+		DBPFCollection collection = DBPFReader.readCollection(file);
+		assertEquals(203, collection.getTypeList().size());
+		for (int i = 0; i < 200; i++) {
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					((DBPFRaw) collection.getTypeList().get(i)).getData()));
+		}
+		DBPFType type = collection.getTypeList().get(200);
+		assertTrue(type.isCompressed());
+		assertEquals(sb.toString(), ((DBPFLUA) type).getString());
+		assertTrue(Arrays.equals(big, ((DBPFRaw) collection.getTypeList()
+				.get(201)).getBytes()));
+		assertEquals(TGIKeys.DIRECTORY.getTGIKey(), collection.getTypeList()
+				.get(202).getTGIKey());
+
+		// aborted writer leaves the file unchanged
+		long length = file.length();
+		writer = new DBPFStreamWriter(file);
+		writer.add(typeList.get(0));
+		writer.abort();
+		assertEquals(length, file.length());
+		try {
+			writer.add(typeList.get(1));
+			fail("Aborted writer accepted type");
+		} catch (DBPFException e) {
+			// expected
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testStreamWriterFailure() throws DBPFException {
+		TestUtil.printLine("TEST: Stream writer failure");
+		TestUtil.printLine();
+		File source = new File(dstFolder, "StreamSource.dat");
+		File file = new File(dstFolder, "StreamFailure.dat");
+		List<DBPFType> typeList = createTypes(30);
+		DBPFWriter.write(source, typeList);
+		DBPFContainer container = DBPFReader.read(source);
+
+		// the entry exceeds the end of the source file
+		DBPFEntry broken = new DBPFEntry(new TGIKey(0x1L, 0x2L, 0x3L));
+		broken.setFilename(source);
+		broken.setOffset(source.length() - 100);
+		broken.setSize(1000);
+
+		DBPFStreamWriter writer = new DBPFStreamWriter(file);
+		for (int i = 0; i < 10; i++) {
+			writer.add(typeList.get(i));
+		}
+		try {
+			writer.addEntry(broken);
+			fail("Truncated entry accepted");
+		} catch (DBPFException e) {
+			// expected
+		}
+		assertTrue(writer.isOpen());
+		// the offsets of the index are unsigned 32 bit values
+		DBPFEntry huge = new DBPFEntry(new TGIKey(0x1L, 0x2L, 0x4L));
+		huge.setFilename(source);
+		huge.setSize(0xFFFFFFFFL);
+		try {
+			writer.addEntry(huge);
+			fail("Entry over 4 GB accepted");
+		} catch (DBPFException e) {
+			// expected
+		}
+		assertTrue(writer.isOpen());
+		assertEquals(10, writer.size());
+		for (int i = 10; i < 20; i++) {
+			writer.addEntry(container.getEntryList().get(i));
+		}
+		for (int i = 20; i < 30; i++) {
+			writer.add(typeList.get(i));
+		}
+		// a directory is created by the writer
+		writer.addRaw(TGIKeys.DIRECTORY.getTGIKey(), new byte[16], false, 16);
+		assertEquals(30, writer.size());
+		writer.close();
+
+		DBPFCollection collection = DBPFReader.readCollection(file);
+		assertEquals(30, collection.getTypeList().size());
+		for (int i = 0; i < 30; i++) {
+			assertEquals(typeList.get(i).getTGIKey(), collection
+					.getTypeList().get(i).getTGIKey());
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					((DBPFRaw) collection.getTypeList().get(i)).getData()));
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testTransferEntries() throws DBPFException {
+		TestUtil.printLine("TEST: Transfer entries");
+		TestUtil.printLine();
+		File fileA = new File(dstFolder, "TransferA.dat");
+		File fileB = new File(dstFolder, "TransferB.dat");
+		File fileMerged = new File(dstFolder, "TransferMerged.dat");
+		List<DBPFType> typeList = createTypes(50);
+		DBPFWriter.write(fileA, typeList.subList(0, 20));
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append("-- line " + i + "\n");
+		}
+		lua.setString(sb.toString());
+		List<DBPFType> listB = new ArrayList<DBPFType>(typeList.subList(20,
+				50));
+		listB.add(lua);
+		DBPFWriter.write(fileB, listB);
+
+		// merge both files, the directory of B is created again
+		DBPFContainer containerA = DBPFReader.read(fileA);
+		DBPFContainer containerB = DBPFReader.read(fileB);
+		List<DBPFEntry> entryList = new ArrayList<DBPFEntry>();
+		entryList.addAll(containerA.getEntryList());
+		entryList.addAll(containerB.getEntryList());
+		DBPFWriter.writeEntries(fileMerged, entryList);
+
+		DBPFContainer merged = DBPFReader.read(fileMerged);
+		assertEquals(52, merged.getEntryList().size());
+		for (int i = 0; i < 50; i++) {
+			DBPFEntry entry = merged.getEntryList().get(i);
+			assertEquals(typeList.get(i).getTGIKey(), entry.getTGIKey());
+			assertTrue(Arrays.equals(((DBPFRaw) typeList.get(i)).getData(),
+					DBPFReader.readData(entry)));
+		}
+		DBPFEntry entry = merged.getEntry(lua.getTGIKey());
+		DBPFEntry source = containerB.getEntry(lua.getTGIKey());
+		assertTrue(entry.isCompressed());
+		assertEquals(source.getDecompressedSize(), entry
+				.getDecompressedSize());
+		assertTrue(Arrays.equals(DBPFReader.readBytes(source), DBPFReader
+				.readBytes(entry)));
+		assertEquals(sb.toString(), ((DBPFLUA) DBPFConverter
+				.createType(entry)).getString());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testScanFolder() throws DBPFException {
+		TestUtil.printLine("TEST: Scan folder");
+		TestUtil.printLine();
+		File folder = new File(dstFolder, "scan");
+		File subFolder = new File(folder, "a");
+		if (!subFolder.exists()) {
+			assertEquals(true, subFolder.mkdirs());
+		}
+		TGIKey keyA = new TGIKey(0x11L, 0x22L, 0x01L);
+		TGIKey keyB = new TGIKey(0x11L, 0x22L, 0x02L);
+		TGIKey keyC = new TGIKey(0x11L, 0x22L, 0x03L);
+		File fileA = new File(folder, "A.sc4lot");
+		File fileB = new File(folder, "b.dat");
+		File fileZ = new File(subFolder, "z.dat");
+		DBPFWriter.write(fileB, createTypes(keyA, keyB));
+		DBPFWriter.write(fileA, createTypes(keyA, keyC));
+		DBPFWriter.write(fileZ, createTypes(keyB));
+		List<String> lines = new ArrayList<String>();
+		lines.add("No DBPF file");
+		DBPFWriter.writeText(new File(folder, "broken.dat"), lines, false);
+		DBPFWriter.writeText(new File(folder, "readme.txt"), lines, false);
+
+		List<File> fileList = DBPFScanner.listFiles(folder);
+		assertEquals(4, fileList.size());
+		assertEquals(fileA, fileList.get(0));
+		assertEquals(fileB, fileList.get(1));
+		assertEquals(fileZ, fileList.get(3));
+
+		DBPFPluginIndex index = DBPFScanner.scan(folder, 2);
+		TestUtil.printLine(index.toString());
+		assertEquals(3, index.getFileList().size());
+		assertEquals(3, index.size());
+		assertEquals(fileB, index.getWinner(keyA).getFilename());
+		assertEquals(fileZ, index.getWinner(keyB).getFilename());
+		assertEquals(fileA, index.getWinner(keyC).getFilename());
+		assertEquals(1, index.getShadowed(keyA).size());
+		assertEquals(fileA, index.getShadowed(keyA).get(0).getFilename());
+		assertEquals(0, index.getShadowed(keyC).size());
+		assertEquals(2, index.getShadowedCount());
+		assertTrue(index.isShadowed(index.getShadowed(keyB).get(0)));
+		assertFalse(index.isShadowed(index.getWinner(keyB)));
+		assertEquals(1, index.getOverrides().get(fileZ).size());
+		assertEquals(2, index.getEntries(keyB).size());
+		assertEquals(fileB, index.getEntries(keyB).get(0).getFilename());
+		assertEquals(fileZ, index.getEntries(keyB).get(1).getFilename());
+		assertEquals(0, index.getEntries(new TGIKey(0x11L, 0x22L, 0x04L))
+				.size());
+		assertEquals(Arrays.asList(keyA, keyC, keyB), index.getTGIKeys());
+
+		// the entries of the containers are new views on each access
+		int shadowed = 0;
+		for (DBPFContainer container : index.getContainerList()) {
+			for (DBPFEntry entry : container.getEntryList()) {
+				if (TGIKeys.DIRECTORY.getTGIKey().equals(entry.getTGIKey())) {
+					continue;
+				}
+				boolean expected = !container.getFilename().equals(
+						index.getWinner(entry.getTGIKey()).getFilename());
+				assertEquals(entry.toString(), expected, index
+						.isShadowed(entry));
+				if (expected) {
+					shadowed++;
+				}
+			}
+		}
+		assertEquals(2, shadowed);
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testIndexCache() throws DBPFException {
+		TestUtil.printLine("TEST: Index cache");
+		TestUtil.printLine();
+		File folder = new File(dstFolder, "cache");
+		if (!folder.exists()) {
+			assertEquals(true, folder.mkdirs());
+		}
+		File cacheFile = new File(dstFolder, "cache.idx");
+		cacheFile.delete();
+		File file1 = new File(folder, "1.dat");
+		File file2 = new File(folder, "2.dat");
+		List<DBPFType> typeList = createTypes(50);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		lua.setString("-- lua lua lua lua lua lua lua lua lua lua");
+		typeList.add(lua);
+		DBPFWriter.write(file1, typeList);
+		DBPFWriter.write(file2, createTypes(10));
+
+		DBPFPluginIndex index = DBPFScanner.scan(folder, 2, cacheFile);
+		assertEquals(2, index.getFileList().size());
+		assertTrue(cacheFile.exists());
+
+		// all files from cache
+		DBPFIndexCache cache = DBPFIndexCache.load(cacheFile);
+		assertEquals(2, cache.size());
+		DBPFContainer cached = cache.read(file1);
+		DBPFContainer container = DBPFReader.read(file1);
+		assertEquals(1, cache.getHits());
+		assertEquals(container.getEntryList().size(), cached.getEntryList()
+				.size());
+		for (int i = 0; i < container.getEntryList().size(); i++) {
+			DBPFEntry entry = container.getEntryList().get(i);
+			DBPFEntry cachedEntry = cached.getEntryList().get(i);
+			assertEquals(entry.toString(), cachedEntry.toString());
+			assertEquals(entry.isCompressed(), cachedEntry.isCompressed());
+			assertEquals(entry.getDecompressedSize(),
+					cachedEntry.getDecompressedSize());
+		}
+		assertTrue(index.getWinner(lua.getTGIKey()).isCompressed());
+		// the cached table is shared, not copied on each read
+		assertSame(cached.getEntryList(), cache.read(file1).getEntryList());
+		assertEquals(2, cache.getHits());
+
+		// changed file is read again
+		DBPFWriter.write(file2, createTypes(20));
+		file2.setLastModified(file2.lastModified() + 2000);
+		cache.read(file2);
+		assertEquals(1, cache.getMisses());
+		index = DBPFScanner.scan(folder, 2, cacheFile);
+		// the TGIs of the second file override the first 20 of the first
+		assertEquals(51, index.size());
+		assertEquals(20, index.getShadowedCount());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testWriteFailure() throws DBPFException {
+		TestUtil.printLine("TEST: Write failure");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "WriteKept.dat");
+		File temp = new File(dstFolder, "WriteKept.dat.tmp");
+		DBPFWriter.write(file, createTypes(30));
+		short[] original = DBPFReader.readRawData(file);
+
+		// the entry exceeds the end of the file
+		DBPFEntry entry = new DBPFEntry(new TGIKey(0x1L, 0x2L, 0x3L));
+		entry.setFilename(file);
+		entry.setOffset(file.length() - 100);
+		entry.setSize(1000);
+		List<DBPFType> writeList = createTypes(50);
+		writeList.add(25, new DBPFLazyType(entry));
+		try {
+			DBPFWriter.write(file, writeList);
+			fail("Truncated entry written");
+		} catch (DBPFException e) {
+			// expected
+		}
+		assertTrue(Arrays.equals(original, DBPFReader.readRawData(file)));
+		assertFalse(temp.exists());
+
+		// a type, which can not create its data
+		DBPFRaw broken = new DBPFRaw() {
+			@Override
+			public byte[] getBytes() {
+				throw new IllegalStateException("Broken type");
+			}
+		};
+		broken.setTGIKey(new TGIKey(0x1L, 0x2L, 0x3L));
+		writeList = createTypes(50);
+		writeList.add(25, broken);
+		try {
+			DBPFWriter.write(file, writeList, CompressionLevel.DEFAULT, 4);
+			fail("Broken type written");
+		} catch (DBPFException e) {
+			// expected
+		}
+		assertTrue(Arrays.equals(original, DBPFReader.readRawData(file)));
+		assertFalse(temp.exists());
+		try {
+			DBPFWriter.write(file, writeList);
+			fail("Broken type written");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertTrue(Arrays.equals(original, DBPFReader.readRawData(file)));
+		assertFalse(temp.exists());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testWriteFormat() throws DBPFException {
+		TestUtil.printLine("TEST: Write format");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "WriteFormat.dat");
+		List<DBPFType> typeList = new ArrayList<DBPFType>();
+		short[] data = new short[100];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (short) i;
+		}
+		DBPFRaw raw = new DBPFRaw();
+		raw.setTGIKey(new TGIKey(0x1L, 0x2L, 0x3L));
+		raw.setData(data);
+		typeList.add(raw);
+		DBPFLUA lua = new DBPFLUA();
+		lua.setTGIKey(new TGIKey(TGIKeys.LUA.getTGIKey().getTID(),
+				TGIKeys.LUA.getTGIKey().getGID(), 0x1L));
+		lua.setCompressed(true);
+		lua.setString("-- lua lua lua lua lua lua lua lua lua lua");
+		typeList.add(lua);
+		raw = new DBPFRaw();
+		raw.setTGIKey(new TGIKey(0x4L, 0x5L, 0x6L));
+		raw.setData(new short[17]);
+		typeList.add(raw);
+		DBPFWriter.write(file, typeList);
+
+		// the header and index as written by the RandomAccessFile writer,
+		// the dates at 24 and 28 are skipped
+		long[] header = { 0x46504244L, 1, 0, 0, 0, 0, -1, -1, 7, 4, 0xF9,
+				0x50 };
+		long[][] index = { { 0x1L, 0x2L, 0x3L, 0x60, 0x64 },
+				{ 0xCA63E2A3L, 0x4A5E8EF6L, 0x1L, 0xC4, 0x14 },
+				{ 0x4L, 0x5L, 0x6L, 0xD8, 0x11 },
+				{ 0xE86B1EEFL, 0xE86B1EEFL, 0x286B1F03L, 0xE9, 0x10 } };
+		short[] rawData = DBPFReader.readRawData(file);
+		assertEquals(0x149, rawData.length);
+		for (int i = 0; i < header.length; i++) {
+			if (header[i] >= 0) {
+				assertEquals("Header " + i, header[i], DBPFUtil.getUint32(
+						rawData, i * 4, 4));
+			}
+		}
+		for (int i = header.length * 4; i < DBPFConstant.HEADERSIZE_DBPF; i++) {
+			assertEquals(0, rawData[i]);
+		}
+		for (int i = 0; i < index.length; i++) {
+			for (int j = 0; j < 5; j++) {
+				assertEquals("Index " + i, index[i][j], DBPFUtil.getUint32(
+						rawData, 0xF9 + i * 20 + j * 4, 4));
+			}
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testNoDBPF() throws DBPFException {
+		TestUtil.printLine("TEST: No DBPF");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "NoDBPF.txt");
+		List<String> lines = new ArrayList<String>();
+		lines.add("No DBPF file");
+		DBPFWriter.writeText(file, lines, false);
+		assertFalse(DBPFReader.checkFileType(file));
+		assertNull(DBPFReader.read(file));
+		try {
+			DBPFWriter.getUnusedRatio(file);
+			fail("Ratio of no DBPF file returned");
+		} catch (DBPFException e) {
+			// expected
+		}
+		try {
+			DBPFWriter.compact(file, 0);
+			fail("No DBPF file compacted");
+		} catch (DBPFException e) {
+			// expected
+		}
+		assertTrue(file.exists());
+		TestUtil.printLine();
+	}
+
+	/**
+	 * Creates a list with raw types for the given TGIs.<br>
+	 * 
+	 * @param tgiKeys
+	 *            The TGIs
+	 * @return The list
+	 */
+	private static List<DBPFType> createTypes(TGIKey... tgiKeys) {
+		List<DBPFType> typeList = new ArrayList<DBPFType>();
+		for (TGIKey tgiKey : tgiKeys) {
+			DBPFRaw raw = new DBPFRaw();
+			raw.setTGIKey(tgiKey);
+			raw.setData(new short[] { 1, 2, 3 });
+			typeList.add(raw);
+		}
+		return typeList;
+	}
+
+	/**
+	 * Creates a list with raw types with pseudo random data.<br>
+	 * 
+	 * @param count
+	 *            The count of types
+	 * @return The list
+	 */
+	public static List<DBPFType> createTypes(int count) {
+		List<DBPFType> typeList = new ArrayList<DBPFType>();
+		for (int i = 0; i < count; i++) {
+			short[] data = new short[(i * 37) % 300];
+			for (int j = 0; j < data.length; j++) {
+				data[j] = (short) ((i + j * 7) & 0xFF);
+			}
+			DBPFRaw raw = new DBPFRaw();
+			raw.setTGIKey(new TGIKey(0x12345678L, 0xFFFFFFFFL - i, i));
+			raw.setData(data);
+			typeList.add(raw);
+		}
+		return typeList;
+	}
+}
@@ -0,0 +1,264 @@
+package ssp.dbpf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import ssp.dbpf.converter.CompressionLevel;
+import ssp.dbpf.converter.DBPFPackager;
+import ssp.dbpf.converter.DBPFPackagerInfo;
+import ssp.dbpf.converter.QFSInputStream;
+
+/**
+ * Tests the compression and decompression of the DBPFPackager.<br>
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class JUnitPackager extends TestCase {
+
+	/**
+	 * The MD5 of the compressed data of {@link #createData()} from the
+	 * compression of version 2.0.0
+	 */
+	private static final String REFERENCE_MD5 = "7e33224bce555603c3323c8a398fb851";
+
+	@Test
+	public void testCompressReference() throws NoSuchAlgorithmException {
+		TestUtil.printLine("TEST: Compress reference");
+		TestUtil.printLine();
+		MessageDigest md = MessageDigest.getInstance("MD5");
+		for (byte[] dData : createData()) {
+			byte[] cData = DBPFPackager.compress(dData);
+			md.update(cData);
+			assertTrue(Arrays.equals(dData, DBPFPackager.decompress(cData)));
+		}
+		StringBuilder sb = new StringBuilder();
+		for (byte b : md.digest()) {
+			sb.append(String.format("%02x", b));
+		}
+		TestUtil.printLine("MD5: " + sb);
+		assertEquals(REFERENCE_MD5, sb.toString());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testCompressionLevels() {
+		TestUtil.printLine("TEST: Compression levels");
+		TestUtil.printLine();
+		int[] sizes = new int[CompressionLevel.values().length];
+		for (byte[] dData : createData()) {
+			int sizeDefault = DBPFPackager.compress(dData, null,
+					CompressionLevel.DEFAULT).length;
+			for (CompressionLevel level : CompressionLevel.values()) {
+				byte[] cData = DBPFPackager.compress(dData, null, level);
+				assertTrue(level.name(), Arrays.equals(dData, DBPFPackager
+						.decompress(cData)));
+				sizes[level.ordinal()] += cData.length;
+				if (level.isOptimal()) {
+					assertTrue(cData.length <= sizeDefault);
+				}
+			}
+		}
+		for (CompressionLevel level : CompressionLevel.values()) {
+			TestUtil.printLine(level + ": " + sizes[level.ordinal()]);
+		}
+		assertTrue(sizes[CompressionLevel.MAX.ordinal()] < sizes[CompressionLevel.DEFAULT
+				.ordinal()]);
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testCompressIncompressible() {
+		TestUtil.printLine("TEST: Compress incompressible");
+		TestUtil.printLine();
+		// more plain bytes than the former fixed reserve of the output
+		byte[] dData = new byte[300000];
+		new Random(42).nextBytes(dData);
+		for (CompressionLevel level : CompressionLevel.values()) {
+			byte[] cData = DBPFPackager.compress(dData, null, level);
+			assertTrue(Arrays.equals(dData, DBPFPackager.decompress(cData)));
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testCompressMaxRepetitive() {
+		TestUtil.printLine("TEST: Compress max repetitive");
+		TestUtil.printLine();
+		// a period of 90 bytes with some noise has many long matches
+		Random random = new Random(12);
+		byte[] period = new byte[90];
+		random.nextBytes(period);
+		byte[] dData = new byte[0x100000];
+		for (int i = 0; i < dData.length; i++) {
+			dData[i] = random.nextInt(90) == 0 ? (byte) random.nextInt(256)
+					: period[i % period.length];
+		}
+		DBPFPackagerInfo infoDefault = new DBPFPackagerInfo();
+		byte[] cDefault = DBPFPackager.compress(dData, infoDefault,
+				CompressionLevel.DEFAULT);
+		DBPFPackagerInfo infoMax = new DBPFPackagerInfo();
+		byte[] cMax = DBPFPackager.compress(dData, infoMax,
+				CompressionLevel.MAX);
+		TestUtil.printLine("DEFAULT: " + infoDefault.getChainSteps()
+				+ " steps, " + cDefault.length + " bytes; MAX: "
+				+ infoMax.getChainSteps() + " steps, " + cMax.length
+				+ " bytes");
+		assertTrue(Arrays.equals(dData, DBPFPackager.decompress(cMax)));
+		assertTrue(cMax.length <= cDefault.length);
+		// the chains are left early, so on average less than an eighth of
+		// the full chain is checked at each position
+		assertTrue(infoMax.getChainSteps() < (long) dData.length
+				* CompressionLevel.MAX.getMaxIterations() / 8);
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testDecompressBuffer() {
+		TestUtil.printLine("TEST: Decompress buffer");
+		TestUtil.printLine();
+		byte[] buffer = new byte[200000];
+		for (byte[] dData : createData()) {
+			byte[] cData = DBPFPackager.compress(dData);
+			assertEquals(dData.length, DBPFPackager.getDecompressedSize(cData));
+			DBPFPackagerInfo info = new DBPFPackagerInfo();
+			int length = DBPFPackager.decompress(cData, buffer, info);
+			assertEquals(dData.length, length);
+			assertTrue(Arrays.equals(dData, Arrays.copyOf(buffer, length)));
+		}
+
+		// overlapping offset copies with short patterns
+		for (int period = 1; period < 6; period++) {
+			byte[] dData = new byte[5000];
+			for (int i = 0; i < dData.length; i++) {
+				dData[i] = (byte) (i % period);
+			}
+			byte[] cData = DBPFPackager.compress(dData, null,
+					CompressionLevel.MAX);
+			assertTrue(Arrays.equals(dData, DBPFPackager.decompress(cData)));
+		}
+
+		// too small buffer and truncated data
+		byte[] cData = DBPFPackager.compress(createData()[15]);
+		try {
+			DBPFPackager.decompress(cData, new byte[10], null);
+			fail("Too small buffer accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		byte[] truncated = Arrays.copyOf(cData, cData.length / 2);
+		assertEquals(DBPFPackager.getDecompressedSize(cData), DBPFPackager
+				.decompress(truncated).length);
+
+		// the dirty buffer is not reported as decompressed data
+		byte[] dData = createData()[15];
+		Arrays.fill(buffer, (byte) 0x55);
+		int length = DBPFPackager.decompress(truncated, buffer, null);
+		assertTrue(length < dData.length);
+		assertTrue(Arrays.equals(Arrays.copyOf(dData, length), Arrays.copyOf(
+				buffer, length)));
+		// the data before the corrupt part is still valid
+		int valid = DBPFPackager.decompress(Arrays.copyOf(cData,
+				cData.length / 3), buffer, null);
+		byte[] corrupt = cData.clone();
+		for (int i = cData.length / 3; i < cData.length; i++) {
+			corrupt[i] = (byte) 0xBF;
+		}
+		Arrays.fill(buffer, (byte) 0x55);
+		length = DBPFPackager.decompress(corrupt, buffer, null);
+		assertTrue(length < dData.length);
+		valid = Math.min(valid, length);
+		assertTrue(Arrays.equals(Arrays.copyOf(dData, valid), Arrays.copyOf(
+				buffer, valid)));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testQFSInputStream() throws IOException {
+		TestUtil.printLine("TEST: QFS input stream");
+		TestUtil.printLine();
+		Random random = new Random(42);
+		for (byte[] dData : createData()) {
+			byte[] cData = DBPFPackager.compress(dData);
+			QFSInputStream in = new QFSInputStream(cData);
+			assertEquals(dData.length > 6, in.isCompressed());
+			assertEquals(dData.length, in.getDecompressedSize());
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] b = new byte[5000];
+			int count;
+			while ((count = in.read(b, 0, 1 + random.nextInt(b.length))) >= 0) {
+				out.write(b, 0, count);
+			}
+			in.close();
+			assertTrue(Arrays.equals(dData, out.toByteArray()));
+
+			// as channel
+			ReadableByteChannel channel = new QFSInputStream(ByteBuffer
+					.wrap(cData));
+			ByteBuffer dst = ByteBuffer.allocateDirect(dData.length + 1);
+			while (channel.read(dst) > 0) {
+				// read all
+			}
+			channel.close();
+			dst.flip();
+			byte[] read = new byte[dst.remaining()];
+			dst.get(read);
+			assertTrue(Arrays.equals(dData, read));
+		}
+
+		// corrupt data
+		byte[] cData = DBPFPackager.compress(createData()[15]);
+		QFSInputStream in = new QFSInputStream(Arrays.copyOf(cData,
+				cData.length / 2));
+		try {
+			while (in.read() >= 0) {
+				// read all
+			}
+			fail("Truncated data read");
+		} catch (IOException e) {
+			TestUtil.printLine(e.getMessage());
+		}
+		TestUtil.printLine();
+	}
+
+	/**
+	 * Creates the test data with different lengths and repetitions.<br>
+	 * The data is longer than the maximal offset of the compression.
+	 * 
+	 * @return The list of decompressed data
+	 */
+	private static byte[][] createData() {
+		Random random = new Random(4711);
+		int[] lengths = new int[] { 0, 5, 7, 100, 3000, 70000, 150000 };
+		byte[][] data = new byte[lengths.length * 3][];
+		int n = 0;
+		for (int length : lengths) {
+			for (int mode = 0; mode < 3; mode++) {
+				byte[] dData = new byte[length];
+				for (int i = 0; i < length; i++) {
+					if (mode == 0) {
+						dData[i] = (byte) random.nextInt(4);
+					} else if (mode == 1) {
+						dData[i] = (byte) ((i % 37) * 3);
+					} else {
+						dData[i] = (byte) ('a' + random
+								.nextInt(random.nextInt(10) < 8 ? 4 : 26));
+					}
+				}
+				data[n++] = dData;
+			}
+		}
+		return data;
+	}
+}
@@ -1,17 +1,25 @@
 package ssp.dbpf;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.Vector;
 
 import junit.framework.TestCase;
 
 import org.junit.Test;
 
+import ssp.dbpf.converter.BinaryDataConverter;
 import ssp.dbpf.converter.PropertyConverter;
 import ssp.dbpf.event.DBPFException;
 import ssp.dbpf.io.DBPFReader;
 import ssp.dbpf.io.DBPFWriter;
+import ssp.dbpf.properties.DBPFLongProperty;
 import ssp.dbpf.properties.DBPFProperty;
+import ssp.dbpf.properties.DBPFPropertyTypes;
+import ssp.dbpf.types.DBPFExemplar;
 import ssp.dbpf.util.DBPFConstant;
 import ssp.dbpf.util.DBPFUtil;
 import ssp.xtools.io.XFileFilter;
@@ -53,6 +61,134 @@ public class JUnitProperties extends TestCase {
 		assertEquals(filelist.size(), dstFolder.listFiles().length);
 	}
 
+	@Test
+	public void testUnknownType() {
+		TestUtil.printLine("TEST: Unknown property type");
+		TestUtil.printLine();
+		for (DBPFPropertyTypes type : DBPFPropertyTypes.values()) {
+			assertSame(type, DBPFPropertyTypes.forID(type.id));
+		}
+		assertNull(DBPFPropertyTypes.forID((short) 0x0400));
+
+		// ID, type 0x0400, no count, unknown and one value
+		short[] rawData = new short[13];
+		DBPFUtil.setUint32(0x12345678L, rawData, 0, 4);
+		DBPFUtil.setUint32(0x0400L, rawData, 4, 2);
+		try {
+			PropertyConverter.createProperty(rawData, 0);
+			fail("Unknown type decoded");
+		} catch (DBPFException e) {
+			// expected
+		}
+		try {
+			PropertyConverter.getBinaryLength(rawData, 0);
+			fail("Length of unknown type returned");
+		} catch (DBPFException e) {
+			// expected
+		}
+		try {
+			PropertyConverter.createProperty("0x12345678:{\"Unknown\"}=Int8:0:{1}");
+			fail("Unknown type decoded");
+		} catch (DBPFException e) {
+			// expected
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testPropertyIndex() throws DBPFException {
+		TestUtil.printLine("TEST: Property index");
+		TestUtil.printLine();
+		Random random = new Random(24);
+		DBPFProperty[] propertyList = new DBPFProperty[40];
+		for (int i = 0; i < propertyList.length; i++) {
+			propertyList[i] = createProperty(random.nextInt(64), i);
+		}
+		DBPFExemplar exemplar = new DBPFExemplar();
+		exemplar.setPropertyList(propertyList);
+		exemplar.setFormat(DBPFConstant.FORMAT_BINARY);
+		DBPFExemplar lazy = BinaryDataConverter.createExemplar(
+				BinaryDataConverter.createData(exemplar), true);
+
+		// the same changes on the eager and lazy exemplar and a plain list
+		List<DBPFProperty> expected = new ArrayList<DBPFProperty>(Arrays
+				.asList(propertyList));
+		for (int n = 0; n < 300; n++) {
+			long id = random.nextInt(64);
+			int op = random.nextInt(4);
+			if (op == 0) {
+				DBPFProperty prop = createProperty(id, n);
+				boolean added = findProperty(expected, id) == null;
+				if (added) {
+					expected.add(prop);
+				}
+				assertEquals(added, exemplar.addProperty(prop));
+				assertEquals(added, lazy.addProperty(prop));
+			} else if (op == 1) {
+				DBPFProperty found = findProperty(expected, id);
+				expected.remove(found);
+				assertEquals(found != null, exemplar.removeProperty(id));
+				assertEquals(found != null, lazy.removeProperty(id));
+			} else if (op == 2) {
+				DBPFProperty[] updates = new DBPFProperty[random.nextInt(5)];
+				for (int i = 0; i < updates.length; i++) {
+					updates[i] = createProperty(random.nextInt(64), n);
+					int pos = expected.indexOf(findProperty(expected,
+							updates[i].getID()));
+					if (pos == -1) {
+						expected.add(updates[i]);
+					} else {
+						expected.set(pos, updates[i]);
+					}
+				}
+				long[] removeIDs = new long[random.nextInt(5)];
+				for (int i = 0; i < removeIDs.length; i++) {
+					removeIDs[i] = random.nextInt(64);
+					expected.remove(findProperty(expected, removeIDs[i]));
+				}
+				int changes = exemplar.updateProperties(updates, removeIDs);
+				assertEquals(changes, lazy.updateProperties(updates,
+						removeIDs));
+			}
+			assertEquals(expected.size(), exemplar.getPropertyCount());
+			assertEquals(expected.size(), lazy.getPropertyCount());
+			assertEquals(exemplar.getDecompressedSize(), lazy
+					.getDecompressedSize());
+			DBPFProperty found = findProperty(expected, id);
+			String value = found != null ? found.toString() : null;
+			assertEquals(value, toString(exemplar.getPropertyByID(id)));
+			assertEquals(value, toString(lazy.getPropertyByID(id)));
+		}
+		assertTrue(lazy.isLazy());
+		assertTrue(Arrays.equals(BinaryDataConverter.createData(exemplar),
+				BinaryDataConverter.createData(lazy)));
+		DBPFProperty[] result = exemplar.getPropertyList();
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), result[i].toString());
+		}
+		assertNull(exemplar.getPropertyByID(-1L));
+		assertNull(exemplar.getPropertyByID(0x100000000L));
+		TestUtil.printLine();
+	}
+
+	private static DBPFProperty createProperty(long id, long value) {
+		return new DBPFLongProperty(id, DBPFPropertyTypes.UINT32,
+				new long[] { value });
+	}
+
+	private static DBPFProperty findProperty(List<DBPFProperty> list, long id) {
+		for (DBPFProperty prop : list) {
+			if (prop.getID() == id) {
+				return prop;
+			}
+		}
+		return null;
+	}
+
+	private static String toString(DBPFProperty prop) {
+		return prop != null ? prop.toString() : null;
+	}
+
 	/**
 	 * Checks a value.<br>
 	 * 
@@ -0,0 +1,347 @@
+package ssp.dbpf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import ssp.dbpf.entries.DBPFEntry;
+import ssp.dbpf.entries.DBPFEntryTable;
+import ssp.dbpf.event.DBPFException;
+import ssp.dbpf.io.DBPFReader;
+import ssp.dbpf.io.DBPFUpdater;
+import ssp.dbpf.io.DBPFWriter;
+import ssp.dbpf.tgi.PackedTGIKey;
+import ssp.dbpf.tgi.TGIIndex;
+import ssp.dbpf.tgi.TGIIntMap;
+import ssp.dbpf.tgi.TGIKey;
+import ssp.dbpf.tgi.TGIMap;
+import ssp.dbpf.types.DBPFRaw;
+import ssp.dbpf.types.DBPFType;
+import ssp.dbpf.util.DBPFUtil2;
+
+/**
+ * Tests the TGI index and lookups.<br>
+ * 
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ * 
+ */
+public class JUnitTGI extends TestCase {
+
+	private File dstFolder = new File("testfiles" + File.separator + "io"
+			+ File.separator + "out");
+
+	@Override
+	protected void setUp() throws Exception {
+		if (!dstFolder.exists()) {
+			assertEquals(true, dstFolder.mkdirs());
+		}
+	}
+
+	@Test
+	public void testIndexSearch() {
+		TestUtil.printLine("TEST: Index search");
+		TestUtil.printLine();
+		List<DBPFEntry> entryList = createEntries(2000);
+		TGIIndex<DBPFEntry> index = new TGIIndex<DBPFEntry>();
+		for (DBPFEntry entry : entryList) {
+			index.add(entry.getTGIKey(), entry);
+		}
+		TestUtil.printLine(index.toString());
+		assertEquals(entryList.size(), index.size());
+
+		// compare all wildcard combinations with the linear search
+		long[] ids = new long[] { -1L, 0x0L, 0x1L, 0x2L, 0x7L, 0x10L };
+		for (long tid : ids) {
+			for (long gid : ids) {
+				for (long iid : ids) {
+					TGIKey tgiKey = new TGIKey(tid, gid, iid);
+					DBPFEntry[] expected = DBPFUtil2.searchEntry(entryList,
+							tgiKey);
+					assertTrue(tgiKey.toString(), Arrays.equals(expected,
+							index.get(tgiKey).toArray()));
+					assertEquals(expected.length, index.count(tgiKey));
+					assertSame(expected.length == 0 ? null : expected[0],
+							index.getFirst(tgiKey));
+				}
+			}
+		}
+
+		// remove by identity
+		DBPFEntry entry = entryList.get(10);
+		assertTrue(index.remove(entry.getTGIKey(), entry));
+		assertFalse(index.remove(entry.getTGIKey(), entry));
+		assertEquals(entryList.size() - 1, index.size());
+		for (DBPFEntry found : index.get(entry.getTGIKey())) {
+			assertNotSame(entry, found);
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testTGIMap() {
+		TestUtil.printLine("TEST: TGI map");
+		TestUtil.printLine();
+		TGIMap<Integer> map = new TGIMap<Integer>();
+		Map<PackedTGIKey, Integer> expected = new HashMap<PackedTGIKey, Integer>();
+		Random random = new Random(42);
+		// small id ranges to get many collisions and removals
+		for (int i = 0; i < 50000; i++) {
+			long tid = random.nextInt(8) * 0x10000000L;
+			long gid = random.nextInt(16);
+			long iid = random.nextInt(64) | 0xFFFFFF00L;
+			PackedTGIKey key = new PackedTGIKey(tid, gid, iid);
+			switch (random.nextInt(3)) {
+			case 0:
+				assertEquals(expected.put(key, i), map.put(tid, gid, iid, i));
+				break;
+			case 1:
+				assertEquals(expected.remove(key), map.remove(tid, gid, iid));
+				break;
+			default:
+				assertEquals(expected.get(key), map.get(key));
+				break;
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		TestUtil.printLine(map.toString());
+		for (Map.Entry<PackedTGIKey, Integer> entry : expected.entrySet()) {
+			TGIKey tgiKey = entry.getKey().toTGIKey();
+			assertEquals(entry.getValue(), map.get(tgiKey));
+			assertEquals(entry.getKey().hashCode(), tgiKey.hashCode());
+		}
+		assertEquals(expected.keySet(), new HashSet<PackedTGIKey>(map.keys()));
+		assertEquals(expected.size(), map.values().size());
+
+		// wildcards and invalid ids are never found
+		assertNull(map.get(new TGIKey(-1, -1, -1)));
+		assertNull(map.get(0x100000000L, 0, 0));
+		try {
+			map.put(new TGIKey(-1, 0, 0), 1);
+			fail("Negative id accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		map.clear();
+		assertTrue(map.isEmpty());
+
+		// the int map against the same expected values without removals
+		TGIIntMap intMap = new TGIIntMap();
+		expected.clear();
+		for (int i = 0; i < 20000; i++) {
+			long tid = random.nextInt(8) * 0x10000000L;
+			long gid = random.nextInt(16);
+			long iid = random.nextInt(64) | 0xFFFFFF00L;
+			Integer old = expected.put(new PackedTGIKey(tid, gid, iid), i);
+			assertEquals(old == null ? TGIIntMap.NOT_FOUND : old.intValue(),
+					intMap.put(tid, gid, iid, i));
+			assertEquals(expected.size(), intMap.size());
+		}
+		TestUtil.printLine(intMap.toString());
+		for (Map.Entry<PackedTGIKey, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().intValue(),
+					intMap.get(entry.getKey().toTGIKey()));
+		}
+		assertEquals(TGIIntMap.NOT_FOUND, intMap.get(new TGIKey(-1, -1, -1)));
+		try {
+			intMap.put(0, 0, 0, -1);
+			fail("Negative value accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		intMap.clear();
+		assertTrue(intMap.isEmpty());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testContainerSearch() throws DBPFException {
+		TestUtil.printLine("TEST: Container search");
+		TestUtil.printLine();
+		DBPFContainer container = new DBPFContainer();
+		List<DBPFEntry> entryList = createEntries(500);
+		for (DBPFEntry entry : entryList) {
+			container.addEntry(entry);
+		}
+		TGIKey tgiKey = new TGIKey(0x2L, -1L, 0x3L);
+		assertEquals(DBPFUtil2.countTGI(entryList, tgiKey),
+				DBPFUtil2.countTGI(container, tgiKey));
+		// entries added after the first search are found too
+		DBPFEntry entry = new DBPFEntry(new TGIKey(0x2L, 0x55L, 0x3L));
+		container.addEntry(entry);
+		assertSame(entry, DBPFUtil2.searchEntry(container, new TGIKey(0x2L,
+				0x55L, -1L))[0]);
+		assertSame(entry, container.getEntry(entry.getTGIKey()));
+
+		// a table gives the same results with its own index
+		DBPFContainer tableContainer = new DBPFContainer();
+		tableContainer.setEntryList(new DBPFEntryTable(new File("table.dat"),
+				10));
+		for (DBPFEntry added : entryList) {
+			tableContainer.addEntry(added);
+		}
+		TGIKey[] searchKeys = { tgiKey, new TGIKey(0x1L, 0x5L, 0x5L),
+				new TGIKey(0x1L, 0x5L, -1L), new TGIKey(0x2L, -1L, -1L),
+				new TGIKey(-1L, 0x3L, -1L), new TGIKey(0x7L, 0x7L, 0x7L) };
+		for (TGIKey searchKey : searchKeys) {
+			assertEquals(searchKey.toString(), DBPFUtil2.countTGI(entryList,
+					searchKey), tableContainer.countTGI(searchKey));
+			List<DBPFEntry> found = tableContainer.searchEntries(searchKey);
+			for (int i = 1; i < found.size(); i++) {
+				assertTrue(found.get(i - 1).getOffset() < found.get(i)
+						.getOffset());
+			}
+		}
+		tableContainer.addEntry(entry);
+		DBPFEntry tableEntry = tableContainer.getEntry(new TGIKey(0x2L, 0x55L,
+				-1L));
+		assertEquals(entry.getTGIKey(), tableEntry.getTGIKey());
+		assertSame(tableContainer, tableEntry.getContainer());
+		assertSame(container, entry.getContainer());
+
+		DBPFCollection collection = new DBPFCollection();
+		DBPFRaw raw = new DBPFRaw();
+		raw.setTGIKey(new TGIKey(0x1L, 0x2L, 0x3L));
+		collection.addType(raw);
+		assertSame(raw, collection.getType(new TGIKey(0x1L, -1L, -1L)));
+		// changed TGI needs a reindex
+		raw.setTGIKey(new TGIKey(0x4L, 0x5L, 0x6L));
+		collection.reindex();
+		assertEquals(0, DBPFUtil2.searchType(collection, new TGIKey(0x1L,
+				-1L, -1L)).length);
+		assertEquals(1, collection.countTGI(new TGIKey(0x4L, 0x5L, 0x6L)));
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testModifiedLists() throws DBPFException {
+		TestUtil.printLine("TEST: Modified lists");
+		TestUtil.printLine();
+		DBPFCollection collection = new DBPFCollection();
+		for (int i = 0; i < 10; i++) {
+			collection.addType(createRaw(new TGIKey(0x1L, 0x2L, i), i));
+		}
+		TGIKey tgiKey = new TGIKey(0x1L, 0x2L, 0x3L);
+		assertNotNull(collection.getType(tgiKey));
+		// set with the same size
+		DBPFType replaced = createRaw(new TGIKey(0x7L, 0x8L, 0x9L), 0);
+		collection.getTypeList().set(3, replaced);
+		assertNull(collection.getType(tgiKey));
+		assertSame(replaced, collection.getType(replaced.getTGIKey()));
+		// remove and add with the same size
+		collection.getTypeList().remove(3);
+		collection.getTypeList().add(createRaw(tgiKey, 0));
+		assertNull(collection.getType(replaced.getTGIKey()));
+		assertEquals(1, collection.countTGI(tgiKey));
+		// changed TGI without reindex
+		DBPFType type = collection.getType(new TGIKey(0x1L, 0x2L, 0x5L));
+		type.setTGIKey(new TGIKey(0x1L, 0x2L, 0x55L));
+		assertNull(collection.getType(new TGIKey(0x1L, 0x2L, 0x5L)));
+		assertEquals(0, collection.searchTypes(new TGIKey(0x1L, 0x2L, 0x5L))
+				.size());
+		assertEquals(10, collection.countTGI(new TGIKey(0x1L, -1L, -1L)));
+
+		DBPFContainer container = new DBPFContainer();
+		for (DBPFEntry entry : createEntries(10)) {
+			container.addEntry(entry);
+		}
+		DBPFEntry first = container.getEntryList().get(0);
+		assertSame(first, container.getEntry(first.getTGIKey()));
+		DBPFEntry entry = new DBPFEntry(new TGIKey(0x7L, 0x8L, 0x9L));
+		Iterator<DBPFEntry> it = container.getEntryList().iterator();
+		it.next();
+		it.remove();
+		container.getEntryList().add(entry);
+		assertEquals(0, container.countTGI(first.getTGIKey()));
+		assertSame(entry, container.getEntry(entry.getTGIKey()));
+
+		// compact table
+		DBPFEntryTable table = new DBPFEntryTable(new File("table.dat"), 10);
+		for (int i = 0; i < 10; i++) {
+			table.add(0x1L, 0x2L, i, i * 100, 100);
+		}
+		container.setEntryList(table);
+		assertEquals(300L, container.getEntry(tgiKey).getOffset());
+		table.setTGIKey(3, new TGIKey(0x1L, 0x2L, 0x33L));
+		assertNull(container.getEntry(tgiKey));
+		table.remove(0);
+		table.add(0x1L, 0x2L, 0x3L, 1000, 100);
+		assertEquals(1000L, container.getEntry(tgiKey).getOffset());
+		assertEquals(400L, container.getEntry(new TGIKey(0x1L, 0x2L, 0x4L))
+				.getOffset());
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testUpdateDBPF() throws DBPFException {
+		TestUtil.printLine("TEST: Update DBPF");
+		TestUtil.printLine();
+		File file = new File(dstFolder, "UpdateDBPF.dat");
+		List<DBPFType> typeList = new ArrayList<DBPFType>();
+		for (int i = 0; i < 300; i++) {
+			typeList.add(createRaw(new TGIKey(0x1L, 0x2L, i), 0));
+		}
+		DBPFWriter.write(file, typeList);
+
+		List<DBPFType> updateList = new ArrayList<DBPFType>();
+		for (int i = 0; i < 300; i += 3) {
+			updateList.add(createRaw(new TGIKey(0x1L, 0x2L, i), 1));
+		}
+		// wildcard type replaces all not yet replaced with IID 0x7
+		updateList.add(createRaw(new TGIKey(-1L, 0x2L, 0x7L), 2));
+		assertTrue(DBPFUpdater.updateDBPF(file, updateList));
+
+		DBPFCollection collection = DBPFReader.readCollection(file);
+		assertEquals(300, collection.getTypeList().size());
+		for (int i = 0; i < 300; i++) {
+			short[] data = ((DBPFRaw) collection.getTypeList().get(i))
+					.getData();
+			int expected = i % 3 == 0 ? 1 : (i == 7 ? 2 : 0);
+			assertEquals("IID " + i, expected, data[0]);
+		}
+		TestUtil.printLine();
+	}
+
+	/**
+	 * Creates entries with repeating TGIs.<br>
+	 * 
+	 * @param count
+	 *            The count
+	 * @return The entries
+	 */
+	private static List<DBPFEntry> createEntries(int count) {
+		List<DBPFEntry> entryList = new ArrayList<DBPFEntry>();
+		for (int i = 0; i < count; i++) {
+			DBPFEntry entry = new DBPFEntry(new TGIKey(i % 3, i % 17, i % 11));
+			entry.setOffset(i);
+			entryList.add(entry);
+		}
+		return entryList;
+	}
+
+	/**
+	 * Creates a raw type with one byte of data.<br>
+	 * 
+	 * @param tgiKey
+	 *            The TGI
+	 * @param value
+	 *            The byte
+	 * @return The type
+	 */
+	private static DBPFRaw createRaw(TGIKey tgiKey, int value) {
+		DBPFRaw raw = new DBPFRaw();
+		raw.setTGIKey(tgiKey);
+		raw.setData(new short[] { (short) value });
+		return raw;
+	}
+}
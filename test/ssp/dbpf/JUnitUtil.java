@@ -0,0 +1,282 @@
+package ssp.dbpf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import ssp.dbpf.io.DBPFReader;
+import ssp.dbpf.io.DBPFWriter;
+import ssp.dbpf.util.DBPFUtil;
+
+/**
+ * Tests the conversion of values in DBPFUtil against the former algorithms
+ * with Math.pow and hex strings.<br>
+ *
+ * @author Stefan Wertich, mapsonswen@web.de
+ * @version 2.1.0, 17.10.2026
+ *
+ */
+public class JUnitUtil extends TestCase {
+
+	private File dstFolder = new File("testfiles" + File.separator + "io"
+			+ File.separator + "out");
+
+	@Test
+	public void testToValue() {
+		TestUtil.printLine("TEST: To value");
+		TestUtil.printLine();
+		Random random = new Random(22);
+		short[] data = new short[8];
+		for (int n = 0; n < 200000; n++) {
+			for (int i = 0; i < data.length; i++) {
+				data[i] = (short) random.nextInt(256);
+			}
+			// the former algorithm is exact up to 6 bytes
+			int length = 1 + random.nextInt(6);
+			assertEquals(oldToValue(data, 0, length, false),
+					DBPFUtil.getUint32(data, 0, length));
+			assertEquals(oldToValue(data, 0, length, true),
+					DBPFUtil.getSint32(data, 0, length));
+			assertEquals(
+					Float.floatToIntBits(oldGetFloat32(data, 0, 4)),
+					Float.floatToIntBits(DBPFUtil.getFloat32(data, 0, 4)));
+
+			// negative 64 bit values
+			data[7] |= 0xF0;
+			assertEquals(oldToValue(data, 0, 8, true),
+					DBPFUtil.getSint32(data, 0, 8));
+		}
+		// special values
+		short[][] values = { { 0xFF, 0xFF, 0xFF, 0xFF }, { 0, 0, 0, 0xF0 },
+				{ 0, 0, 0, 0x80 }, { 0xFF, 0xFF, 0xFF, 0x7F }, { 0, 0, 0, 0 } };
+		for (short[] value : values) {
+			for (int length = 1; length <= 4; length++) {
+				assertEquals(oldToValue(value, 4 - length, length, false),
+						DBPFUtil.getUint32(value, 4 - length, length));
+				assertEquals(oldToValue(value, 4 - length, length, true),
+						DBPFUtil.getSint32(value, 4 - length, length));
+			}
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testToArray() {
+		TestUtil.printLine("TEST: To array");
+		TestUtil.printLine();
+		Random random = new Random(22);
+		for (int n = 0; n < 100000; n++) {
+			long value;
+			switch (n % 4) {
+			case 0:
+				value = random.nextLong();
+				break;
+			case 1:
+				value = random.nextInt();
+				break;
+			case 2:
+				value = random.nextInt() & 0xFFFFFFFFL;
+				break;
+			default:
+				value = random.nextInt(0x10000) - 0x8000;
+			}
+			int length = 1 + random.nextInt(12);
+			short[] expected = new short[length + 2];
+			short[] actual = new short[length + 2];
+			oldToArray(value, expected, 1, length);
+			DBPFUtil.setUint32(value, actual, 1, length);
+			assertTrue(Arrays.equals(expected, actual));
+
+			float f = Float.intBitsToFloat(random.nextInt());
+			expected = new short[6];
+			actual = new short[6];
+			oldToArray(DBPFUtil.toHex(f), expected, 1, 4);
+			DBPFUtil.setFloat32(f, actual, 1, 4);
+			assertTrue(Arrays.equals(expected, actual));
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testToValueString() {
+		TestUtil.printLine("TEST: To value from string");
+		TestUtil.printLine();
+		Random random = new Random(22);
+		for (int n = 0; n < 100000; n++) {
+			int length = 1 + random.nextInt(16);
+			StringBuilder sb = new StringBuilder(n % 2 == 0 ? "0x" : "");
+			for (int i = 0; i < length; i++) {
+				// prefer leading F for negative values, 64 bit only negative
+				boolean f = (i < 3 && random.nextBoolean())
+						|| (i == 0 && length == 16);
+				int digit = f ? 0xF : random.nextInt(16);
+				sb.append(Integer.toHexString(digit));
+			}
+			String hex = n % 3 == 0 ? sb.toString().toUpperCase() : sb
+					.toString();
+			assertEquals(hex, oldToValue(hex, true), DBPFUtil.toValue(hex,
+					true));
+			if (length < 16) {
+				assertEquals(hex, oldToValue(hex, false), DBPFUtil.toValue(
+						hex, false));
+			}
+		}
+		try {
+			DBPFUtil.toValue("0xFFZ1", true);
+			fail("Invalid hex string accepted");
+		} catch (NumberFormatException e) {
+			// expected
+		}
+		TestUtil.printLine();
+	}
+
+	@Test
+	public void testReadWriteUint32() throws IOException {
+		TestUtil.printLine("TEST: Read and write UINT32");
+		TestUtil.printLine();
+		File fileOld = new File(dstFolder, "Uint32Old.dat");
+		File fileNew = new File(dstFolder, "Uint32New.dat");
+		Random random = new Random(22);
+		long[] values = new long[1000];
+		int[] sizes = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt() & 0xFFFFFFFFL;
+			sizes[i] = 1 + random.nextInt(4);
+		}
+		values[0] = 0xFFFFFFFFL;
+		sizes[0] = 4;
+		values[1] = 0;
+		sizes[1] = 48;
+
+		RandomAccessFile rafOld = new RandomAccessFile(fileOld, "rw");
+		RandomAccessFile rafNew = new RandomAccessFile(fileNew, "rw");
+		try {
+			rafOld.setLength(0);
+			rafNew.setLength(0);
+			for (int i = 0; i < values.length; i++) {
+				oldWriteUINT32(rafOld, values[i], sizes[i]);
+				DBPFWriter.writeUINT32(rafNew, values[i], sizes[i]);
+			}
+			assertEquals(rafOld.length(), rafNew.length());
+
+			// read till after the end of the file
+			rafOld.seek(0);
+			rafNew.seek(0);
+			for (int i = 0; i < values.length + 2; i++) {
+				int size = (i < values.length) ? sizes[i] : 4;
+				long expected = oldReadUint32(rafOld, size);
+				assertEquals(expected, DBPFReader.readUint32(rafNew, size));
+				if (i < values.length && size <= 4) {
+					assertEquals(values[i] & ((1L << (8 * size)) - 1),
+							expected);
+				}
+			}
+		} finally {
+			rafOld.close();
+			rafNew.close();
+		}
+		TestUtil.printLine();
+	}
+
+	// ***********************************************************************
+	// Former algorithms
+	// ***********************************************************************
+
+	private static long oldToValue(short[] data, int start, int length,
+			boolean signed) {
+		long result = 0L;
+		if (signed && (data[start + length - 1] & 0xF0) == 0xF0) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < length; i++) {
+				sb.append(DBPFUtil.toHex(data[start + length - 1 - i], 2));
+			}
+			result = oldGetResult(sb.toString());
+		} else {
+			for (int i = 0; i < length; i++) {
+				short readed = data[start + i];
+				result += (readed * Math.pow(256, i));
+			}
+		}
+		return result;
+	}
+
+	private static long oldToValue(String hexString, boolean signed) {
+		long result = 0L;
+		hexString = hexString.toLowerCase();
+		if (hexString.startsWith("0x")) {
+			hexString = hexString.substring(2);
+		}
+		if (signed && hexString.startsWith("f")) {
+			result = oldGetResult(hexString);
+		} else {
+			result = Long.parseLong(hexString, 16);
+		}
+		return result;
+	}
+
+	private static long oldGetResult(String hexString) {
+		long result = 0L;
+		int slength = hexString.length();
+		int i = 0;
+		while (i < slength) {
+			if (hexString.charAt(i) == 'f') {
+				i++;
+			} else {
+				break;
+			}
+		}
+		if (i == slength) {
+			result = -1;
+		} else {
+			String value = "0" + hexString.substring(i);
+			long val = Long.parseLong(value, 16);
+			final long MAX = (long) Math.pow(16, (slength - i));
+			result = -(MAX - val);
+		}
+		return result;
+	}
+
+	private static float oldGetFloat32(short[] data, int start, int length) {
+		return DBPFUtil.toFloat(oldToValue(data, start, length, false));
+	}
+
+	private static void oldToArray(long value, short[] dest, int offset,
+			int length) {
+		String s = Long.toHexString(value);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 2 * length - s.length(); i++) {
+			sb.append('0');
+		}
+		s = sb.toString() + s;
+		int idx;
+		for (int i = 0; i < length; i++) {
+			idx = s.length() - 2 * i;
+			dest[offset + i] = Short.parseShort(s.substring(idx - 2, idx), 16);
+		}
+	}
+
+	private static long oldReadUint32(RandomAccessFile raf, int length)
+			throws IOException {
+		long sum = 0;
+		for (int i = 0; i < length; i++) {
+			int readed = raf.read();
+			sum += (readed * Math.pow(16 * 16, i));
+		}
+		return sum;
+	}
+
+	private static void oldWriteUINT32(RandomAccessFile raf, long value,
+			int size) throws IOException {
+		for (int i = 0; i < size; i++) {
+			long rest = value % 256;
+			raf.write((int) rest);
+			value = value / 256;
+		}
+	}
+}